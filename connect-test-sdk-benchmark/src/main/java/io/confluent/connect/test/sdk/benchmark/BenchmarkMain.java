@@ -0,0 +1,32 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is the entry point of the benchmarks jar. It accepts the JMH command line options,
+ * e.g. a regular expression of the benchmarks to run or -p size=1000, and adds the GC profiler
+ * unless another profiler is asked for, so that the allocation rate of every benchmark is
+ * reported along with its time.
+ */
+public class BenchmarkMain {
+
+  private BenchmarkMain() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+    if (!jmhArgs.contains("-prof")) {
+      jmhArgs.add("-prof");
+      jmhArgs.add("gc");
+    }
+    Main.main(jmhArgs.toArray(new String[0]));
+  }
+}
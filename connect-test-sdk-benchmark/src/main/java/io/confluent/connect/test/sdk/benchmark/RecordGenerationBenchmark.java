@@ -0,0 +1,77 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.benchmark;
+
+import io.confluent.connect.test.sdk.commons.publishers.KafkaSchemaDataPublisher;
+import io.confluent.connect.test.sdk.commons.publishers.StructDataPointGenerator;
+import io.confluent.connect.test.sdk.commons.publishers.TemplateStructDataPointGenerator;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the generation of records by a publisher
+ * (@see io.confluent.connect.test.sdk.commons.publishers.DataPublisher#publishDataPoints(int)),
+ * including the tracking of their unique ids, with a publisher which does not send them.
+ * A new publisher is used by every invocation, so that the unique ids do not accumulate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class RecordGenerationBenchmark {
+
+  private static final Schema SCHEMA = SchemaBuilder.struct().name("record")
+      .field("id", Schema.STRING_SCHEMA)
+      .field("count", Schema.INT32_SCHEMA)
+      .field("name", SchemaBuilder.string().defaultValue("connect-test-sdk").build())
+      .field("amount", SchemaBuilder.float64().defaultValue(42.0).build())
+      .field("active", SchemaBuilder.bool().defaultValue(true).build())
+      .build();
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  private int size;
+
+  @Param({"1", "4"})
+  private int generationParallelism;
+
+  private final StructDataPointGenerator generator =
+      new TemplateStructDataPointGenerator("id", "count");
+
+  @Benchmark
+  public List<Struct> publishDataPoints() throws Exception {
+    try (GeneratingDataPublisher dataPublisher = new GeneratingDataPublisher(generator)) {
+      dataPublisher.setGenerationParallelism(generationParallelism);
+      return dataPublisher.publishDataPoints(size);
+    }
+  }
+
+  /** KafkaSchemaDataPublisher which generates the data points without sending them. */
+  static class GeneratingDataPublisher extends KafkaSchemaDataPublisher {
+
+    GeneratingDataPublisher(StructDataPointGenerator generator) {
+      super(null, "benchmark", null, generator, SCHEMA);
+    }
+
+    @Override
+    protected void publishDataPoints(List<Struct> dataPoints, int firstRawUniqueId) {
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.benchmark;
+
+import io.confluent.connect.test.sdk.commons.extractors.KafkaDataExtractor;
+import io.confluent.connect.test.sdk.commons.publishers.TemplateStructDataPointGenerator;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.json.JsonConverter;
+import org.apache.kafka.connect.storage.Converter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the conversion of the records consumed from a Kafka topic to Structs
+ * by the KafkaDataExtractor (@see KafkaDataExtractor#extractData), without the consumer,
+ * so that only the conversion and the bookkeeping of the extractor are measured,
+ * sequentially and in parallel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class StructConversionBenchmark {
+
+  private static final String TOPIC = "benchmark";
+
+  private static final Schema SCHEMA = SchemaBuilder.struct().name("record")
+      .field("id", Schema.INT32_SCHEMA)
+      .field("count", Schema.INT32_SCHEMA)
+      .field("name", SchemaBuilder.string().defaultValue("connect-test-sdk").build())
+      .field("amount", SchemaBuilder.float64().defaultValue(42.0).build())
+      .field("active", SchemaBuilder.bool().defaultValue(true).build())
+      .build();
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  private int size;
+
+  @Param({"1", "4"})
+  private int conversionParallelism;
+
+  private ConvertingDataExtractor dataExtractor;
+  private ConsumerRecords<byte[], byte[]> records;
+
+  @Setup
+  public void setUp() {
+    JsonConverter converter = createConverter();
+
+    TemplateStructDataPointGenerator generator =
+        new TemplateStructDataPointGenerator("id", "count");
+    List<ConsumerRecord<byte[], byte[]>> consumerRecords = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Struct struct = generator.generateSingleData(i, i, SCHEMA);
+      consumerRecords.add(new ConsumerRecord<>(
+          TOPIC, 0, i, null, converter.fromConnectData(TOPIC, SCHEMA, struct)));
+    }
+    records = new ConsumerRecords<>(
+        Collections.singletonMap(new TopicPartition(TOPIC, 0), consumerRecords));
+    dataExtractor = new ConvertingDataExtractor(converter);
+    dataExtractor.setConversionParallelism(
+        conversionParallelism, StructConversionBenchmark::createConverter);
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataExtractor.close();
+  }
+
+  @Benchmark
+  public List<Struct> convert() {
+    return dataExtractor.convertAll(records);
+  }
+
+  private static JsonConverter createConverter() {
+    JsonConverter converter = new JsonConverter();
+    converter.configure(Collections.singletonMap("schemas.enable", "true"), false);
+    return converter;
+  }
+
+  /** KafkaDataExtractor which converts the given records instead of consuming them. */
+  static class ConvertingDataExtractor extends KafkaDataExtractor {
+
+    ConvertingDataExtractor(Converter converter) {
+      super(null, converter, struct -> String.valueOf(struct.get("id")), TOPIC);
+    }
+
+    @Override
+    protected List<Struct> convertAll(ConsumerRecords<byte[], byte[]> records) {
+      return super.convertAll(records);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.benchmark;
+
+import io.confluent.connect.test.sdk.commons.ConnectorUtils;
+import io.confluent.connect.test.sdk.commons.DeliveryGuarantee;
+import io.confluent.connect.test.sdk.commons.publishers.DataPublisher;
+import io.confluent.connect.test.sdk.commons.publishers.UniqueIdCodec;
+import io.confluent.connect.test.sdk.commons.sketches.KeySketch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the verification of the unique keys extracted from the end system
+ * against the data published by a publisher (@see ConnectorUtils#verifyData), both for
+ * publishers tracking their raw unique ids in a ledger and for publishers tracking every
+ * unique id as a string, with and without checking a sketch of the unique ids first.
+ * The sketch is not checked when the data is verified in order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class VerifyDataBenchmark {
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  private int size;
+
+  @Param({"true", "false"})
+  private boolean uniqueIdLedger;
+
+  @Param({"AT_LEAST_ONCE", "EXACTLY_ONCE"})
+  private DeliveryGuarantee deliveryGuarantee;
+
+  @Param({"false", "true"})
+  private boolean keySketch;
+
+  private DataPublisher<String> dataPublisher;
+  private List<String> actualUniqueKeys;
+
+  @Setup
+  public void setUp() throws Exception {
+    dataPublisher = new InMemoryDataPublisher();
+    dataPublisher.setUniqueIdLedgerEnabled(uniqueIdLedger);
+    if (keySketch) {
+      dataPublisher.setKeySketch(new KeySketch(size));
+    }
+    dataPublisher.publishDataPoints(size);
+    actualUniqueKeys = new ArrayList<>(dataPublisher.getUniqueIds());
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataPublisher.close();
+  }
+
+  @Benchmark
+  public void verifyData() {
+    ConnectorUtils.verifyData(dataPublisher, actualUniqueKeys, deliveryGuarantee, false);
+  }
+
+  @Benchmark
+  public void verifyDataInOrder() {
+    ConnectorUtils.verifyData(dataPublisher, actualUniqueKeys, deliveryGuarantee, true);
+  }
+
+  /** Publisher of String data points which are only kept in memory. */
+  static class InMemoryDataPublisher extends DataPublisher<String> {
+
+    private static final String PREFIX = "id-";
+
+    private static final UniqueIdCodec UNIQUE_ID_CODEC = new UniqueIdCodec() {
+      @Override
+      public String format(int rawUniqueId) {
+        return PREFIX + rawUniqueId;
+      }
+
+      @Override
+      public int parse(String uniqueId) {
+        if (uniqueId == null || !uniqueId.startsWith(PREFIX)) {
+          return -1;
+        }
+        try {
+          int rawUniqueId = Integer.parseInt(uniqueId.substring(PREFIX.length()));
+          // reject non canonical forms, e.g. with leading zeros or a sign, of a published id
+          return rawUniqueId >= 0 && format(rawUniqueId).equals(uniqueId) ? rawUniqueId : -1;
+        } catch (NumberFormatException e) {
+          return -1;
+        }
+      }
+    };
+
+    InMemoryDataPublisher() {
+      super(UNIQUE_ID_CODEC);
+    }
+
+    @Override
+    public String generateDataPoint(int rawUniqueId, int currentRecordCount) {
+      return UNIQUE_ID_CODEC.format(rawUniqueId);
+    }
+
+    @Override
+    public List<String> getUniqueIdFrom(String dataPoint) {
+      return Collections.singletonList(dataPoint);
+    }
+
+    @Override
+    public void publishDataPoints(List<String> dataPoints) {
+    }
+  }
+}
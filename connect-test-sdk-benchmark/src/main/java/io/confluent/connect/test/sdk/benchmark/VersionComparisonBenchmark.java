@@ -0,0 +1,71 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.benchmark;
+
+import io.confluent.connect.test.sdk.upgrade.util.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the parsing and the comparison of connector versions
+ * (@see Version), as done when the upgrade tests select the versions to run.
+ * Every parsed version keeps its tags as lists of strings, so the sizes stop at 1000000
+ * versions to keep the heap of the benchmark bounded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class VersionComparisonBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  private int size;
+
+  private List<String> versionStrings;
+  private List<Version> versions;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    versionStrings = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      String version = random.nextInt(20) + "." + random.nextInt(20) + "." + random.nextInt(100);
+      versionStrings.add(random.nextInt(4) == 0 ? version + "-SNAPSHOT" : version);
+    }
+    versions = parse();
+  }
+
+  @Benchmark
+  public List<Version> parse() {
+    List<Version> parsed = new ArrayList<>(versionStrings.size());
+    for (String versionString : versionStrings) {
+      parsed.add(new Version(versionString));
+    }
+    return parsed;
+  }
+
+  @Benchmark
+  public List<Version> sort() {
+    List<Version> sorted = new ArrayList<>(versions);
+    sorted.sort(Version::compare);
+    return sorted;
+  }
+}
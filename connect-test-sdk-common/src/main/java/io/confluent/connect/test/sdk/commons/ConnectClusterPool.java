@@ -0,0 +1,308 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons;
+
+import io.confluent.connect.test.sdk.commons.readiness.ReadinessProbe;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.connect.runtime.distributed.DistributedConfig;
+import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
+import org.apache.kafka.connect.util.clusters.WorkerHandle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * This class keeps warm connect clusters (@see EmbeddedConnectCluster) between tests and
+ * test classes of the same JVM, so that the cost of starting brokers and workers is paid
+ * once per plugin path and worker properties instead of once per test.
+ *
+ * <p>A cluster is leased with {@link #acquire(String, Map)} and given back by closing the
+ * lease. When a lease is closed, all the connectors of the cluster are deleted, and so are
+ * all the topics and consumer groups created during the lease. The offsets of source
+ * connectors cannot be deleted, so connectors must be named in the namespace of the lease
+ * (@see PooledConnectCluster#connectorName(String)), and a cluster which ran any other
+ * connector is stopped rather than leased again. Before a cluster is leased again, it is
+ * checked that its brokers are reachable and that every worker is running and serves its
+ * REST API; clusters which fail the check or the reset are stopped and replaced.
+ * The clusters of the pool are stopped when the JVM shuts down.
+ */
+public class ConnectClusterPool {
+
+  private static final Logger log = LoggerFactory.getLogger(ConnectClusterPool.class);
+
+  private static final long RESET_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(60);
+  private static final int HTTP_OK = 200;
+
+  private static final ConnectClusterPool INSTANCE = new ConnectClusterPool();
+
+  private final Map<String, Deque<PooledConnectCluster>> idleClusters = new HashMap<>();
+  private final List<PooledConnectCluster> allClusters = new ArrayList<>();
+  private int clusterCount = 0;
+  private int namespaceCount = 0;
+  private boolean shutdown = false;
+
+  private ConnectClusterPool() {
+    Runtime.getRuntime().addShutdownHook(
+        new Thread(this::shutdown, "connect-cluster-pool-shutdown"));
+  }
+
+  /**
+   * This method returns the pool shared by all the tests of the JVM.
+   * @return ConnectClusterPool
+   */
+  public static ConnectClusterPool getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * This method leases a warm connect cluster with the given plugin path,
+   * or starts a new one if there is none available.
+   * @param pluginPath the plugin.path of the workers
+   * @return Lease of the connect cluster, to be closed once the test is done.
+   */
+  public PooledConnectCluster acquire(String pluginPath) {
+    return acquire(pluginPath, Collections.emptyMap());
+  }
+
+  /**
+   * This method leases a warm connect cluster with the given plugin path and worker properties,
+   * or starts a new one if there is none available.
+   * @param pluginPath the plugin.path of the workers
+   * @param workerProps additional properties of the workers
+   * @return Lease of the connect cluster, to be closed once the test is done.
+   */
+  public PooledConnectCluster acquire(String pluginPath, Map<String, String> workerProps) {
+    String key = keyOf(pluginPath, workerProps);
+    PooledConnectCluster cluster;
+    while ((cluster = pollIdle(key)) != null) {
+      if (isHealthy(cluster)) {
+        break;
+      }
+      log.warn("Replacing unhealthy connect cluster {}", cluster.connect().getName());
+      stop(cluster);
+    }
+    if (cluster == null) {
+      cluster = start(key, pluginPath, workerProps);
+    }
+    Set<String> baselineTopics;
+    Set<String> baselineGroups;
+    try (Admin admin = cluster.connect().kafka().createAdminClient()) {
+      baselineTopics = listTopics(admin);
+      baselineGroups = listConsumerGroups(admin);
+    } catch (Exception e) {
+      stop(cluster);
+      throw new IllegalStateException(
+          "Could not list the topics of connect cluster " + cluster.connect().getName(), e);
+    }
+    synchronized (this) {
+      cluster.lease("ns" + (++namespaceCount), baselineTopics, baselineGroups);
+    }
+    log.info("Leased connect cluster {} with namespace {}",
+        cluster.connect().getName(), cluster.namespace());
+    return cluster;
+  }
+
+  /**
+   * This method stops all the clusters of the pool, including the leased ones.
+   * It is called when the JVM shuts down.
+   */
+  public void shutdown() {
+    List<PooledConnectCluster> clusters;
+    synchronized (this) {
+      shutdown = true;
+      clusters = new ArrayList<>(allClusters);
+      idleClusters.clear();
+    }
+    clusters.forEach(this::stop);
+  }
+
+  void release(PooledConnectCluster cluster) {
+    if (!cluster.markReleased()) {
+      return;
+    }
+    try {
+      reset(cluster);
+    } catch (Exception e) {
+      log.warn("Could not reset connect cluster {}, stopping it",
+          cluster.connect().getName(), e);
+      stop(cluster);
+      return;
+    }
+    synchronized (this) {
+      if (!shutdown) {
+        idleClusters.computeIfAbsent(cluster.key(), k -> new ArrayDeque<>()).push(cluster);
+        return;
+      }
+    }
+    stop(cluster);
+  }
+
+  private synchronized PooledConnectCluster pollIdle(String key) {
+    if (shutdown) {
+      throw new IllegalStateException("Connect cluster pool is shut down");
+    }
+    Deque<PooledConnectCluster> clusters = idleClusters.get(key);
+    return clusters == null ? null : clusters.poll();
+  }
+
+  private PooledConnectCluster start(
+      String key, String pluginPath, Map<String, String> workerProps) {
+    String clusterName;
+    synchronized (this) {
+      clusterName = "pooled-connect-" + (++clusterCount);
+    }
+    Map<String, String> props = new HashMap<>(workerProps);
+    props.put("plugin.path", pluginPath);
+    // the internal topics and the group of the workers are never deleted by a reset
+    props.putIfAbsent(DistributedConfig.GROUP_ID_CONFIG, clusterName + "-workers");
+    props.putIfAbsent(DistributedConfig.CONFIG_TOPIC_CONFIG, clusterName + "-configs");
+    props.putIfAbsent(DistributedConfig.OFFSET_STORAGE_TOPIC_CONFIG, clusterName + "-offsets");
+    props.putIfAbsent(DistributedConfig.STATUS_STORAGE_TOPIC_CONFIG, clusterName + "-status");
+    log.info("Starting connect cluster {}", clusterName);
+    EmbeddedConnectCluster connect = new EmbeddedConnectCluster.Builder()
+        .name(clusterName)
+        .workerProps(props)
+        .build();
+    connect.start();
+    PooledConnectCluster cluster = new PooledConnectCluster(
+        this, key, connect,
+        new HashSet<>(Arrays.asList(
+            props.get(DistributedConfig.CONFIG_TOPIC_CONFIG),
+            props.get(DistributedConfig.OFFSET_STORAGE_TOPIC_CONFIG),
+            props.get(DistributedConfig.STATUS_STORAGE_TOPIC_CONFIG))),
+        props.get(DistributedConfig.GROUP_ID_CONFIG));
+    synchronized (this) {
+      allClusters.add(cluster);
+    }
+    return cluster;
+  }
+
+  private void stop(PooledConnectCluster cluster) {
+    synchronized (this) {
+      if (!allClusters.remove(cluster)) {
+        return;
+      }
+    }
+    try {
+      cluster.connect().stop();
+    } catch (Exception e) {
+      log.warn("Could not stop connect cluster {}", cluster.connect().getName(), e);
+    }
+  }
+
+  private boolean isHealthy(PooledConnectCluster cluster) {
+    try {
+      EmbeddedConnectCluster connect = cluster.connect();
+      try (Admin admin = connect.kafka().createAdminClient()) {
+        if (admin.describeCluster().nodes()
+            .get(RESET_TIMEOUT_MS, TimeUnit.MILLISECONDS).isEmpty()) {
+          return false;
+        }
+      }
+      for (WorkerHandle worker : connect.workers()) {
+        if (!worker.isRunning()) {
+          return false;
+        }
+        // only a worker which joined the group and read the configs can list the connectors
+        int status = connect.requestGet(worker.url() + "connectors").getStatus();
+        if (status != HTTP_OK) {
+          log.warn("Worker {} of connect cluster {} answered {} to a listing of connectors",
+              worker.name(), connect.getName(), status);
+          return false;
+        }
+      }
+      return !connect.workers().isEmpty();
+    } catch (Exception e) {
+      log.warn("Could not check connect cluster {}", cluster.connect().getName(), e);
+      return false;
+    }
+  }
+
+  private void reset(PooledConnectCluster cluster) throws Exception {
+    EmbeddedConnectCluster connect = cluster.connect();
+    Collection<String> connectors = connect.connectors();
+    for (String connector : connectors) {
+      connect.deleteConnector(connector);
+    }
+    ReadinessProbe connectorsDeleted = () -> connect.connectors().isEmpty();
+    if (!ConnectorUtils.waitForReadiness(connectorsDeleted, RESET_TIMEOUT_MS)) {
+      throw new IllegalStateException("Connectors were not deleted in time");
+    }
+    try (Admin admin = connect.kafka().createAdminClient()) {
+      Set<String> topics = listTopics(admin);
+      topics.removeAll(cluster.baselineTopics());
+      topics.removeAll(cluster.internalTopics());
+      if (!topics.isEmpty()) {
+        admin.deleteTopics(topics).all().get(RESET_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      }
+      Set<String> groups = listConsumerGroups(admin);
+      groups.removeAll(cluster.baselineGroups());
+      groups.remove(cluster.workerGroup());
+      // the groups of the deleted sink connectors may have members until their tasks stop
+      Set<String> remainingGroups = new HashSet<>(groups);
+      ReadinessProbe groupsDeleted = () -> {
+        for (Map.Entry<String, KafkaFuture<Void>> deletion
+            : admin.deleteConsumerGroups(remainingGroups).deletedGroups().entrySet()) {
+          try {
+            deletion.getValue().get(RESET_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            remainingGroups.remove(deletion.getKey());
+          } catch (ExecutionException e) {
+            log.debug("Could not delete consumer group {} yet", deletion.getKey(), e);
+          }
+        }
+        return remainingGroups.isEmpty();
+      };
+      if (!groups.isEmpty()
+          && !ConnectorUtils.waitForReadiness(groupsDeleted, RESET_TIMEOUT_MS)) {
+        throw new IllegalStateException(
+            "Consumer groups " + remainingGroups + " were not deleted in time");
+      }
+      log.info("Reset connect cluster {}: deleted connectors {}, topics {} and groups {}",
+          connect.getName(), connectors, topics, groups);
+    }
+    String connectorPrefix = cluster.connectorName("");
+    List<String> foreignConnectors = connectors.stream()
+        .filter(connector -> !connector.startsWith(connectorPrefix))
+        .collect(Collectors.toList());
+    if (!foreignConnectors.isEmpty()) {
+      throw new IllegalStateException("Connectors " + foreignConnectors + " were not named "
+          + "with PooledConnectCluster#connectorName, so their source offsets would be seen "
+          + "by later leases");
+    }
+  }
+
+  private static Set<String> listTopics(Admin admin) throws Exception {
+    // internal topics, like __consumer_offsets, are not listed
+    return new HashSet<>(admin.listTopics().names().get(RESET_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+  }
+
+  private static Set<String> listConsumerGroups(Admin admin) throws Exception {
+    return admin.listConsumerGroups().all().get(RESET_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+        .stream()
+        .map(ConsumerGroupListing::groupId)
+        .collect(Collectors.toCollection(HashSet::new));
+  }
+
+  private static String keyOf(String pluginPath, Map<String, String> workerProps) {
+    return pluginPath + "|" + new TreeMap<>(workerProps);
+  }
+}
@@ -4,14 +4,24 @@
 
 package io.confluent.connect.test.sdk.commons;
 
+import io.confluent.connect.test.sdk.commons.latency.LatencySummary;
+import io.confluent.connect.test.sdk.commons.latency.LatencyTracker;
+import io.confluent.connect.test.sdk.commons.publishers.DataPublisher;
+import io.confluent.connect.test.sdk.commons.readiness.ReadinessProbe;
+import io.confluent.connect.test.sdk.commons.readiness.ReadinessProbes;
+import io.confluent.connect.test.sdk.commons.verifiers.DeliveryVerifier;
+import io.confluent.connect.test.sdk.commons.verifiers.ExternalDeliveryVerifier;
+import io.confluent.connect.test.sdk.commons.verifiers.SketchVerifier;
+import io.confluent.connect.test.sdk.commons.verifiers.VerificationResult;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
-import org.apache.kafka.connect.runtime.AbstractStatus;
-import org.apache.kafka.connect.runtime.rest.entities.ConnectorStateInfo;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.utils.Utils;
 import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
-import org.apache.kafka.test.TestUtils;
 import org.junit.jupiter.api.Assertions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,12 +29,18 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for connector related operations.
@@ -35,6 +51,12 @@ public class ConnectorUtils {
 
   static final long CONNECTOR_STARTUP_DURATION_MS = TimeUnit.SECONDS.toMillis(30);
 
+  static final long PARTITION_METADATA_BACKOFF_MS = 100;
+
+  static final long INITIAL_READINESS_BACKOFF_MS = 50;
+
+  static final long MAX_READINESS_BACKOFF_MS = TimeUnit.SECONDS.toMillis(1);
+
   /**
    * Creates a connector with the given name and configuration properties.
    * @param connect the connect cluster (@see EmbeddedConnectCluster)
@@ -77,8 +99,113 @@ public class ConnectorUtils {
     Thread.sleep(connectorStartDelayMs);
   }
 
+  /**
+   * Creates a connector with the given name and configuration properties, and waits until
+   * the given probe reports evidence that the connector is ready, instead of a fixed delay.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   *                to use for creating the connector
+   * @param connectorName the name of the connector
+   * @param configProperties the configuration properties for the connector.
+   * @param readinessProbe the probe reporting that the connector is ready
+   * @param maxReadinessWaitMs the maximum time in milliseconds to wait for the probe.
+   *                           The test goes on with a warning if it is not ready in time.
+   * @throws Exception if the connector could not be created
+   */
+  public static void startConnector(
+      EmbeddedConnectCluster connect,
+      String connectorName, Map<String, String> configProperties,
+      ReadinessProbe readinessProbe, long maxReadinessWaitMs) throws Exception {
+    connect.configureConnector(connectorName, configProperties);
+    waitForConnectorToBeReady(
+        connect, connectorName, getTaskMax(configProperties),
+        readinessProbe, maxReadinessWaitMs);
+  }
+
+  /**
+   * Wait for the connector to start, then for the given probe to report
+   * evidence that the connector is ready.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param connectorName the name of the connector
+   * @param numTasks the number of tasks to wait for
+   * @param readinessProbe the probe reporting that the connector is ready
+   * @param maxReadinessWaitMs the maximum time in milliseconds to wait for the probe.
+   *                           The test goes on with a warning if it is not ready in time.
+   * @throws InterruptedException if this was interrupted
+   */
+  public static void waitForConnectorToBeReady(
+      EmbeddedConnectCluster connect, String connectorName, int numTasks,
+      ReadinessProbe readinessProbe, long maxReadinessWaitMs) throws InterruptedException {
+    waitForConnectorToStart(connect, connectorName, numTasks);
+    long startMs = System.currentTimeMillis();
+    if (waitForReadiness(readinessProbe, maxReadinessWaitMs)) {
+      log.info("Connector {} ready after {} ms",
+          connectorName, System.currentTimeMillis() - startMs);
+    } else {
+      log.warn("Connector {} did not report readiness within {} ms, going on",
+          connectorName, maxReadinessWaitMs);
+    }
+  }
+
+  /**
+   * Wait for the given probe to report readiness, polling it with an exponential back-off
+   * from 50 ms up to 1 second.
+   * The probe is started first, unless it was already started to record its baseline earlier.
+   * Exceptions thrown by the probe are logged and the probe is checked again.
+   * The probe is closed once the wait is over.
+   * @param readinessProbe the probe to poll
+   * @param maxWaitMs the maximum time in milliseconds to wait
+   * @return true if the probe reported readiness in time
+   * @throws InterruptedException if this was interrupted
+   */
+  public static boolean waitForReadiness(
+      ReadinessProbe readinessProbe, long maxWaitMs) throws InterruptedException {
+    long deadlineMs = System.currentTimeMillis() + maxWaitMs;
+    long backoffMs = INITIAL_READINESS_BACKOFF_MS;
+    try {
+      startReadinessProbe(readinessProbe);
+      while (true) {
+        try {
+          if (readinessProbe.isReady()) {
+            return true;
+          }
+        } catch (InterruptedException e) {
+          throw e;
+        } catch (Exception e) {
+          log.debug("Could not check readiness, retrying.", e);
+        }
+        long remainingMs = deadlineMs - System.currentTimeMillis();
+        if (remainingMs <= 0) {
+          return false;
+        }
+        Thread.sleep(Math.min(backoffMs, remainingMs));
+        backoffMs = Math.min(backoffMs * 2, MAX_READINESS_BACKOFF_MS);
+      }
+    } finally {
+      readinessProbe.close();
+    }
+  }
+
+  /**
+   * Start the given probe, so that it records the baseline from which it measures the progress
+   * of the connector. Exceptions thrown by the probe are logged, and the probe starts itself
+   * on its first check instead.
+   * @param readinessProbe the probe to start
+   * @throws InterruptedException if this was interrupted
+   */
+  public static void startReadinessProbe(
+      ReadinessProbe readinessProbe) throws InterruptedException {
+    try {
+      readinessProbe.start();
+    } catch (InterruptedException e) {
+      throw e;
+    } catch (Exception e) {
+      log.debug("Could not start readiness probe, starting it on its first check.", e);
+    }
+  }
+
   /**
    * Wait for the connector to start.
+   * The connector status is polled with an exponential back-off.
    * @param connect the connect cluster (@see EmbeddedConnectCluster)
    * @param name the name of the connector
    * @param numTasks the number of tasks to wait for
@@ -88,34 +215,19 @@ public class ConnectorUtils {
   public static long waitForConnectorToStart(
       EmbeddedConnectCluster connect,
       String name, int numTasks) throws InterruptedException {
-    TestUtils.waitForCondition(() -> assertConnectorAndTasksRunning(
-            connect, name, numTasks).orElse(false),
-        CONNECTOR_STARTUP_DURATION_MS, "Connector tasks did not start in time.");
-    return System.currentTimeMillis();
-  }
-
-  private static Optional<Boolean> assertConnectorAndTasksRunning(
-      EmbeddedConnectCluster connect,
-      String connectorName, int numTasks) {
-    try {
-      ConnectorStateInfo info = connect.connectorStatus(connectorName);
-      boolean result = info != null && info.tasks().size() == numTasks
-          && info.connector().state().equals(AbstractStatus.State.RUNNING.toString())
-          && info.tasks()
-          .stream()
-          .allMatch(s -> s.state().equals(AbstractStatus.State.RUNNING.toString()));
-      return Optional.of(result);
-    } catch (Exception e) {
-      log.error("Could not check connector state info.", e);
-      return Optional.empty();
+    if (!waitForReadiness(
+        ReadinessProbes.connectorRunning(connect, name, numTasks),
+        CONNECTOR_STARTUP_DURATION_MS)) {
+      Assertions.fail("Connector tasks did not start in time.");
     }
+    return System.currentTimeMillis();
   }
 
   /**
    * Verify that the expected data and the actual data are the same
    * as per the delivery guarantee and inorder data support.
    * @param expectedUniqueKeys list of expected unique identifiers
- *                            present in the source system/ Kafka topic
+   *                           present in the source system/ Kafka topic
    * @param actualUniqueKeys list of actual unique identifiers
    *                        present in the Kafka topic/ sink system
    * @param deliveryGuarantee delivery guarantee of the connector
@@ -124,26 +236,165 @@ public class ConnectorUtils {
   public static void verifyData(
       List<String> expectedUniqueKeys, List<String> actualUniqueKeys,
       DeliveryGuarantee deliveryGuarantee, boolean inorder) {
-    if (deliveryGuarantee == DeliveryGuarantee.AT_LEAST_ONCE) {
-      // remove duplicates from the actualUniqueKeys
-      List<String> actualUniqueKeysWithoutDuplicates = new ArrayList<>();
-      for (String uniqueKey : actualUniqueKeys) {
-        if (!actualUniqueKeysWithoutDuplicates.contains(uniqueKey)) {
-          actualUniqueKeysWithoutDuplicates.add(uniqueKey);
-        }
-      }
-      if (inorder) {
-        Assertions.assertEquals(expectedUniqueKeys, actualUniqueKeysWithoutDuplicates);
-      } else {
-        Assertions.assertTrue(actualUniqueKeysWithoutDuplicates.containsAll(expectedUniqueKeys));
-      }
-    } else if (deliveryGuarantee == DeliveryGuarantee.EXACTLY_ONCE) {
-      if (inorder) {
-        Assertions.assertEquals(expectedUniqueKeys, actualUniqueKeys);
-      } else {
-        Assertions.assertEquals(actualUniqueKeys.size(), expectedUniqueKeys.size());
-        Assertions.assertTrue(actualUniqueKeys.containsAll(expectedUniqueKeys));
-      }
+    VerificationResult result = DeliveryVerifier.verify(
+        expectedUniqueKeys, actualUniqueKeys, deliveryGuarantee, inorder);
+    log.info("Verification result: {}", result);
+    Assertions.assertTrue(result.isSuccessful(), result::toString);
+  }
+
+  /**
+   * Verify that the data published by the publisher and the actual data are the same
+   * as per the delivery guarantee and inorder data support.
+   * If the publisher tracks its raw unique ids in a ledger (@see
+   * DataPublisher#setUniqueIdLedgerEnabled), it is verified directly without materializing the
+   * expected unique keys.
+   * If the publisher keeps a sketch of its unique ids and the data is not expected in order,
+   * the actual data is checked against the sketch first, and only verified exactly
+   * if the sketch suspects a loss, duplicates or unexpected data.
+   * @param dataPublisher publisher of the data present in the source system/ Kafka topic
+   * @param actualUniqueKeys list of actual unique identifiers
+   *                        present in the Kafka topic/ sink system
+   * @param deliveryGuarantee delivery guarantee of the connector
+   * @param inorder whether the data is expected to be in order or not
+   */
+  public static void verifyData(
+      DataPublisher<?> dataPublisher, List<String> actualUniqueKeys,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder) {
+    if (passesKeySketch(dataPublisher, Collections.singletonList(actualUniqueKeys),
+        deliveryGuarantee, inorder)) {
+      return;
+    }
+    if (dataPublisher.getUniqueIdLedger() == null) {
+      verifyData(
+          dataPublisher.getExpectedUniqueIds(), actualUniqueKeys,
+          deliveryGuarantee, inorder);
+      return;
+    }
+    VerificationResult result = DeliveryVerifier.verify(
+        dataPublisher.getUniqueIdLedger(), dataPublisher.getUniqueIdCodec(),
+        actualUniqueKeys, deliveryGuarantee, inorder);
+    log.info("Verification result: {}", result);
+    Assertions.assertTrue(result.isSuccessful(), result::toString);
+  }
+
+  /**
+   * Verify that the expected data and the actual data of every partition of the end system
+   * are the same as per the delivery guarantee and inorder data support.
+   * The ordering is verified within every partition only, so the data of a multi-partition
+   * topic or of a multi-task connector is not required to be in order across partitions.
+   * @param expectedUniqueKeys list of expected unique identifiers
+   *                           present in the source system/ Kafka topic
+   * @param actualUniqueKeysByPartition actual unique identifiers present in every partition
+   *                                    of the Kafka topic/ sink system
+   * @param deliveryGuarantee delivery guarantee of the connector
+   * @param inorder whether the data is expected to be in order within every partition or not
+   */
+  public static void verifyData(
+      List<String> expectedUniqueKeys, Map<String, List<String>> actualUniqueKeysByPartition,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder) {
+    VerificationResult result = DeliveryVerifier.verify(
+        expectedUniqueKeys, actualUniqueKeysByPartition, deliveryGuarantee, inorder);
+    log.info("Verification result: {}", result);
+    Assertions.assertTrue(result.isSuccessful(), result::toString);
+  }
+
+  /**
+   * Verify that the data published by the publisher and the actual data of every partition
+   * of the end system are the same as per the delivery guarantee and inorder data support.
+   * The ordering is verified within every partition only, so the data of a multi-partition
+   * topic or of a multi-task connector is not required to be in order across partitions.
+   * As for a list of actual unique keys, the publisher's sketch is checked first if it has one.
+   * @param dataPublisher publisher of the data present in the source system/ Kafka topic
+   * @param actualUniqueKeysByPartition actual unique identifiers present in every partition
+   *                                    of the Kafka topic/ sink system
+   * @param deliveryGuarantee delivery guarantee of the connector
+   * @param inorder whether the data is expected to be in order within every partition or not
+   */
+  public static void verifyData(
+      DataPublisher<?> dataPublisher, Map<String, List<String>> actualUniqueKeysByPartition,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder) {
+    if (passesKeySketch(dataPublisher, actualUniqueKeysByPartition.values(),
+        deliveryGuarantee, inorder)) {
+      return;
+    }
+    if (dataPublisher.getUniqueIdLedger() == null) {
+      verifyData(
+          dataPublisher.getExpectedUniqueIds(), actualUniqueKeysByPartition,
+          deliveryGuarantee, inorder);
+      return;
+    }
+    VerificationResult result = DeliveryVerifier.verify(
+        dataPublisher.getUniqueIdLedger(), dataPublisher.getUniqueIdCodec(),
+        actualUniqueKeysByPartition, deliveryGuarantee, inorder);
+    log.info("Verification result: {}", result);
+    Assertions.assertTrue(result.isSuccessful(), result::toString);
+  }
+
+  /**
+   * Verify that the expected data and the actual data added to an external verifier are the
+   * same as per the delivery guarantee, with a bounded amount of memory.
+   * The ordering of the data is not verified.
+   * @param verifier verifier holding the expected and actual unique identifiers
+   *                 (@see ExternalDeliveryVerifier)
+   * @param deliveryGuarantee delivery guarantee of the connector
+   */
+  public static void verifyData(
+      ExternalDeliveryVerifier verifier, DeliveryGuarantee deliveryGuarantee) {
+    VerificationResult result = verifier.verify(deliveryGuarantee);
+    log.info("Verification result: {}", result);
+    Assertions.assertTrue(result.isSuccessful(), result::toString);
+  }
+
+  /**
+   * Check the actual unique keys against the sketch of the publisher, if it has one and the
+   * data is not expected in order.
+   * @return true if the sketch is conclusive and the delivery guarantee is satisfied,
+   *         false if the data should be verified exactly.
+   */
+  private static boolean passesKeySketch(
+      DataPublisher<?> dataPublisher, Collection<List<String>> actualUniqueKeys,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder) {
+    if (inorder || dataPublisher.getKeySketch() == null) {
+      return false;
+    }
+    long startMillis = System.currentTimeMillis();
+    SketchVerifier sketchVerifier = new SketchVerifier(dataPublisher.getKeySketch());
+    for (List<String> uniqueKeys : actualUniqueKeys) {
+      sketchVerifier.acceptAll(uniqueKeys);
+    }
+    if (sketchVerifier.isSuccessful(deliveryGuarantee)) {
+      log.info("Sketch verification passed in {} ms: {}",
+          System.currentTimeMillis() - startMillis, sketchVerifier);
+      return true;
+    }
+    log.info("Sketch verification suspects a loss, duplicates or unexpected data, "
+        + "verifying exactly: {}", sketchVerifier);
+    return false;
+  }
+
+  /**
+   * Start a new phase in the given latency tracker, if any, so that the latencies of the
+   * records published from now on are reported in that phase.
+   * @param latencyTracker latency tracker of the data extractor, or null
+   * @param phase name of the phase
+   */
+  public static void startLatencyPhase(LatencyTracker latencyTracker, String phase) {
+    if (latencyTracker != null) {
+      latencyTracker.startPhase(phase);
+    }
+  }
+
+  /**
+   * Log the p50, p99 and p999 end-to-end latencies of every phase of the given latency
+   * tracker, if any.
+   * @param latencyTracker latency tracker of the data extractor, or null
+   */
+  public static void logLatencies(LatencyTracker latencyTracker) {
+    if (latencyTracker == null) {
+      return;
+    }
+    for (LatencySummary summary : latencyTracker.getSummaries().values()) {
+      log.info("End-to-end latency of {}", summary);
     }
   }
 
@@ -157,6 +408,25 @@ public class ConnectorUtils {
       EmbeddedConnectCluster connect,
       int maxRecords, long maxDuration, String... topics) {
     Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> records = new HashMap<>();
+    consume(connect, maxRecords, maxDuration, batch -> addAll(records, batch), topics);
+    return new ConsumerRecords<>(records);
+  }
+
+  /**
+   * Consume records from the given topics with a subscribed consumer, handing every polled
+   * batch to the given handler instead of keeping the records, until the given number of
+   * records is reached or the time is up. The memory used does not grow with the number
+   * of records, so the handler can keep just what it needs of every record.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param maxRecords number of records after which consumption stops
+   * @param maxDuration maximum time in milliseconds to consume
+   * @param batchHandler handler of every non-empty batch of polled records
+   * @param topics topics to consume from
+   * @return number of records consumed
+   */
+  public static int consume(
+      EmbeddedConnectCluster connect, int maxRecords, long maxDuration,
+      Consumer<ConsumerRecords<byte[], byte[]>> batchHandler, String... topics) {
     int consumedRecords = 0;
     try (KafkaConsumer<byte[], byte[]> consumer =
              connect.kafka().createConsumerAndSubscribeTo(
@@ -166,27 +436,263 @@ public class ConnectorUtils {
       while (allowedDuration > 0) {
         log.debug("Consuming from {} for {} millis.", Arrays.toString(topics), allowedDuration);
         ConsumerRecords<byte[], byte[]> rec = consumer.poll(Duration.ofMillis(allowedDuration));
-        if (rec.isEmpty()) {
-          allowedDuration = maxDuration - (System.currentTimeMillis() - startMillis);
-          continue;
-        }
-        for (TopicPartition partition: rec.partitions()) {
-          final List<ConsumerRecord<byte[], byte[]>> r = rec.records(partition);
-          records.computeIfAbsent(partition, t -> new ArrayList<>()).addAll(r);
-          consumedRecords += r.size();
-        }
-        if (consumedRecords >= maxRecords) {
-          return new ConsumerRecords<>(records);
+        if (!rec.isEmpty()) {
+          batchHandler.accept(rec);
+          consumedRecords += rec.count();
+          if (consumedRecords >= maxRecords) {
+            return consumedRecords;
+          }
         }
         allowedDuration = maxDuration - (System.currentTimeMillis() - startMillis);
       }
     }
     if (consumedRecords != 0) {
-      return new ConsumerRecords<>(records);
+      return consumedRecords;
     }
     throw new RuntimeException("No records consumed from " + Arrays.toString(topics));
   }
 
+  /**
+   * Consume all the records present in the given topics at the time of the call.
+   * The beginning and end offsets of every partition are read first, and the partitions
+   * are then consumed with explicitly assigned consumers spread across the given number
+   * of threads. Consumption stops as soon as every partition reaches its end offset,
+   * so no consumer group is joined and no time is spent waiting for more records.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param consumerThreads maximum number of consumers to read the partitions in parallel
+   * @param maxDuration maximum time in milliseconds to wait for all partitions to be read
+   * @param topics topics to consume from
+   * @return records consumed from the topics, in offset order within every partition
+   */
+  public static ConsumerRecords<byte[], byte[]> consumeToEndOffsets(
+      EmbeddedConnectCluster connect,
+      int consumerThreads, long maxDuration, String... topics) {
+    return consumeToEndOffsets(connect, consumerThreads, 0, maxDuration, topics);
+  }
+
+  /**
+   * Consume the records of the given topics with explicitly assigned consumers, like
+   * {@link #consumeToEndOffsets(EmbeddedConnectCluster, int, long, String...)}, once the
+   * topics hold at least the given number of records, e.g. once a source connector which is
+   * still catching up wrote them all. The end offsets are read again until they cover the
+   * given number of records or the time is up, and all the records present then are consumed.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param consumerThreads maximum number of consumers to read the partitions in parallel
+   * @param minRecords number of records to wait for before reading the end offsets, or 0
+   * @param maxDuration maximum time in milliseconds to wait for the records and read all
+   *                    the partitions, shared by both steps
+   * @param topics topics to consume from
+   * @return records consumed from the topics, in offset order within every partition
+   */
+  public static ConsumerRecords<byte[], byte[]> consumeToEndOffsets(
+      EmbeddedConnectCluster connect,
+      int consumerThreads, int minRecords, long maxDuration, String... topics) {
+    Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> records = new HashMap<>();
+    consumeToEndOffsets(connect, consumerThreads, minRecords, maxDuration, batch -> {
+      synchronized (records) {
+        addAll(records, batch);
+      }
+    }, topics);
+    return new ConsumerRecords<>(records);
+  }
+
+  /**
+   * Consume all the records present in the given topics at the time of the call, like
+   * {@link #consumeToEndOffsets(EmbeddedConnectCluster, int, long, String...)}, handing every
+   * polled batch to the given handler instead of keeping the records.
+   * The handler is called concurrently by the consumer threads, so it must be thread safe.
+   * Every partition is read by a single thread, so its records are handed in offset order.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param consumerThreads maximum number of consumers to read the partitions in parallel
+   * @param maxDuration maximum time in milliseconds to wait for all partitions to be read
+   * @param batchHandler handler of every non-empty batch of polled records
+   * @param topics topics to consume from
+   * @return number of records consumed
+   */
+  public static int consumeToEndOffsets(
+      EmbeddedConnectCluster connect, int consumerThreads, long maxDuration,
+      Consumer<ConsumerRecords<byte[], byte[]>> batchHandler, String... topics) {
+    return consumeToEndOffsets(connect, consumerThreads, 0, maxDuration, batchHandler, topics);
+  }
+
+  /**
+   * Consume the records of the given topics once they hold at least the given number of
+   * records, like {@link #consumeToEndOffsets(EmbeddedConnectCluster, int, int, long,
+   * String...)}, handing every polled batch to the given handler instead of keeping the
+   * records. The handler is called concurrently by the consumer threads, so it must be
+   * thread safe. Every partition is read by a single thread, so its records are handed in
+   * offset order.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param consumerThreads maximum number of consumers to read the partitions in parallel
+   * @param minRecords number of records to wait for before reading the end offsets, or 0
+   * @param maxDuration maximum time in milliseconds to wait for the records and read all
+   *                    the partitions, shared by both steps
+   * @param batchHandler handler of every non-empty batch of polled records
+   * @param topics topics to consume from
+   * @return number of records consumed
+   */
+  public static int consumeToEndOffsets(
+      EmbeddedConnectCluster connect, int consumerThreads, int minRecords, long maxDuration,
+      Consumer<ConsumerRecords<byte[], byte[]>> batchHandler, String... topics) {
+    if (consumerThreads < 1) {
+      throw new IllegalArgumentException("consumerThreads must be positive: " + consumerThreads);
+    }
+    final long deadline = System.currentTimeMillis() + maxDuration;
+    final Map<TopicPartition, Long> beginningOffsets;
+    final Map<TopicPartition, Long> endOffsets;
+    try (KafkaConsumer<byte[], byte[]> consumer = createAssignedConsumer(connect)) {
+      List<TopicPartition> partitions = partitionsFor(consumer, deadline, topics);
+      beginningOffsets = consumer.beginningOffsets(partitions);
+      Map<TopicPartition, Long> latestOffsets = consumer.endOffsets(partitions);
+      while (countOffsets(beginningOffsets, latestOffsets) < minRecords
+          && System.currentTimeMillis() < deadline) {
+        log.debug("Waiting for {} records in {}.", minRecords, Arrays.toString(topics));
+        Utils.sleep(PARTITION_METADATA_BACKOFF_MS);
+        latestOffsets = consumer.endOffsets(partitions);
+      }
+      endOffsets = latestOffsets;
+    }
+    if (countOffsets(beginningOffsets, endOffsets) < minRecords) {
+      log.warn("Only {} of {} records were in {} in time, consuming them.",
+          countOffsets(beginningOffsets, endOffsets), minRecords, Arrays.toString(topics));
+    }
+
+    // spread the non-empty partitions across the consumers in a round-robin fashion
+    List<List<TopicPartition>> partitionGroups = new ArrayList<>();
+    int nonEmptyPartitions = 0;
+    for (Map.Entry<TopicPartition, Long> endOffset : endOffsets.entrySet()) {
+      if (endOffset.getValue() <= beginningOffsets.get(endOffset.getKey())) {
+        continue;
+      }
+      int group = nonEmptyPartitions++ % consumerThreads;
+      if (group == partitionGroups.size()) {
+        partitionGroups.add(new ArrayList<>());
+      }
+      partitionGroups.get(group).add(endOffset.getKey());
+    }
+    if (partitionGroups.isEmpty()) {
+      throw new RuntimeException("No records consumed from " + Arrays.toString(topics));
+    }
+
+    int consumedRecords = 0;
+    ExecutorService executor = Executors.newFixedThreadPool(partitionGroups.size());
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (List<TopicPartition> partitionGroup : partitionGroups) {
+        futures.add(executor.submit(() -> consumePartitions(
+            connect, partitionGroup, beginningOffsets, endOffsets, deadline, batchHandler)));
+      }
+      for (Future<Integer> future : futures) {
+        consumedRecords += future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while consuming from " + Arrays.toString(topics), e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Could not consume from " + Arrays.toString(topics), e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return consumedRecords;
+  }
+
+  private static int consumePartitions(
+      EmbeddedConnectCluster connect, List<TopicPartition> partitions,
+      Map<TopicPartition, Long> beginningOffsets, Map<TopicPartition, Long> endOffsets,
+      long deadline, Consumer<ConsumerRecords<byte[], byte[]>> batchHandler) {
+    int consumedRecords = 0;
+    try (KafkaConsumer<byte[], byte[]> consumer = createAssignedConsumer(connect)) {
+      consumer.assign(partitions);
+      for (TopicPartition partition : partitions) {
+        consumer.seek(partition, beginningOffsets.get(partition));
+      }
+      List<TopicPartition> remaining = new ArrayList<>(partitions);
+      long allowedDuration = deadline - System.currentTimeMillis();
+      while (!remaining.isEmpty() && allowedDuration > 0) {
+        ConsumerRecords<byte[], byte[]> rec = consumer.poll(Duration.ofMillis(allowedDuration));
+        Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> batch = new HashMap<>();
+        for (TopicPartition partition : rec.partitions()) {
+          long endOffset = endOffsets.get(partition);
+          List<ConsumerRecord<byte[], byte[]>> partitionRecords = new ArrayList<>();
+          for (ConsumerRecord<byte[], byte[]> record : rec.records(partition)) {
+            if (record.offset() < endOffset) {
+              partitionRecords.add(record);
+            }
+          }
+          if (!partitionRecords.isEmpty()) {
+            batch.put(partition, partitionRecords);
+            consumedRecords += partitionRecords.size();
+          }
+        }
+        if (!batch.isEmpty()) {
+          batchHandler.accept(new ConsumerRecords<>(batch));
+        }
+        // the position is used rather than the last offset, since transaction
+        // markers occupy offsets without being returned as records
+        remaining.removeIf(partition -> consumer.position(partition) >= endOffsets.get(partition));
+        if (!remaining.isEmpty()) {
+          consumer.pause(partitions.stream()
+              .filter(partition -> !remaining.contains(partition))
+              .collect(Collectors.toList()));
+        }
+        allowedDuration = deadline - System.currentTimeMillis();
+      }
+      if (!remaining.isEmpty()) {
+        log.warn("Partitions {} were not consumed up to their end offsets in time.", remaining);
+      }
+    }
+    return consumedRecords;
+  }
+
+  private static long countOffsets(
+      Map<TopicPartition, Long> beginningOffsets, Map<TopicPartition, Long> endOffsets) {
+    long count = 0;
+    for (Map.Entry<TopicPartition, Long> endOffset : endOffsets.entrySet()) {
+      count += Math.max(0, endOffset.getValue() - beginningOffsets.get(endOffset.getKey()));
+    }
+    return count;
+  }
+
+  private static void addAll(
+      Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> records,
+      ConsumerRecords<byte[], byte[]> batch) {
+    for (TopicPartition partition : batch.partitions()) {
+      records.computeIfAbsent(partition, t -> new ArrayList<>()).addAll(batch.records(partition));
+    }
+  }
+
+  private static List<TopicPartition> partitionsFor(
+      KafkaConsumer<byte[], byte[]> consumer, long deadline, String... topics) {
+    List<TopicPartition> partitions = new ArrayList<>();
+    for (String topic : topics) {
+      List<PartitionInfo> partitionInfos = consumer.partitionsFor(topic);
+      while ((partitionInfos == null || partitionInfos.isEmpty())
+          && System.currentTimeMillis() < deadline) {
+        log.debug("Waiting for partitions of {} to be available.", topic);
+        Utils.sleep(PARTITION_METADATA_BACKOFF_MS);
+        partitionInfos = consumer.partitionsFor(topic);
+      }
+      if (partitionInfos == null || partitionInfos.isEmpty()) {
+        throw new RuntimeException("No partitions found for " + topic);
+      }
+      for (PartitionInfo partitionInfo : partitionInfos) {
+        partitions.add(new TopicPartition(partitionInfo.topic(), partitionInfo.partition()));
+      }
+    }
+    return partitions;
+  }
+
+  private static KafkaConsumer<byte[], byte[]> createAssignedConsumer(
+      EmbeddedConnectCluster connect) {
+    Map<String, Object> consumerProps = new HashMap<>();
+    consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, connect.kafka().bootstrapServers());
+    consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    return new KafkaConsumer<>(
+        consumerProps,
+        new ByteArrayDeserializer(),
+        new ByteArrayDeserializer());
+  }
+
   public static EmbeddedConnectCluster startConnectCluster(
       String clusterName, String pluginPath) {
     Map<String,String> workerProps = new HashMap<>();
@@ -0,0 +1,546 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is an in-memory stand-in for Schema Registry, which can replace
+ * {@link SchemaRegistryTestUtils} when the tests only need converters to register and look up
+ * schemas. It serves the REST endpoints used by the Schema Registry clients from an embedded
+ * HTTP server and keeps the schemas in concurrent maps, so it starts in milliseconds and
+ * serves concurrent requests without any round trip to Kafka.
+ *
+ * <p>Schemas are stored in a canonical form, so that looking a schema up does not depend on
+ * its formatting: Avro and JSON schemas are parsed as JSON and written back compactly, and the
+ * whitespace of Protobuf schemas is normalized. They are not validated any further, and the
+ * compatibility level is stored but not enforced, like a Schema Registry with compatibility NONE.
+ * The state is lost when the registry is stopped.
+ */
+public class InMemorySchemaRegistry {
+
+  private static final Logger log = LoggerFactory.getLogger(InMemorySchemaRegistry.class);
+
+  private static final String CONTENT_TYPE = "application/vnd.schemaregistry.v1+json";
+  private static final String DEFAULT_SCHEMA_TYPE = "AVRO";
+  private static final List<String> SCHEMA_TYPES = Arrays.asList("AVRO", "JSON", "PROTOBUF");
+  private static final int BACKLOG = 1024;
+
+  private static final int SUBJECT_NOT_FOUND = 40401;
+  private static final int VERSION_NOT_FOUND = 40402;
+  private static final int SCHEMA_NOT_FOUND = 40403;
+  private static final int INVALID_SCHEMA = 42201;
+  private static final int INVALID_VERSION = 42202;
+  private static final int ENDPOINT_NOT_FOUND = 404;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final Map<Integer, RegisteredSchema> schemasById = new ConcurrentHashMap<>();
+  private final Map<SchemaKey, Integer> idsBySchema = new ConcurrentHashMap<>();
+  private final Map<String, NavigableMap<Integer, Integer>> subjectVersions =
+      new ConcurrentHashMap<>();
+  private final Map<String, String> subjectCompatibility = new ConcurrentHashMap<>();
+  private final AtomicInteger nextId = new AtomicInteger(1);
+  private volatile String compatibility = "NONE";
+  private volatile String mode = "READWRITE";
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private String schemaRegistryUrl;
+
+  /**
+   * This method starts the Schema Registry on an available port of the loopback interface.
+   *
+   * @throws IOException if the HTTP server fails to start.
+   */
+  public void start() throws IOException {
+    server = HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), BACKLOG);
+    executor = Executors.newCachedThreadPool(new DaemonThreadFactory());
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+    schemaRegistryUrl = "http://" + server.getAddress().getHostString()
+        + ":" + server.getAddress().getPort();
+    log.info("In-memory Schema Registry started at {}", schemaRegistryUrl);
+  }
+
+  /**
+   * This method stops the Schema Registry.
+   */
+  public void stop() {
+    if (server != null) {
+      server.stop(0);
+      executor.shutdownNow();
+      server = null;
+    }
+  }
+
+  /**
+   * This method returns the Schema Registry URL.
+   *
+   * @return Schema Registry URL.
+   */
+  public String schemaRegistryUrl() {
+    return schemaRegistryUrl;
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      Response response = route(
+          exchange.getRequestMethod(),
+          pathSegments(exchange.getRequestURI().getRawPath()),
+          exchange.getRequestBody());
+      send(exchange, response.status, response.body);
+    } catch (SchemaRegistryError e) {
+      send(exchange, e.status, error(e.errorCode, e.getMessage()));
+    } catch (Exception e) {
+      log.error("Could not serve {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+      send(exchange, 500, error(50001, String.valueOf(e.getMessage())));
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private Response route(String method, List<String> path, InputStream body) throws IOException {
+    String resource = path.isEmpty() ? "" : path.get(0);
+    int size = path.size();
+    switch (resource) {
+      case "":
+        return ok(Collections.emptyMap());
+      case "subjects":
+        if (size == 1 && method.equals("GET")) {
+          return ok(new ArrayList<>(subjectVersions.keySet()));
+        }
+        if (size == 2 && method.equals("POST")) {
+          return ok(lookUp(path.get(1), readTree(body)));
+        }
+        if (size == 2 && method.equals("DELETE")) {
+          return ok(deleteSubject(path.get(1)));
+        }
+        if (size == 3 && path.get(2).equals("versions") && method.equals("GET")) {
+          return ok(new ArrayList<>(versionsOf(path.get(1)).keySet()));
+        }
+        if (size == 3 && path.get(2).equals("versions") && method.equals("POST")) {
+          return ok(Collections.singletonMap("id", register(path.get(1), readTree(body))));
+        }
+        if (size >= 4 && path.get(2).equals("versions")) {
+          String subject = path.get(1);
+          int version = resolveVersion(subject, path.get(3));
+          if (size == 4 && method.equals("GET")) {
+            return ok(metadata(subject, version));
+          }
+          if (size == 4 && method.equals("DELETE")) {
+            versionsOf(subject).remove(version);
+            return ok(version);
+          }
+          if (size == 5 && path.get(4).equals("schema") && method.equals("GET")) {
+            return new Response(200, schemaOf(subject, version).schema);
+          }
+        }
+        break;
+      case "schemas":
+        if (size == 2 && path.get(1).equals("types") && method.equals("GET")) {
+          return ok(SCHEMA_TYPES);
+        }
+        if (size >= 3 && path.get(1).equals("ids") && method.equals("GET")) {
+          RegisteredSchema schema = schemaById(path.get(2));
+          if (size == 3) {
+            return ok(schema.toJson(false));
+          }
+          if (size == 4 && path.get(3).equals("schema")) {
+            return new Response(200, schema.schema);
+          }
+          if (size == 4 && path.get(3).equals("versions")) {
+            return ok(subjectVersionsOf(schema.id));
+          }
+          if (size == 4 && path.get(3).equals("subjects")) {
+            List<String> subjects = new ArrayList<>();
+            subjectVersionsOf(schema.id).forEach(entry -> subjects.add(
+                (String) entry.get("subject")));
+            return ok(subjects);
+          }
+        }
+        break;
+      case "config":
+        return config(method, size == 2 ? path.get(1) : null, body);
+      case "mode":
+        if (method.equals("PUT")) {
+          mode = readTree(body).path("mode").asText(mode);
+        }
+        return ok(Collections.singletonMap("mode", mode));
+      case "compatibility":
+        // compatibility is not enforced, so every schema is compatible
+        if (size >= 3 && path.get(1).equals("subjects") && method.equals("POST")) {
+          return ok(Collections.singletonMap("is_compatible", true));
+        }
+        break;
+      default:
+        break;
+    }
+    throw new SchemaRegistryError(404, ENDPOINT_NOT_FOUND, "HTTP 404 Not Found");
+  }
+
+  private int register(String subject, JsonNode request) {
+    SchemaKey key = schemaKey(request);
+    synchronized (this) {
+      NavigableMap<Integer, Integer> versions =
+          subjectVersions.computeIfAbsent(subject, s -> new ConcurrentSkipListMap<>());
+      Integer id = idsBySchema.get(key);
+      if (id == null) {
+        id = nextId.getAndIncrement();
+        schemasById.put(id, new RegisteredSchema(id, key));
+        idsBySchema.put(key, id);
+      } else if (versions.containsValue(id)) {
+        return id;
+      }
+      int version = versions.isEmpty() ? 1 : versions.lastKey() + 1;
+      versions.put(version, id);
+      return id;
+    }
+  }
+
+  private Map<String, Object> lookUp(String subject, JsonNode request) {
+    NavigableMap<Integer, Integer> versions = versionsOf(subject);
+    Integer id = idsBySchema.get(schemaKey(request));
+    if (id != null) {
+      for (Map.Entry<Integer, Integer> version : versions.entrySet()) {
+        if (version.getValue().equals(id)) {
+          return metadata(subject, version.getKey());
+        }
+      }
+    }
+    throw new SchemaRegistryError(404, SCHEMA_NOT_FOUND, "Schema not found");
+  }
+
+  private List<Integer> deleteSubject(String subject) {
+    NavigableMap<Integer, Integer> versions = subjectVersions.remove(subject);
+    if (versions == null) {
+      throw subjectNotFound(subject);
+    }
+    subjectCompatibility.remove(subject);
+    return new ArrayList<>(versions.keySet());
+  }
+
+  private Response config(String method, String subject, InputStream body) throws IOException {
+    if (method.equals("PUT")) {
+      String level = readTree(body).path("compatibility").asText(null);
+      if (level == null) {
+        throw new SchemaRegistryError(422, INVALID_SCHEMA, "Missing compatibility level");
+      }
+      if (subject == null) {
+        compatibility = level;
+      } else {
+        subjectCompatibility.put(subject, level);
+      }
+      return ok(Collections.singletonMap("compatibility", level));
+    }
+    if (method.equals("DELETE") && subject != null) {
+      String level = subjectCompatibility.remove(subject);
+      return ok(Collections.singletonMap(
+          "compatibilityLevel", level != null ? level : compatibility));
+    }
+    String level = subject == null ? compatibility : subjectCompatibility.get(subject);
+    if (level == null) {
+      throw new SchemaRegistryError(
+          404, SUBJECT_NOT_FOUND, "Subject '" + subject + "' does not have subject-level config");
+    }
+    return ok(Collections.singletonMap("compatibilityLevel", level));
+  }
+
+  private Map<String, Object> metadata(String subject, int version) {
+    RegisteredSchema schema = schemaOf(subject, version);
+    Map<String, Object> metadata = new LinkedHashMap<>();
+    metadata.put("subject", subject);
+    metadata.put("version", version);
+    metadata.putAll(schema.toJson(true));
+    return metadata;
+  }
+
+  private List<Map<String, Object>> subjectVersionsOf(int id) {
+    List<Map<String, Object>> subjectVersionList = new ArrayList<>();
+    subjectVersions.forEach((subject, versions) -> versions.forEach((version, versionId) -> {
+      if (versionId == id) {
+        Map<String, Object> subjectVersion = new LinkedHashMap<>();
+        subjectVersion.put("subject", subject);
+        subjectVersion.put("version", version);
+        subjectVersionList.add(subjectVersion);
+      }
+    }));
+    return subjectVersionList;
+  }
+
+  private RegisteredSchema schemaOf(String subject, int version) {
+    Integer id = versionsOf(subject).get(version);
+    if (id == null) {
+      throw new SchemaRegistryError(404, VERSION_NOT_FOUND, "Version " + version + " not found.");
+    }
+    return schemasById.get(id);
+  }
+
+  private RegisteredSchema schemaById(String id) {
+    RegisteredSchema schema = null;
+    try {
+      schema = schemasById.get(Integer.parseInt(id));
+    } catch (NumberFormatException e) {
+      // reported as not found below
+    }
+    if (schema == null) {
+      throw new SchemaRegistryError(404, SCHEMA_NOT_FOUND, "Schema " + id + " not found");
+    }
+    return schema;
+  }
+
+  private NavigableMap<Integer, Integer> versionsOf(String subject) {
+    NavigableMap<Integer, Integer> versions = subjectVersions.get(subject);
+    if (versions == null) {
+      throw subjectNotFound(subject);
+    }
+    return versions;
+  }
+
+  private int resolveVersion(String subject, String version) {
+    if (version.equals("latest") || version.equals("-1")) {
+      NavigableMap<Integer, Integer> versions = versionsOf(subject);
+      if (versions.isEmpty()) {
+        throw new SchemaRegistryError(404, VERSION_NOT_FOUND, "Version latest not found.");
+      }
+      return versions.lastKey();
+    }
+    try {
+      return Integer.parseInt(version);
+    } catch (NumberFormatException e) {
+      throw new SchemaRegistryError(422, INVALID_VERSION, "The specified version '" + version
+          + "' is not a valid version id. Allowed values are between [1, 2^31-1] and the string "
+          + "\"latest\"");
+    }
+  }
+
+  private SchemaKey schemaKey(JsonNode request) {
+    JsonNode schema = request.get("schema");
+    if (schema == null || !schema.isTextual()) {
+      throw new SchemaRegistryError(422, INVALID_SCHEMA, "Empty schema");
+    }
+    JsonNode references = request.path("references");
+    String schemaType = request.path("schemaType").asText(DEFAULT_SCHEMA_TYPE);
+    return new SchemaKey(
+        canonicalize(schema.asText(), schemaType),
+        schemaType,
+        references.isArray() && references.size() > 0 ? references : null);
+  }
+
+  /**
+   * Return the canonical form of a schema: JSON based schemas are written back compactly,
+   * and whitespace outside of string literals is normalized in Protobuf schemas.
+   */
+  private String canonicalize(String schema, String schemaType) {
+    if (schemaType.equals("PROTOBUF")) {
+      return normalizeWhitespace(schema);
+    }
+    try {
+      JsonNode tree = mapper.readTree(schema);
+      if (tree == null || tree.isMissingNode()) {
+        throw new SchemaRegistryError(422, INVALID_SCHEMA, "Empty schema");
+      }
+      return mapper.writeValueAsString(tree);
+    } catch (JsonProcessingException e) {
+      throw new SchemaRegistryError(
+          422, INVALID_SCHEMA, "Invalid schema: " + e.getOriginalMessage());
+    }
+  }
+
+  /**
+   * Collapse every run of whitespace outside of string literals into a single space,
+   * and drop it next to punctuation and at both ends.
+   */
+  private static String normalizeWhitespace(String schema) {
+    StringBuilder canonical = new StringBuilder(schema.length());
+    boolean pendingSpace = false;
+    char quote = 0;
+    for (int i = 0; i < schema.length(); i++) {
+      char c = schema.charAt(i);
+      if (quote == 0 && Character.isWhitespace(c)) {
+        pendingSpace = canonical.length() > 0;
+        continue;
+      }
+      if (pendingSpace && quote == 0 && !isPunctuation(c)
+          && !isPunctuation(canonical.charAt(canonical.length() - 1))) {
+        canonical.append(' ');
+      }
+      pendingSpace = false;
+      canonical.append(c);
+      if (quote == 0 && (c == '"' || c == '\'')) {
+        quote = c;
+      } else if (c == quote && schema.charAt(i - 1) != '\\') {
+        quote = 0;
+      }
+    }
+    return canonical.toString();
+  }
+
+  private static boolean isPunctuation(char c) {
+    return "{}[]()<>;,=".indexOf(c) >= 0;
+  }
+
+  private JsonNode readTree(InputStream body) throws IOException {
+    JsonNode tree = mapper.readTree(body);
+    if (tree == null || tree.isMissingNode()) {
+      throw new SchemaRegistryError(422, INVALID_SCHEMA, "Empty request body");
+    }
+    return tree;
+  }
+
+  private Response ok(Object body) throws IOException {
+    return new Response(200, mapper.writeValueAsString(body));
+  }
+
+  private String error(int errorCode, String message) throws IOException {
+    Map<String, Object> error = new LinkedHashMap<>();
+    error.put("error_code", errorCode);
+    error.put("message", message);
+    return mapper.writeValueAsString(error);
+  }
+
+  private static SchemaRegistryError subjectNotFound(String subject) {
+    return new SchemaRegistryError(404, SUBJECT_NOT_FOUND, "Subject '" + subject + "' not found.");
+  }
+
+  private static List<String> pathSegments(String rawPath) throws IOException {
+    List<String> segments = new ArrayList<>();
+    for (String segment : rawPath.split("/")) {
+      if (!segment.isEmpty()) {
+        segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8.name()));
+      }
+    }
+    return segments;
+  }
+
+  private static void send(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  /** Schema content identifying a schema across subjects. */
+  private static final class SchemaKey {
+    private final String schema;
+    private final String schemaType;
+    private final JsonNode references;
+
+    SchemaKey(String schema, String schemaType, JsonNode references) {
+      this.schema = schema;
+      this.schemaType = schemaType;
+      this.references = references;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof SchemaKey)) {
+        return false;
+      }
+      SchemaKey other = (SchemaKey) o;
+      return schema.equals(other.schema) && schemaType.equals(other.schemaType)
+          && (references == null ? other.references == null : references.equals(other.references));
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * schema.hashCode() + schemaType.hashCode();
+    }
+  }
+
+  /** Schema registered with an id. */
+  private static final class RegisteredSchema {
+    private final int id;
+    private final String schema;
+    private final String schemaType;
+    private final JsonNode references;
+
+    RegisteredSchema(int id, SchemaKey key) {
+      this.id = id;
+      this.schema = key.schema;
+      this.schemaType = key.schemaType;
+      this.references = key.references;
+    }
+
+    Map<String, Object> toJson(boolean withId) {
+      Map<String, Object> json = new LinkedHashMap<>();
+      if (withId) {
+        json.put("id", id);
+      }
+      if (!schemaType.equals(DEFAULT_SCHEMA_TYPE)) {
+        json.put("schemaType", schemaType);
+      }
+      if (references != null) {
+        json.put("references", references);
+      }
+      json.put("schema", schema);
+      return json;
+    }
+  }
+
+  private static final class Response {
+    private final int status;
+    private final String body;
+
+    Response(int status, String body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+
+  private static final class SchemaRegistryError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    private final int errorCode;
+
+    SchemaRegistryError(int status, int errorCode, String message) {
+      super(message);
+      this.status = status;
+      this.errorCode = errorCode;
+    }
+  }
+
+  private static final class DaemonThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "in-memory-schema-registry-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons;
+
+import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * This class is a lease of a warm connect cluster from a {@link ConnectClusterPool}.
+ * The lease has exclusive use of the cluster until it is closed, which resets the cluster and
+ * gives it back to the pool: the connectors, and the topics and consumer groups created during
+ * the lease, are deleted. Tests must name their connectors with {@link #connectorName(String)},
+ * since the offsets of source connectors outlive them, otherwise the cluster is stopped when
+ * the lease is closed. Naming the topics with {@link #topicName(String)} keeps them apart from
+ * the topics of the other clusters of the pool.
+ */
+public class PooledConnectCluster implements AutoCloseable {
+
+  private final ConnectClusterPool pool;
+  private final String key;
+  private final EmbeddedConnectCluster connect;
+  private final Set<String> internalTopics;
+  private final String workerGroup;
+  private String namespace;
+  private Set<String> baselineTopics = Collections.emptySet();
+  private Set<String> baselineGroups = Collections.emptySet();
+  private boolean released = true;
+
+  PooledConnectCluster(
+      ConnectClusterPool pool, String key, EmbeddedConnectCluster connect,
+      Set<String> internalTopics, String workerGroup) {
+    this.pool = pool;
+    this.key = key;
+    this.connect = connect;
+    this.internalTopics = internalTopics;
+    this.workerGroup = workerGroup;
+  }
+
+  /**
+   * This method returns the connect cluster of the lease.
+   * It must not be stopped; close the lease instead.
+   * @return EmbeddedConnectCluster
+   */
+  public EmbeddedConnectCluster connect() {
+    return connect;
+  }
+
+  /**
+   * This method returns the namespace of the lease, which is unique within the pool.
+   * @return Namespace of the lease.
+   */
+  public String namespace() {
+    return namespace;
+  }
+
+  /**
+   * This method returns the given topic name prefixed by the namespace of the lease.
+   * @param name Name of the topic in the test.
+   * @return Name of the topic in the cluster.
+   */
+  public String topicName(String name) {
+    return namespace + "-" + name;
+  }
+
+  /**
+   * This method returns the given connector name prefixed by the namespace of the lease,
+   * which is never reused, so that the connector does not resume from the source offsets of
+   * a connector of an earlier lease.
+   * @param name Name of the connector in the test.
+   * @return Name of the connector in the cluster.
+   */
+  public String connectorName(String name) {
+    return namespace + "-" + name;
+  }
+
+  /**
+   * This method resets the cluster and gives it back to the pool.
+   */
+  @Override
+  public void close() {
+    pool.release(this);
+  }
+
+  String key() {
+    return key;
+  }
+
+  Set<String> internalTopics() {
+    return internalTopics;
+  }
+
+  String workerGroup() {
+    return workerGroup;
+  }
+
+  Set<String> baselineTopics() {
+    return baselineTopics;
+  }
+
+  Set<String> baselineGroups() {
+    return baselineGroups;
+  }
+
+  void lease(String namespace, Set<String> baselineTopics, Set<String> baselineGroups) {
+    this.namespace = namespace;
+    this.baselineTopics = baselineTopics;
+    this.baselineGroups = baselineGroups;
+    this.released = false;
+  }
+
+  boolean markReleased() {
+    boolean wasLeased = !released;
+    released = true;
+    return wasLeased;
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class runs the background tasks of a test, e.g. data publishers, chaos and monitors,
+ * each in a thread of its own, and makes sure that none of them outlives the scope.
+ * On JDK 21 and later the tasks run in virtual threads, so that a test can run hundreds of
+ * concurrent tasks cheaply, otherwise they run in daemon platform threads.
+ * Closing the scope interrupts the tasks which are still running and waits for them to stop,
+ * so it should be opened in a try-with-resources block:
+ * <pre>
+ * try (TaskScope scope = TaskScope.open("publishers")) {
+ *   Future&lt;List&lt;S&gt;&gt; dataPoints = scope.fork(dataPublisherTask);
+ *   ...
+ *   dataPoints.get();
+ * }
+ * </pre>
+ */
+public final class TaskScope implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(TaskScope.class);
+
+  /** Time to wait for the interrupted tasks to stop when the scope is closed. */
+  public static final long CLOSE_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+  private static final Method VIRTUAL_THREAD_FACTORY = findVirtualThreadFactory();
+
+  private final String name;
+  private final ExecutorService executor;
+  private final boolean virtualThreads;
+
+  private TaskScope(String name, ExecutorService executor, boolean virtualThreads) {
+    this.name = name;
+    this.executor = executor;
+    this.virtualThreads = virtualThreads;
+  }
+
+  /**
+   * This method opens a scope running its tasks in virtual threads when the JVM supports them,
+   * and in platform threads otherwise.
+   * @param name Name of the scope, which prefixes the names of its threads.
+   * @return TaskScope
+   */
+  public static TaskScope open(String name) {
+    return open(name, true);
+  }
+
+  /**
+   * This method opens a scope.
+   * @param name Name of the scope, which prefixes the names of its threads.
+   * @param preferVirtualThreads Whether to run the tasks in virtual threads when the JVM
+   *                             supports them. Tasks which pin their carrier thread for long,
+   *                             e.g. in long synchronized blocks, run better in platform threads.
+   * @return TaskScope
+   */
+  public static TaskScope open(String name, boolean preferVirtualThreads) {
+    if (preferVirtualThreads && VIRTUAL_THREAD_FACTORY != null) {
+      ExecutorService executor = newVirtualThreadExecutor(name);
+      if (executor != null) {
+        return new TaskScope(name, executor, true);
+      }
+    }
+    return new TaskScope(name, Executors.newCachedThreadPool(platformThreadFactory(name)), false);
+  }
+
+  /**
+   * This method tells whether the JVM supports virtual threads.
+   * @return true on JDK 21 and later.
+   */
+  public static boolean isVirtualThreadsSupported() {
+    return VIRTUAL_THREAD_FACTORY != null;
+  }
+
+  /**
+   * This method starts a task in a new thread of the scope.
+   * @param task Task to be run.
+   * @param <T> Type of the result of the task.
+   * @return Future holding the result of the task, or the exception it threw.
+   */
+  public <T> Future<T> fork(Callable<T> task) {
+    return executor.submit(task);
+  }
+
+  /**
+   * This method starts a task in a new thread of the scope.
+   * @param task Task to be run.
+   * @return Future completing when the task ends, or holding the exception it threw.
+   */
+  public Future<?> fork(Runnable task) {
+    return executor.submit(task);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * This method interrupts the tasks which are still running, and waits for all the tasks of
+   * the scope to stop for up to {@link #CLOSE_TIMEOUT_MS}. No task can be forked afterwards.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    try {
+      if (!executor.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        log.warn("Tasks of {} did not stop within {} ms of being interrupted",
+            name, CLOSE_TIMEOUT_MS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while waiting for the tasks of {} to stop", name);
+    }
+  }
+
+  /** Return Thread.ofVirtual(), or null before JDK 21. */
+  private static Method findVirtualThreadFactory() {
+    try {
+      return Thread.class.getMethod("ofVirtual");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  /** Return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name-, 0).factory()). */
+  private static ExecutorService newVirtualThreadExecutor(String name) {
+    try {
+      Object builder = VIRTUAL_THREAD_FACTORY.invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class)
+          .invoke(builder, name + "-", 0L);
+      ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      return (ExecutorService) Executors.class
+          .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+          .invoke(null, factory);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.warn("Could not create virtual threads, falling back to platform threads", e);
+      return null;
+    }
+  }
+
+  private static ThreadFactory platformThreadFactory(String name) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
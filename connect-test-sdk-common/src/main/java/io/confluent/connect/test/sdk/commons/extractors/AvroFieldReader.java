@@ -0,0 +1,442 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.extractors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class reads a single field of Avro values in the wire format of Schema Registry,
+ * i.e. a magic byte, the 4 bytes of the schema id and the binary encoded value.
+ * The writer schemas are fetched from Schema Registry and parsed into the layout needed to
+ * skip the encoded fields, so the fields before the projected one are skipped without being
+ * decoded and the fields after it are not read at all.
+ */
+class AvroFieldReader {
+
+  private static final byte MAGIC_BYTE = 0x0;
+  private static final int HEADER_SIZE = 5;
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final Set<String> PRIMITIVES = new HashSet<>(Arrays.asList(
+      "null", "boolean", "int", "long", "float", "double", "bytes", "string"));
+
+  private final String schemaRegistryUrl;
+  private final String[] path;
+  private final Map<Integer, AvroType> writerSchemas = new ConcurrentHashMap<>();
+
+  AvroFieldReader(String schemaRegistryUrl, String[] path) {
+    this.schemaRegistryUrl = schemaRegistryUrl.endsWith("/")
+        ? schemaRegistryUrl.substring(0, schemaRegistryUrl.length() - 1) : schemaRegistryUrl;
+    this.path = path;
+  }
+
+  /**
+   * This method reads the field from a serialized value.
+   * @param value Value in the wire format of Schema Registry.
+   * @return Field as a string, or null if the value does not have the field or it is null.
+   */
+  String read(byte[] value) {
+    if (value.length < HEADER_SIZE || value[0] != MAGIC_BYTE) {
+      throw new IllegalArgumentException("Value is not in the wire format of Schema Registry");
+    }
+    int schemaId = ((value[1] & 0xff) << 24) | ((value[2] & 0xff) << 16)
+        | ((value[3] & 0xff) << 8) | (value[4] & 0xff);
+    AvroType type = writerSchemas.computeIfAbsent(schemaId, this::fetchWriterSchema);
+    Decoder decoder = new Decoder(value, HEADER_SIZE);
+    for (int depth = 0; ; depth++) {
+      type = type.resolveUnion(decoder);
+      if (!(type instanceof RecordType)) {
+        return null;
+      }
+      AvroType fieldType = ((RecordType) type).skipTo(path[depth], decoder);
+      if (fieldType == null) {
+        return null;
+      }
+      if (depth == path.length - 1) {
+        return fieldType.resolveUnion(decoder).readAsString(decoder);
+      }
+      type = fieldType;
+    }
+  }
+
+  private AvroType fetchWriterSchema(int schemaId) {
+    String url = schemaRegistryUrl + "/schemas/ids/" + schemaId;
+    try {
+      HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+      try {
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+          throw new IOException("GET " + url + " returned " + connection.getResponseCode());
+        }
+        try (InputStream in = connection.getInputStream()) {
+          JsonNode response = OBJECT_MAPPER.readTree(in);
+          return parse(OBJECT_MAPPER.readTree(response.get("schema").asText()),
+              null, new HashMap<>());
+        }
+      } finally {
+        connection.disconnect();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not fetch the schema with id " + schemaId, e);
+    }
+  }
+
+  static AvroType parse(JsonNode schema, String namespace, Map<String, AvroType> namedTypes) {
+    if (schema.isArray()) {
+      List<AvroType> branches = new ArrayList<>();
+      for (JsonNode branch : schema) {
+        branches.add(parse(branch, namespace, namedTypes));
+      }
+      return new UnionType(branches);
+    }
+    if (schema.isTextual()) {
+      String name = schema.asText();
+      if (PRIMITIVES.contains(name)) {
+        return new PrimitiveType(name);
+      }
+      return new NamedReference(
+          name.indexOf('.') < 0 && namespace != null ? namespace + "." + name : name,
+          name, namedTypes);
+    }
+    String type = schema.path("type").asText();
+    switch (type) {
+      case "record":
+      case "error": {
+        String fullName = fullName(schema, namespace);
+        int dot = fullName.lastIndexOf('.');
+        String recordNamespace = dot < 0 ? null : fullName.substring(0, dot);
+        RecordType record = new RecordType();
+        namedTypes.put(fullName, record);
+        for (JsonNode field : schema.path("fields")) {
+          record.fieldNames.add(field.path("name").asText());
+          record.fieldTypes.add(parse(field.get("type"), recordNamespace, namedTypes));
+        }
+        return record;
+      }
+      case "enum": {
+        List<String> symbols = new ArrayList<>();
+        for (JsonNode symbol : schema.path("symbols")) {
+          symbols.add(symbol.asText());
+        }
+        EnumType enumType = new EnumType(symbols);
+        namedTypes.put(fullName(schema, namespace), enumType);
+        return enumType;
+      }
+      case "fixed": {
+        FixedType fixed = new FixedType(schema.path("size").asInt());
+        namedTypes.put(fullName(schema, namespace), fixed);
+        return fixed;
+      }
+      case "array":
+        return new ArrayType(parse(schema.get("items"), namespace, namedTypes), false);
+      case "map":
+        return new ArrayType(parse(schema.get("values"), namespace, namedTypes), true);
+      default:
+        // a primitive type, possibly with a logical type encoded as the primitive type
+        return parse(schema.get("type"), namespace, namedTypes);
+    }
+  }
+
+  private static String fullName(JsonNode schema, String namespace) {
+    String name = schema.path("name").asText();
+    if (name.indexOf('.') >= 0) {
+      return name;
+    }
+    String schemaNamespace = schema.hasNonNull("namespace")
+        ? schema.get("namespace").asText() : namespace;
+    return schemaNamespace == null || schemaNamespace.isEmpty()
+        ? name : schemaNamespace + "." + name;
+  }
+
+  /** Cursor over the binary encoding of an Avro value. */
+  static final class Decoder {
+    private final byte[] bytes;
+    private int position;
+
+    Decoder(byte[] bytes, int position) {
+      this.bytes = bytes;
+      this.position = position;
+    }
+
+    long readLong() {
+      long value = 0;
+      int shift = 0;
+      int b;
+      do {
+        if (position >= bytes.length) {
+          throw new IllegalArgumentException("Truncated Avro value");
+        }
+        b = bytes[position++] & 0xff;
+        value |= (long) (b & 0x7f) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readString() {
+      int length = (int) readLong();
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      skip(length);
+      return value;
+    }
+
+    void skip(long length) {
+      if (length < 0 || position + length > bytes.length) {
+        throw new IllegalArgumentException("Truncated Avro value");
+      }
+      position += (int) length;
+    }
+  }
+
+  abstract static class AvroType {
+    abstract void skip(Decoder decoder);
+
+    abstract String readAsString(Decoder decoder);
+
+    AvroType resolveUnion(Decoder decoder) {
+      return this;
+    }
+  }
+
+  static final class PrimitiveType extends AvroType {
+    private final String name;
+
+    PrimitiveType(String name) {
+      this.name = name;
+    }
+
+    @Override
+    void skip(Decoder decoder) {
+      switch (name) {
+        case "null":
+          break;
+        case "boolean":
+          decoder.skip(1);
+          break;
+        case "int":
+        case "long":
+          decoder.readLong();
+          break;
+        case "float":
+          decoder.skip(4);
+          break;
+        case "double":
+          decoder.skip(8);
+          break;
+        default:
+          // bytes and string are prefixed with their length
+          decoder.skip(decoder.readLong());
+      }
+    }
+
+    @Override
+    String readAsString(Decoder decoder) {
+      switch (name) {
+        case "null":
+          return null;
+        case "boolean":
+          return String.valueOf(decoder.bytes[skipAndGetStart(decoder, 1)] != 0);
+        case "int":
+        case "long":
+          return String.valueOf(decoder.readLong());
+        case "float":
+          return String.valueOf(Float.intBitsToFloat(
+              (int) littleEndian(decoder, skipAndGetStart(decoder, 4), 4)));
+        case "double":
+          return String.valueOf(Double.longBitsToDouble(
+              littleEndian(decoder, skipAndGetStart(decoder, 8), 8)));
+        default:
+          return decoder.readString();
+      }
+    }
+
+    private static int skipAndGetStart(Decoder decoder, int length) {
+      int start = decoder.position;
+      decoder.skip(length);
+      return start;
+    }
+
+    private static long littleEndian(Decoder decoder, int start, int length) {
+      long value = 0;
+      for (int i = length - 1; i >= 0; i--) {
+        value = (value << 8) | (decoder.bytes[start + i] & 0xff);
+      }
+      return value;
+    }
+  }
+
+  static final class RecordType extends AvroType {
+    private final List<String> fieldNames = new ArrayList<>();
+    private final List<AvroType> fieldTypes = new ArrayList<>();
+
+    /** Skip the fields before the given field, and return its type. */
+    AvroType skipTo(String fieldName, Decoder decoder) {
+      for (int i = 0; i < fieldNames.size(); i++) {
+        if (fieldNames.get(i).equals(fieldName)) {
+          return fieldTypes.get(i);
+        }
+        fieldTypes.get(i).skip(decoder);
+      }
+      return null;
+    }
+
+    @Override
+    void skip(Decoder decoder) {
+      for (AvroType fieldType : fieldTypes) {
+        fieldType.skip(decoder);
+      }
+    }
+
+    @Override
+    String readAsString(Decoder decoder) {
+      return null;
+    }
+  }
+
+  static final class EnumType extends AvroType {
+    private final List<String> symbols;
+
+    EnumType(List<String> symbols) {
+      this.symbols = symbols;
+    }
+
+    @Override
+    void skip(Decoder decoder) {
+      decoder.readLong();
+    }
+
+    @Override
+    String readAsString(Decoder decoder) {
+      return symbols.get((int) decoder.readLong());
+    }
+  }
+
+  static final class FixedType extends AvroType {
+    private final int size;
+
+    FixedType(int size) {
+      this.size = size;
+    }
+
+    @Override
+    void skip(Decoder decoder) {
+      decoder.skip(size);
+    }
+
+    @Override
+    String readAsString(Decoder decoder) {
+      String value = new String(decoder.bytes, decoder.position, size, StandardCharsets.UTF_8);
+      decoder.skip(size);
+      return value;
+    }
+  }
+
+  /** Array or map, encoded as blocks of items, with a string key before every map value. */
+  static final class ArrayType extends AvroType {
+    private final AvroType items;
+    private final boolean map;
+
+    ArrayType(AvroType items, boolean map) {
+      this.items = items;
+      this.map = map;
+    }
+
+    @Override
+    void skip(Decoder decoder) {
+      for (long count = decoder.readLong(); count != 0; count = decoder.readLong()) {
+        if (count < 0) {
+          // a negative count is followed by the size of the block in bytes
+          decoder.skip(decoder.readLong());
+          continue;
+        }
+        for (long i = 0; i < count; i++) {
+          if (map) {
+            decoder.skip(decoder.readLong());
+          }
+          items.skip(decoder);
+        }
+      }
+    }
+
+    @Override
+    String readAsString(Decoder decoder) {
+      skip(decoder);
+      return null;
+    }
+  }
+
+  static final class UnionType extends AvroType {
+    private final List<AvroType> branches;
+
+    UnionType(List<AvroType> branches) {
+      this.branches = branches;
+    }
+
+    @Override
+    AvroType resolveUnion(Decoder decoder) {
+      return branches.get((int) decoder.readLong()).resolveUnion(decoder);
+    }
+
+    @Override
+    void skip(Decoder decoder) {
+      resolveUnion(decoder).skip(decoder);
+    }
+
+    @Override
+    String readAsString(Decoder decoder) {
+      return resolveUnion(decoder).readAsString(decoder);
+    }
+  }
+
+  /** Reference to a named type, resolved when it is used since types can be recursive. */
+  static final class NamedReference extends AvroType {
+    private final String fullName;
+    private final String name;
+    private final Map<String, AvroType> namedTypes;
+
+    NamedReference(String fullName, String name, Map<String, AvroType> namedTypes) {
+      this.fullName = fullName;
+      this.name = name;
+      this.namedTypes = namedTypes;
+    }
+
+    private AvroType target() {
+      AvroType target = namedTypes.getOrDefault(fullName, namedTypes.get(name));
+      if (target == null) {
+        throw new IllegalArgumentException("Unknown Avro type " + fullName);
+      }
+      return target;
+    }
+
+    @Override
+    AvroType resolveUnion(Decoder decoder) {
+      return target().resolveUnion(decoder);
+    }
+
+    @Override
+    void skip(Decoder decoder) {
+      target().skip(decoder);
+    }
+
+    @Override
+    String readAsString(Decoder decoder) {
+      return target().readAsString(decoder);
+    }
+  }
+}
@@ -4,7 +4,13 @@
 
 package io.confluent.connect.test.sdk.commons.extractors;
 
+import io.confluent.connect.test.sdk.commons.latency.LatencyTracker;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * This class is used to extract data from an end system (Kafka Topic/ Sink System)
@@ -12,7 +18,12 @@ import java.util.List;
  * @param <E> Data type to be extracted from the end system.
  */
 public abstract class DataExtractor<E> {
+
+  /** Partition of the unique keys of end systems which do not expose their partitioning. */
+  public static final String SINGLE_PARTITION = "all";
+
   private final UniqueKeyExtractor<E> uniqueKeyExtractor;
+  private LatencyTracker latencyTracker;
 
   public DataExtractor(UniqueKeyExtractor<E> uniqueKeyExtractor) {
     this.uniqueKeyExtractor = uniqueKeyExtractor;
@@ -25,6 +36,53 @@ public abstract class DataExtractor<E> {
    */
   public abstract List<E> extractData(int maxNumberOfDataPoints);
 
+  /**
+   * This method should return the unique keys of all the data points/ records present
+   * in the end system, trying to extract given number of data points/ records.
+   * By default, it extracts the data points/ records and maps each of them to its unique key.
+   * Extractors which keep an index of the keys already extracted can override this method
+   * to avoid reading and decoding the same data again.
+   * @param maxNumberOfDataPoints Maximum number of data points/ records to be extracted.
+   * @return List of unique keys of the records present in the end system.
+   */
+  public List<String> extractUniqueKeys(int maxNumberOfDataPoints) {
+    List<String> uniqueKeys = new ArrayList<>();
+    for (E dataPoint : extractData(maxNumberOfDataPoints)) {
+      uniqueKeys.add(getUniqueKey(dataPoint));
+    }
+    return uniqueKeys;
+  }
+
+  /**
+   * This method should hand the unique keys of all the data points/ records present in the
+   * end system to the given consumer, trying to extract given number of data points/ records,
+   * e.g. to add them to an external verifier
+   * (@see io.confluent.connect.test.sdk.commons.verifiers.ExternalDeliveryVerifier).
+   * By default, the unique keys are extracted as a list first. Extractors which can read the
+   * keys in batches can override this method to hand them over without keeping them.
+   * @param maxNumberOfDataPoints Maximum number of data points/ records to be extracted.
+   * @param uniqueKeyConsumer Consumer of the unique keys.
+   */
+  public void extractUniqueKeys(int maxNumberOfDataPoints, Consumer<String> uniqueKeyConsumer) {
+    extractUniqueKeys(maxNumberOfDataPoints).forEach(uniqueKeyConsumer);
+  }
+
+  /**
+   * This method should return the unique keys of all the data points/ records present
+   * in the end system grouped by the partition holding them, trying to extract given number
+   * of data points/ records. The keys of every partition must be in the order of the partition,
+   * so that the ordering can be verified per partition
+   * (@see io.confluent.connect.test.sdk.commons.ConnectorUtils#verifyData).
+   * By default, all the unique keys are returned as a single partition, for end systems
+   * which do not expose their partitioning.
+   * @param maxNumberOfDataPoints Maximum number of data points/ records to be extracted.
+   * @return Map of partition to the unique keys of the records present in it.
+   */
+  public Map<String, List<String>> extractUniqueKeysByPartition(int maxNumberOfDataPoints) {
+    return Collections.singletonMap(
+        SINGLE_PARTITION, extractUniqueKeys(maxNumberOfDataPoints));
+  }
+
   /**
    * This method should return a unique key for the given data point/ record.
    * @param dataPoint Data point/ record for which unique key is to be generated.
@@ -33,4 +91,36 @@ public abstract class DataExtractor<E> {
   public String getUniqueKey(E dataPoint) {
     return uniqueKeyExtractor.getUniqueKey(dataPoint);
   }
+
+  public LatencyTracker getLatencyTracker() {
+    return latencyTracker;
+  }
+
+  /**
+   * This method is used to set the tracker in which the end-to-end latency of the extracted
+   * records is recorded. Extractors record latencies through {@link #recordLatency(long, long)}
+   * for the records whose publish timestamp they can read, e.g. from the header set by the
+   * Kafka data publishers (@see io.confluent.connect.test.sdk.commons.latency.PublishTimestamps)
+   * or from a field of the data point. Every record must be recorded once, even if it is
+   * extracted several times. The test flows report the latencies of the tracker per phase.
+   * Default value is null, in which case no latency is recorded.
+   * @param latencyTracker Latency tracker.
+   */
+  public void setLatencyTracker(LatencyTracker latencyTracker) {
+    this.latencyTracker = latencyTracker;
+  }
+
+  /**
+   * This method records the end-to-end latency of an extracted record,
+   * if a latency tracker is set.
+   * @param publishTimestampMs Time at which the record was published,
+   *                           in milliseconds since the epoch.
+   * @param arrivalTimestampMs Time at which the record arrived in the end system,
+   *                           in milliseconds since the epoch.
+   */
+  protected void recordLatency(long publishTimestampMs, long arrivalTimestampMs) {
+    if (latencyTracker != null) {
+      latencyTracker.recordLatency(publishTimestampMs, arrivalTimestampMs);
+    }
+  }
 }
@@ -0,0 +1,302 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.extractors;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.storage.Converter;
+import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * This class is used to extract data from a Kafka Topic incrementally.
+ * It keeps a single consumer open across calls, remembers its position in every partition
+ * and only reads and decodes the records which were added since the previous call.
+ * The unique keys of all the records extracted so far are kept in an accumulated index,
+ * so the cost of extraction grows with the new data rather than with the size of the topic.
+ * The extractor should be closed once it is no longer needed.
+ */
+public class IncrementalKafkaDataExtractor extends KafkaDataExtractor {
+
+  private static final Logger log = LoggerFactory.getLogger(IncrementalKafkaDataExtractor.class);
+
+  private static final long POLL_TIMEOUT_MS = 500;
+
+  private final Map<TopicPartition, Long> positions = new HashMap<>();
+  private final List<String> extractedUniqueKeys = new ArrayList<>();
+  // same keys as extractedUniqueKeys, grouped by topic partition in the order of the partition
+  private final Map<String, List<String>> extractedUniqueKeysByPartition = new TreeMap<>();
+  private KafkaConsumer<byte[], byte[]> consumer;
+
+  /** Constructor for IncrementalKafkaDataExtractor.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param converter to convert from byte[] to Struct
+   * @param uniqueKeyExtractor to extract unique key from Struct
+   * @param kafkaTopic Kafka Topic from which data is to be extracted.
+   */
+  public IncrementalKafkaDataExtractor(
+      EmbeddedConnectCluster connect,
+      Converter converter,
+      UniqueKeyExtractor<Struct> uniqueKeyExtractor,
+      String kafkaTopic) {
+    super(connect, converter, uniqueKeyExtractor, kafkaTopic);
+  }
+
+  /**
+   * This method extracts the records added since the previous call, up to the given number
+   * of new records.
+   *
+   * @param maxNumberOfDataPoints Maximum number of new data points/ records to be extracted
+   *                              in this call.
+   * @return List of records extracted from the Kafka Topic in this call.
+   */
+  @Override
+  public List<Struct> extractData(int maxNumberOfDataPoints) {
+    List<Struct> values = new ArrayList<>();
+    extractNewRecords(maxNumberOfDataPoints, values);
+    return values;
+  }
+
+  /**
+   * This method extracts the records added since the previous call, up to the given number
+   * of new records, and returns the unique keys of all the records extracted so far,
+   * including the earlier ones. With a key projection, the new records are projected to
+   * their unique keys without being converted to Struct.
+   *
+   * @param maxNumberOfDataPoints Maximum number of new data points/ records to be extracted
+   *                              in this call.
+   * @return Copy of the accumulated unique keys, in the order of extraction.
+   */
+  @Override
+  public List<String> extractUniqueKeys(int maxNumberOfDataPoints) {
+    extractNewKeys(maxNumberOfDataPoints);
+    return new ArrayList<>(extractedUniqueKeys);
+  }
+
+  /**
+   * This method extracts the records added since the previous call until the total number
+   * of records extracted by this extractor reaches the given number, and returns the unique
+   * keys of all the records extracted so far. It suits a flow which knows how many records
+   * were published in total and polls the extractor repeatedly until all of them arrive.
+   *
+   * @param totalNumberOfDataPoints Total number of data points/ records expected to be
+   *                                extracted across all calls.
+   * @return Copy of the accumulated unique keys, in the order of extraction.
+   */
+  public List<String> extractUniqueKeysUpToTotal(int totalNumberOfDataPoints) {
+    extractNewKeys(Math.max(0, totalNumberOfDataPoints - extractedUniqueKeys.size()));
+    return new ArrayList<>(extractedUniqueKeys);
+  }
+
+  /**
+   * This method extracts the records added since the previous call, up to the given number
+   * of new records, and returns the unique keys of these new records only. It is cheaper than
+   * {@link #extractUniqueKeys(int)} when polled repeatedly, e.g. to wait for a number of
+   * records to be delivered, since the earlier keys are neither copied nor handed over again.
+   *
+   * @param maxNumberOfNewDataPoints Maximum number of new data points/ records to be extracted.
+   * @return List of unique keys of the new records, in the order of extraction.
+   */
+  public List<String> extractNewUniqueKeys(int maxNumberOfNewDataPoints) {
+    int extractedBefore = extractedUniqueKeys.size();
+    extractNewKeys(maxNumberOfNewDataPoints);
+    return new ArrayList<>(
+        extractedUniqueKeys.subList(extractedBefore, extractedUniqueKeys.size()));
+  }
+
+  /**
+   * This method extracts the records added since the previous call, up to the given number
+   * of new records, and hands the unique keys of all the records extracted so far,
+   * including the earlier ones, to the given consumer.
+   *
+   * @param maxNumberOfDataPoints Maximum number of new data points/ records to be extracted
+   *                              in this call.
+   * @param uniqueKeyConsumer Consumer of the unique keys.
+   */
+  @Override
+  public void extractUniqueKeys(int maxNumberOfDataPoints, Consumer<String> uniqueKeyConsumer) {
+    extractNewKeys(maxNumberOfDataPoints);
+    extractedUniqueKeys.forEach(uniqueKeyConsumer);
+  }
+
+  /**
+   * This method extracts the records added since the previous call, up to the given number
+   * of new records, and returns the unique keys of all the records extracted so far,
+   * grouped by topic partition.
+   *
+   * @param maxNumberOfDataPoints Maximum number of new data points/ records to be extracted
+   *                              in this call.
+   * @return Copy of the accumulated unique keys of every topic partition,
+   *         in the order of the partition.
+   */
+  @Override
+  public Map<String, List<String>> extractUniqueKeysByPartition(int maxNumberOfDataPoints) {
+    extractNewKeys(maxNumberOfDataPoints);
+    Map<String, List<String>> uniqueKeysByPartition = new TreeMap<>();
+    for (Map.Entry<String, List<String>> entry : extractedUniqueKeysByPartition.entrySet()) {
+      uniqueKeysByPartition.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+    }
+    return uniqueKeysByPartition;
+  }
+
+  /** Extract the new records, projecting them to their unique keys when possible. */
+  private void extractNewKeys(int maxNumberOfNewDataPoints) {
+    extractNewRecords(
+        maxNumberOfNewDataPoints, getKeyProjection() == null ? new ArrayList<>() : null);
+  }
+
+  /**
+   * Poll the records added since the previous call, up to the given number of new records,
+   * and add their unique keys to the index. Once the expected number of distinct new records
+   * is reached (@see #setMaxRecordCopies(int)), polling stops as soon as a poll returns no
+   * record, rather than waiting for duplicates which may never come.
+   * @param values list to which the converted records are added, or null to project their
+   *               unique keys with the key projection instead of converting them.
+   */
+  private void extractNewRecords(int maxNumberOfNewDataPoints, List<Struct> values) {
+    if (maxNumberOfNewDataPoints <= 0) {
+      return;
+    }
+    final int extractedBefore = extractedUniqueKeys.size();
+    final long target = (long) extractedBefore + maxNumberOfNewDataPoints;
+    final long expected =
+        (long) extractedBefore + getExpectedNumberOfDataPoints(maxNumberOfNewDataPoints);
+    final long maxDuration = getMaxTimeToExtractRecordsMs(maxNumberOfNewDataPoints);
+    final long startMillis = System.currentTimeMillis();
+    long allowedDuration = maxDuration;
+    while (allowedDuration > 0 && extractedUniqueKeys.size() < target) {
+      if (!assignNewPartitions()) {
+        sleepQuietly(Math.min(POLL_TIMEOUT_MS, allowedDuration));
+      } else {
+        ConsumerRecords<byte[], byte[]> records =
+            consumer.poll(Duration.ofMillis(Math.min(POLL_TIMEOUT_MS, allowedDuration)));
+        if (records.isEmpty() && extractedUniqueKeys.size() >= expected) {
+          break;
+        }
+        recordLatencies(records);
+        List<String> newUniqueKeys;
+        if (values == null) {
+          newUniqueKeys = projectAll(records);
+        } else {
+          newUniqueKeys = new ArrayList<>(records.count());
+          for (Struct value : convertAll(records)) {
+            values.add(value);
+            newUniqueKeys.add(getUniqueKey(value));
+          }
+        }
+        extractedUniqueKeys.addAll(newUniqueKeys);
+        addByPartition(records, newUniqueKeys, extractedUniqueKeysByPartition);
+        for (TopicPartition partition : consumer.assignment()) {
+          positions.put(partition, consumer.position(partition));
+        }
+      }
+      allowedDuration = maxDuration - (System.currentTimeMillis() - startMillis);
+    }
+    if (extractedUniqueKeys.isEmpty()) {
+      throw new RuntimeException("No records consumed from " + getKafkaTopic());
+    }
+    log.debug("Extracted {} new records from {}, {} in total. Positions: {}",
+        extractedUniqueKeys.size() - extractedBefore, getKafkaTopic(),
+        extractedUniqueKeys.size(), positions);
+  }
+
+  /**
+   * This method returns the next offset to be read in every partition of the Kafka Topic.
+   *
+   * @return Map of partition to its next offset.
+   */
+  public Map<TopicPartition, Long> getPositions() {
+    return Collections.unmodifiableMap(positions);
+  }
+
+  /**
+   * This method returns the number of records extracted so far.
+   *
+   * @return Number of records extracted so far.
+   */
+  public int getExtractedCount() {
+    return extractedUniqueKeys.size();
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (consumer != null) {
+        consumer.close();
+        consumer = null;
+      }
+    } finally {
+      super.close();
+    }
+  }
+
+  /**
+   * Assign the partitions of the topic which are not yet assigned, reading them
+   * from the beginning. Partitions can be added while the connector is running.
+   * @return true if at least one partition is assigned.
+   */
+  private boolean assignNewPartitions() {
+    if (consumer == null) {
+      consumer = createConsumer();
+    }
+    List<PartitionInfo> partitionInfos = consumer.partitionsFor(getKafkaTopic());
+    if (partitionInfos == null || partitionInfos.size() == positions.size()) {
+      return !positions.isEmpty();
+    }
+    List<TopicPartition> newPartitions = new ArrayList<>();
+    for (PartitionInfo partitionInfo : partitionInfos) {
+      TopicPartition partition =
+          new TopicPartition(partitionInfo.topic(), partitionInfo.partition());
+      if (!positions.containsKey(partition)) {
+        newPartitions.add(partition);
+      }
+    }
+    List<TopicPartition> assignment = new ArrayList<>(positions.keySet());
+    assignment.addAll(newPartitions);
+    consumer.assign(assignment);
+    consumer.seekToBeginning(newPartitions);
+    for (TopicPartition partition : newPartitions) {
+      positions.put(partition, 0L);
+    }
+    log.info("Assigned partitions {} of {}", newPartitions, getKafkaTopic());
+    return !positions.isEmpty();
+  }
+
+  private KafkaConsumer<byte[], byte[]> createConsumer() {
+    Map<String, Object> consumerProps = new HashMap<>();
+    consumerProps.put(
+        ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, getConnect().kafka().bootstrapServers());
+    consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    return new KafkaConsumer<>(
+        consumerProps,
+        new ByteArrayDeserializer(),
+        new ByteArrayDeserializer());
+  }
+
+  private static void sleepQuietly(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for partitions", e);
+    }
+  }
+}
@@ -5,18 +5,36 @@
 package io.confluent.connect.test.sdk.commons.extractors;
 
 import io.confluent.connect.test.sdk.commons.ConnectorUtils;
+import io.confluent.connect.test.sdk.commons.latency.PublishTimestamps;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.storage.Converter;
 import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-/** This class is used to extract data from a Kafka Topic. */
-public class KafkaDataExtractor extends DataExtractor<Struct> {
+/** This class is used to extract data from a Kafka Topic.
+ * The extractor should be closed once it is no longer needed if it converts records
+ * in parallel (@see #setConversionParallelism(int, Supplier)).
+ */
+public class KafkaDataExtractor extends DataExtractor<Struct> implements AutoCloseable {
+
+  private static final int MIN_RECORDS_PER_CONVERSION_TASK = 1000;
+  private static final int CONVERSION_TASKS_PER_THREAD = 4;
 
   private final String kafkaTopic;
 
@@ -24,6 +42,13 @@ public class KafkaDataExtractor extends DataExtractor<Struct> {
 
   private final Converter converter;
   private long maxTimeToInitiateRecordConsumerMs = TimeUnit.SECONDS.toMillis(30);
+  private int consumerThreads = 0;
+  private int maxRecordCopies = 1;
+  private int conversionParallelism = 1;
+  private BlockingQueue<Converter> conversionConverters;
+  private ForkJoinPool conversionPool;
+  private KeyProjection keyProjection;
+  private final Map<TopicPartition, Long> latencyRecordedOffsets = new HashMap<>();
 
   /** Constructor for KafkaDataExtractor.
    * @param connect the connect cluster (@see EmbeddedConnectCluster)
@@ -42,6 +67,14 @@ public class KafkaDataExtractor extends DataExtractor<Struct> {
     this.converter = converter;
   }
 
+  protected EmbeddedConnectCluster getConnect() {
+    return connect;
+  }
+
+  protected String getKafkaTopic() {
+    return kafkaTopic;
+  }
+
   public long getMaxTimeToInitiateRecordConsumerMs() {
     return maxTimeToInitiateRecordConsumerMs;
   }
@@ -55,6 +88,110 @@ public class KafkaDataExtractor extends DataExtractor<Struct> {
     this.maxTimeToInitiateRecordConsumerMs = maxTimeToInitiateRecordConsumerMs;
   }
 
+  public int getConsumerThreads() {
+    return consumerThreads;
+  }
+
+  /**
+   * This method is used to set the number of threads consuming the partitions of the
+   * Kafka Topic in parallel. When it is positive, every extraction waits for the topic to hold
+   * the expected number of distinct records (@see #setMaxRecordCopies(int)), or for the
+   * extraction to time out, then reads all the records
+   * present in the topic with explicitly assigned consumers and returns as soon as the end
+   * offsets are reached (@see ConnectorUtils#consumeToEndOffsets). When it is 0, which is the
+   * default, records are consumed with a subscribed consumer until the given number of records
+   * is reached or the extraction times out.
+   *
+   * @param consumerThreads Number of consumer threads, or 0 to use a subscribed consumer.
+   */
+  public void setConsumerThreads(int consumerThreads) {
+    this.consumerThreads = consumerThreads;
+  }
+
+  public int getMaxRecordCopies() {
+    return maxRecordCopies;
+  }
+
+  /**
+   * This method is used to set the maximum number of copies of every record which the topic
+   * may hold, e.g. with an at least once delivery guarantee. The number of data points to be
+   * extracted is then an upper bound, and only that number divided by the number of copies,
+   * i.e. the number of distinct records, is waited for before the records present in the topic
+   * are read, so that an extraction does not wait for duplicates which never come.
+   * Default value is 1.
+   *
+   * @param maxRecordCopies Maximum number of copies of every record.
+   */
+  public void setMaxRecordCopies(int maxRecordCopies) {
+    if (maxRecordCopies < 1) {
+      throw new IllegalArgumentException("maxRecordCopies must be positive: " + maxRecordCopies);
+    }
+    this.maxRecordCopies = maxRecordCopies;
+  }
+
+  public int getConversionParallelism() {
+    return conversionParallelism;
+  }
+
+  /**
+   * This method is used to set the number of threads converting the consumed records to
+   * Struct. When it is greater than 1, the records of every extraction are split into chunks
+   * which are converted in parallel, each thread with its own converter created by the given
+   * factory, as converters are not guaranteed to be thread safe. The converted values are put
+   * back in the order of the records, so the order of every partition is kept for in order
+   * verification. Subclasses customizing the conversion must then override
+   * {@link #convert(ConsumerRecord, Converter)}, and subclasses only overriding
+   * {@link #convert(ConsumerRecord)} are rejected. The threads are stopped when the
+   * extractor is closed. Default value is 1.
+   *
+   * @param conversionParallelism Number of threads converting the records.
+   * @param converterFactory Factory of configured converters equivalent to the converter of
+   *                         this extractor, or null if the parallelism is 1.
+   */
+  public void setConversionParallelism(
+      int conversionParallelism, Supplier<Converter> converterFactory) {
+    if (conversionParallelism < 1) {
+      throw new IllegalArgumentException(
+          "conversionParallelism must be positive: " + conversionParallelism);
+    }
+    if (conversionParallelism > 1 && converterFactory == null) {
+      throw new IllegalArgumentException(
+          "A converter factory is required to convert records in parallel");
+    }
+    if (conversionParallelism > 1 && isConvertOverriddenWithoutConverter()) {
+      throw new IllegalStateException(getClass().getName() + " overrides convert(record), "
+          + "which is not used to convert records in parallel: "
+          + "override convert(record, converter) instead");
+    }
+    shutdownConversionPool();
+    this.conversionParallelism = conversionParallelism;
+    if (conversionParallelism > 1) {
+      conversionConverters = new ArrayBlockingQueue<>(conversionParallelism);
+      for (int i = 0; i < conversionParallelism; i++) {
+        conversionConverters.add(converterFactory.get());
+      }
+      conversionPool = new ForkJoinPool(conversionParallelism);
+    }
+  }
+
+  public KeyProjection getKeyProjection() {
+    return keyProjection;
+  }
+
+  /**
+   * This method is used to set the projection reading the unique keys directly from the
+   * consumed records (@see KeyProjections). When it is set, {@link #extractUniqueKeys(int)}
+   * neither converts the records to Struct nor keeps them: every polled batch is projected
+   * to its unique keys and dropped, so only the keys are kept in memory. The projection must
+   * return the same unique keys as the unique key extractor. Default value is null, in which
+   * case the unique keys are read from the converted records.
+   *
+   * @param keyProjection Projection of the unique keys, or null to convert the records.
+   */
+  public void setKeyProjection(KeyProjection keyProjection) {
+    this.keyProjection = keyProjection;
+  }
+
   /**
    * This method tries to extract given number of data points/ records from the Kafka Topic.
    *
@@ -63,21 +200,336 @@ public class KafkaDataExtractor extends DataExtractor<Struct> {
    */
   @Override
   public List<Struct> extractData(int maxNumberOfDataPoints) {
-    ConsumerRecords<byte[], byte[]> records =
-        ConnectorUtils.consume(
-            connect, maxNumberOfDataPoints,
-            getMaxTimeToExtractRecordsMs(maxNumberOfDataPoints),
-            kafkaTopic);
-    Struct value;
-    List<Struct> values = new ArrayList<>();
+    ConsumerRecords<byte[], byte[]> records = consumeRecords(maxNumberOfDataPoints);
+    recordLatencies(records);
+    return convertAll(records);
+  }
+
+  /**
+   * This method returns the unique keys of the records in the Kafka Topic, trying to extract
+   * the given number of records. With a key projection, the keys are projected from the
+   * consumed records as they are polled, without converting them to Struct.
+   *
+   * @param maxNumberOfDataPoints Maximum number of data points/ records to be extracted.
+   * @return List of unique keys of the records in the Kafka Topic.
+   */
+  @Override
+  public List<String> extractUniqueKeys(int maxNumberOfDataPoints) {
+    if (keyProjection == null) {
+      return super.extractUniqueKeys(maxNumberOfDataPoints);
+    }
+    List<String> uniqueKeys = new ArrayList<>();
+    extractUniqueKeys(maxNumberOfDataPoints, uniqueKeys::add);
+    return uniqueKeys;
+  }
+
+  /**
+   * This method hands the unique keys of the records in the Kafka Topic to the given consumer,
+   * trying to extract the given number of records. With a key projection, every polled batch
+   * is projected to its unique keys and handed over, so neither the records nor the keys are
+   * kept. The consumer is never called concurrently.
+   *
+   * @param maxNumberOfDataPoints Maximum number of data points/ records to be extracted.
+   * @param uniqueKeyConsumer Consumer of the unique keys.
+   */
+  @Override
+  public void extractUniqueKeys(int maxNumberOfDataPoints, Consumer<String> uniqueKeyConsumer) {
+    if (keyProjection == null) {
+      super.extractUniqueKeys(maxNumberOfDataPoints, uniqueKeyConsumer);
+      return;
+    }
+    Consumer<ConsumerRecords<byte[], byte[]>> batchHandler = records -> {
+      List<String> batchKeys = projectAll(records);
+      // the consumer threads of consumeToEndOffsets hand their batches concurrently
+      synchronized (uniqueKeyConsumer) {
+        recordLatencies(records);
+        batchKeys.forEach(uniqueKeyConsumer);
+      }
+    };
+    if (consumerThreads > 0) {
+      ConnectorUtils.consumeToEndOffsets(
+          connect, consumerThreads, getExpectedNumberOfDataPoints(maxNumberOfDataPoints),
+          getMaxTimeToExtractRecordsMs(maxNumberOfDataPoints),
+          batchHandler, kafkaTopic);
+    } else {
+      ConnectorUtils.consume(
+          connect, maxNumberOfDataPoints,
+          getMaxTimeToExtractRecordsMs(maxNumberOfDataPoints),
+          batchHandler, kafkaTopic);
+    }
+  }
+
+  /**
+   * This method returns the unique keys of the records in the Kafka Topic grouped by
+   * topic partition, in the order of every partition, trying to extract the given number
+   * of records. With a key projection, the keys are projected from the consumed records
+   * as they are polled, without converting them to Struct.
+   *
+   * @param maxNumberOfDataPoints Maximum number of data points/ records to be extracted.
+   * @return Map of topic partition, as formatted by TopicPartition, to its unique keys.
+   */
+  @Override
+  public Map<String, List<String>> extractUniqueKeysByPartition(int maxNumberOfDataPoints) {
+    Map<String, List<String>> uniqueKeysByPartition = new TreeMap<>();
+    if (keyProjection == null) {
+      ConsumerRecords<byte[], byte[]> records = consumeRecords(maxNumberOfDataPoints);
+      recordLatencies(records);
+      List<String> uniqueKeys = new ArrayList<>(records.count());
+      for (Struct value : convertAll(records)) {
+        uniqueKeys.add(getUniqueKey(value));
+      }
+      addByPartition(records, uniqueKeys, uniqueKeysByPartition);
+      return uniqueKeysByPartition;
+    }
+    Consumer<ConsumerRecords<byte[], byte[]>> batchHandler = records -> {
+      List<String> batchKeys = projectAll(records);
+      // the consumer threads of consumeToEndOffsets hand their batches concurrently
+      synchronized (uniqueKeysByPartition) {
+        recordLatencies(records);
+        addByPartition(records, batchKeys, uniqueKeysByPartition);
+      }
+    };
+    if (consumerThreads > 0) {
+      ConnectorUtils.consumeToEndOffsets(
+          connect, consumerThreads, getExpectedNumberOfDataPoints(maxNumberOfDataPoints),
+          getMaxTimeToExtractRecordsMs(maxNumberOfDataPoints),
+          batchHandler, kafkaTopic);
+    } else {
+      ConnectorUtils.consume(
+          connect, maxNumberOfDataPoints,
+          getMaxTimeToExtractRecordsMs(maxNumberOfDataPoints),
+          batchHandler, kafkaTopic);
+    }
+    return uniqueKeysByPartition;
+  }
+
+  /**
+   * This method adds the unique keys of the consumed records to the keys of their partition.
+   *
+   * @param records Records consumed from the Kafka Topic.
+   * @param uniqueKeys Unique keys of the records, in the order of the records.
+   * @param uniqueKeysByPartition Map of topic partition to its unique keys, to add to.
+   */
+  protected static void addByPartition(
+      ConsumerRecords<byte[], byte[]> records, List<String> uniqueKeys,
+      Map<String, List<String>> uniqueKeysByPartition) {
+    // records are iterated partition by partition, in the order of their partitions
+    int index = 0;
+    for (TopicPartition partition : records.partitions()) {
+      int count = records.records(partition).size();
+      uniqueKeysByPartition.computeIfAbsent(partition.toString(), p -> new ArrayList<>())
+          .addAll(uniqueKeys.subList(index, index + count));
+      index += count;
+    }
+  }
+
+  /**
+   * This method projects the unique keys of all the records consumed from the Kafka Topic
+   * with the key projection.
+   *
+   * @param records Records consumed from the Kafka Topic.
+   * @return Unique keys of the records, in the order of the records.
+   */
+  protected List<String> projectAll(ConsumerRecords<byte[], byte[]> records) {
+    List<String> uniqueKeys = new ArrayList<>(records.count());
+    for (ConsumerRecord<byte[], byte[]> record : records) {
+      uniqueKeys.add(keyProjection.project(record));
+    }
+    return uniqueKeys;
+  }
+
+  /**
+   * This method converts all the records consumed from the Kafka Topic to Struct.
+   *
+   * @param records Records consumed from the Kafka Topic.
+   * @return Values of the records as Struct, in the order of the records.
+   */
+  protected List<Struct> convertAll(ConsumerRecords<byte[], byte[]> records) {
+    if (conversionParallelism > 1 && records.count() >= 2 * MIN_RECORDS_PER_CONVERSION_TASK) {
+      return convertAllInParallel(records);
+    }
+    List<Struct> values = new ArrayList<>(records.count());
     for (ConsumerRecord<byte[], byte[]> record : records) {
-      value = (Struct) converter.toConnectData(kafkaTopic, record.value()).value();
-      values.add(value);
+      values.add(convert(record));
     }
     return values;
   }
 
-  private long getMaxTimeToExtractRecordsMs(int numberOfRecordsToExtract) {
+  private List<Struct> convertAllInParallel(ConsumerRecords<byte[], byte[]> records) {
+    List<ConsumerRecord<byte[], byte[]>> recordList = new ArrayList<>(records.count());
+    for (ConsumerRecord<byte[], byte[]> record : records) {
+      recordList.add(record);
+    }
+    int recordsPerTask = Math.max(
+        MIN_RECORDS_PER_CONVERSION_TASK,
+        -Math.floorDiv(-recordList.size(), conversionParallelism * CONVERSION_TASKS_PER_THREAD));
+    List<ForkJoinTask<List<Struct>>> tasks = new ArrayList<>();
+    for (int offset = 0; offset < recordList.size(); offset += recordsPerTask) {
+      List<ConsumerRecord<byte[], byte[]>> chunk = recordList.subList(
+          offset, Math.min(offset + recordsPerTask, recordList.size()));
+      tasks.add(conversionPool.submit(() -> convertChunk(chunk)));
+    }
+    List<Struct> values = new ArrayList<>(recordList.size());
+    try {
+      for (ForkJoinTask<List<Struct>> task : tasks) {
+        values.addAll(task.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      cancelAll(tasks);
+      throw new RuntimeException("Interrupted while converting records", e);
+    } catch (ExecutionException e) {
+      cancelAll(tasks);
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException("Failed to convert records", e.getCause());
+    }
+    return values;
+  }
+
+  private List<Struct> convertChunk(
+      List<ConsumerRecord<byte[], byte[]>> chunk) throws InterruptedException {
+    Converter chunkConverter = conversionConverters.take();
+    try {
+      List<Struct> values = new ArrayList<>(chunk.size());
+      for (ConsumerRecord<byte[], byte[]> record : chunk) {
+        values.add(convert(record, chunkConverter));
+      }
+      return values;
+    } finally {
+      conversionConverters.add(chunkConverter);
+    }
+  }
+
+  private static void cancelAll(List<ForkJoinTask<List<Struct>>> tasks) {
+    for (ForkJoinTask<List<Struct>> task : tasks) {
+      task.cancel(true);
+    }
+  }
+
+  /**
+   * This method checks whether a subclass overrides {@link #convert(ConsumerRecord)} without
+   * overriding {@link #convert(ConsumerRecord, Converter)} in the same or a lower class,
+   * in which case its conversion would be skipped when converting records in parallel.
+   */
+  private boolean isConvertOverriddenWithoutConverter() {
+    for (Class<?> type = getClass(); type != KafkaDataExtractor.class;
+         type = type.getSuperclass()) {
+      if (declares(type, ConsumerRecord.class, Converter.class)) {
+        return false;
+      }
+      if (declares(type, ConsumerRecord.class)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean declares(Class<?> type, Class<?>... parameterTypes) {
+    try {
+      type.getDeclaredMethod("convert", parameterTypes);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * This method stops the threads converting records in parallel, if any. The extractor
+   * converts records in a single thread afterwards.
+   */
+  @Override
+  public void close() {
+    shutdownConversionPool();
+    conversionParallelism = 1;
+  }
+
+  private void shutdownConversionPool() {
+    if (conversionPool != null) {
+      conversionPool.shutdownNow();
+      conversionPool = null;
+    }
+    conversionConverters = null;
+  }
+
+  /**
+   * This method records the end-to-end latency of the consumed records, if a latency tracker
+   * is set (@see DataExtractor#setLatencyTracker). The latency of a record is measured from
+   * the publish timestamp in its header (@see PublishTimestamps) to its timestamp in the
+   * Kafka Topic, so it is only accurate if the topic uses LogAppendTime or if the connector
+   * does not set the timestamps of its records. Records without the header are ignored,
+   * and so are records consumed again by a later extraction.
+   *
+   * @param records Records consumed from the Kafka Topic.
+   */
+  protected void recordLatencies(ConsumerRecords<byte[], byte[]> records) {
+    if (getLatencyTracker() == null) {
+      return;
+    }
+    Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+    for (ConsumerRecord<byte[], byte[]> record : records) {
+      TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+      if (record.offset() < latencyRecordedOffsets.getOrDefault(partition, 0L)) {
+        continue;
+      }
+      nextOffsets.merge(partition, record.offset() + 1, Math::max);
+      long publishTimestampMs = PublishTimestamps.fromHeaders(record.headers());
+      if (publishTimestampMs >= 0) {
+        recordLatency(publishTimestampMs, record.timestamp());
+      }
+    }
+    nextOffsets.forEach((partition, offset) ->
+        latencyRecordedOffsets.merge(partition, offset, Math::max));
+  }
+
+  /**
+   * This method converts a record consumed from the Kafka Topic to Struct.
+   *
+   * @param record Record consumed from the Kafka Topic.
+   * @return Value of the record as Struct.
+   */
+  protected Struct convert(ConsumerRecord<byte[], byte[]> record) {
+    return convert(record, converter);
+  }
+
+  /**
+   * This method converts a record consumed from the Kafka Topic to Struct
+   * with the given converter.
+   *
+   * @param record Record consumed from the Kafka Topic.
+   * @param recordConverter Converter to be used, which is not shared with other threads.
+   * @return Value of the record as Struct.
+   */
+  protected Struct convert(ConsumerRecord<byte[], byte[]> record, Converter recordConverter) {
+    return (Struct) recordConverter.toConnectData(kafkaTopic, record.value()).value();
+  }
+
+  private ConsumerRecords<byte[], byte[]> consumeRecords(int maxNumberOfDataPoints) {
+    if (consumerThreads > 0) {
+      return ConnectorUtils.consumeToEndOffsets(
+          connect, consumerThreads, getExpectedNumberOfDataPoints(maxNumberOfDataPoints),
+          getMaxTimeToExtractRecordsMs(maxNumberOfDataPoints),
+          kafkaTopic);
+    }
+    return ConnectorUtils.consume(
+        connect, maxNumberOfDataPoints,
+        getMaxTimeToExtractRecordsMs(maxNumberOfDataPoints),
+        kafkaTopic);
+  }
+
+  /**
+   * This method returns the number of distinct records expected among the given maximum
+   * number of records (@see #setMaxRecordCopies(int)).
+   *
+   * @param maxNumberOfDataPoints Maximum number of data points/ records to be extracted.
+   * @return Number of distinct data points/ records expected.
+   */
+  protected int getExpectedNumberOfDataPoints(int maxNumberOfDataPoints) {
+    return maxNumberOfDataPoints / maxRecordCopies;
+  }
+
+    protected long getMaxTimeToExtractRecordsMs(int numberOfRecordsToExtract) {
     return maxTimeToInitiateRecordConsumerMs
         + TimeUnit.SECONDS.toMillis(numberOfRecordsToExtract / 100);
   }
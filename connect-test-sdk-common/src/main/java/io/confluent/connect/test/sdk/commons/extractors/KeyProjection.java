@@ -0,0 +1,26 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.extractors;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * This interface reads the unique key of a record consumed from a Kafka topic directly from
+ * its serialized form, e.g. from its key, a header or a single field of its value, without
+ * converting the whole record. Extractors projecting the keys only keep the keys in memory,
+ * so verifying a topic costs memory and CPU in proportion to the size of the keys rather
+ * than to the size of the records (@see KafkaDataExtractor#setKeyProjection).
+ * In-built projections are available in {@link KeyProjections}.
+ */
+@FunctionalInterface
+public interface KeyProjection {
+
+  /**
+   * This method should return the unique key of the given record.
+   * @param record Record consumed from the Kafka topic.
+   * @return Unique key of the record, or null if the record does not have one.
+   */
+  String project(ConsumerRecord<byte[], byte[]> record);
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.extractors;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.kafka.common.header.Header;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Factory of in-built key projections (@see KeyProjection).
+ * Field paths are dot separated field names, e.g. customer.id for the id field of the
+ * customer struct of the value.
+ */
+public class KeyProjections {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private KeyProjections() {
+  }
+
+  /**
+   * Projection reading the unique key from the key of the record, as a UTF-8 string.
+   * @return KeyProjection
+   */
+  public static KeyProjection recordKey() {
+    return record -> record.key() == null
+        ? null : new String(record.key(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Projection reading the unique key from the last header of the given name of the record,
+   * as a UTF-8 string.
+   * @param headerName Name of the header holding the unique key.
+   * @return KeyProjection
+   */
+  public static KeyProjection header(String headerName) {
+    return record -> {
+      Header header = record.headers().lastHeader(headerName);
+      return header == null || header.value() == null
+          ? null : new String(header.value(), StandardCharsets.UTF_8);
+    };
+  }
+
+  /**
+   * Projection reading the unique key from a scalar field of a JSON value, e.g. written by
+   * the JsonConverter. The value is parsed as a stream of tokens up to the field, skipping
+   * the other fields without building them. With schemas.enable=true, the fields of the
+   * JsonConverter are under payload, e.g. payload.id.
+   * @param fieldPath Dot separated path of the field holding the unique key.
+   * @return KeyProjection
+   */
+  public static KeyProjection jsonField(String fieldPath) {
+    String[] path = fieldPath.split("\\.");
+    return record -> {
+      if (record.value() == null) {
+        return null;
+      }
+      try (JsonParser parser = JSON_FACTORY.createParser(record.value())) {
+        return readJsonField(parser, path);
+      } catch (IOException e) {
+        throw new UncheckedIOException(
+            "Could not read " + fieldPath + " from the record at offset " + record.offset()
+                + " of " + record.topic() + "-" + record.partition(), e);
+      }
+    };
+  }
+
+  /**
+   * Projection reading the unique key from a field of an Avro value in the wire format of
+   * Schema Registry, e.g. written by the AvroConverter. The writer schema of every schema id
+   * is fetched once from Schema Registry, and the fields before the projected one are skipped
+   * in the serialized bytes without being decoded into objects. Optional fields are read
+   * through their union, and enums are read as their symbol.
+   * @param schemaRegistryUrl URL of Schema Registry, e.g. the schema.registry.url of the
+   *                          converter.
+   * @param fieldPath Dot separated path of the field holding the unique key.
+   * @return KeyProjection
+   */
+  public static KeyProjection avroField(String schemaRegistryUrl, String fieldPath) {
+    AvroFieldReader reader = new AvroFieldReader(schemaRegistryUrl, fieldPath.split("\\."));
+    return record -> record.value() == null ? null : reader.read(record.value());
+  }
+
+  private static String readJsonField(JsonParser parser, String[] path) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      return null;
+    }
+    int depth = 0;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (!fieldName.equals(path[depth])) {
+        parser.skipChildren();
+      } else if (depth == path.length - 1) {
+        return value.isScalarValue() && value != JsonToken.VALUE_NULL ? parser.getText() : null;
+      } else if (value == JsonToken.START_OBJECT) {
+        depth++;
+      } else {
+        return null;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.latency;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * This class holds the percentiles of the end-to-end latencies recorded in a phase
+ * of a test (@see LatencyTracker). All the latencies are in milliseconds.
+ */
+public class LatencySummary {
+
+  private final String phase;
+  private final long count;
+  private final long p50Ms;
+  private final long p99Ms;
+  private final long p999Ms;
+  private final long maxMs;
+  private final double meanMs;
+
+  LatencySummary(String phase, Histogram histogram) {
+    this.phase = phase;
+    this.count = histogram.getTotalCount();
+    this.p50Ms = histogram.getValueAtPercentile(50);
+    this.p99Ms = histogram.getValueAtPercentile(99);
+    this.p999Ms = histogram.getValueAtPercentile(99.9);
+    this.maxMs = histogram.getMaxValue();
+    this.meanMs = count == 0 ? 0 : histogram.getMean();
+  }
+
+  public String getPhase() {
+    return phase;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getP50Ms() {
+    return p50Ms;
+  }
+
+  public long getP99Ms() {
+    return p99Ms;
+  }
+
+  public long getP999Ms() {
+    return p999Ms;
+  }
+
+  public long getMaxMs() {
+    return maxMs;
+  }
+
+  public double getMeanMs() {
+    return meanMs;
+  }
+
+  @Override
+  public String toString() {
+    return phase + ": count=" + count
+        + ", p50=" + p50Ms + " ms"
+        + ", p99=" + p99Ms + " ms"
+        + ", p999=" + p999Ms + " ms"
+        + ", max=" + maxMs + " ms"
+        + ", mean=" + String.format("%.1f", meanMs) + " ms";
+  }
+}
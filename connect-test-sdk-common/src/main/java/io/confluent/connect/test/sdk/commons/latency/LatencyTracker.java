@@ -0,0 +1,167 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.latency;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This class records the end-to-end latency of records, from the time they were published to
+ * the source system/ Kafka topic to the time they arrived in the Kafka topic/ sink system,
+ * in high resolution histograms (@see ConcurrentHistogram).
+ *
+ * <p>The test is split into named phases, e.g. before, during and after chaos. Every latency
+ * is recorded in the phase in which its record was published, so records can be extracted
+ * long after they arrived. Latencies are recorded in milliseconds; negative latencies, which
+ * come from records arriving with a timestamp older than their publish timestamp, are
+ * recorded as 0. It is safe to record latencies from several threads.
+ */
+public class LatencyTracker {
+
+  /** Phase of the records published before any phase is started. */
+  public static final String DEFAULT_PHASE = "default";
+
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final List<Phase> phases = new CopyOnWriteArrayList<>();
+  private final Histogram total = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+  public LatencyTracker() {
+    phases.add(new Phase(DEFAULT_PHASE, Long.MIN_VALUE));
+  }
+
+  /**
+   * This method starts a new phase now. The records published from now on are recorded in it.
+   * @param phase Name of the phase. Phases of the same name are reported together.
+   */
+  public void startPhase(String phase) {
+    startPhase(phase, System.currentTimeMillis());
+  }
+
+  /**
+   * This method starts a new phase at the given time.
+   * The records published from that time on are recorded in it.
+   * @param phase Name of the phase. Phases of the same name are reported together.
+   * @param startTimestampMs Start of the phase, in milliseconds since the epoch.
+   *                         It must not be before the start of the previous phase.
+   */
+  public synchronized void startPhase(String phase, long startTimestampMs) {
+    Phase previous = phases.get(phases.size() - 1);
+    if (startTimestampMs < previous.startTimestampMs) {
+      throw new IllegalArgumentException("Phase " + phase + " cannot start at "
+          + startTimestampMs + ", before the start of phase " + previous.name
+          + " at " + previous.startTimestampMs);
+    }
+    phases.add(new Phase(phase, startTimestampMs));
+  }
+
+  /**
+   * This method records the latency of a record.
+   * @param publishTimestampMs Time at which the record was published,
+   *                           in milliseconds since the epoch.
+   * @param arrivalTimestampMs Time at which the record arrived in the end system,
+   *                           in milliseconds since the epoch.
+   */
+  public void recordLatency(long publishTimestampMs, long arrivalTimestampMs) {
+    long latencyMs = Math.max(0, arrivalTimestampMs - publishTimestampMs);
+    for (int i = phases.size() - 1; i >= 0; i--) {
+      Phase phase = phases.get(i);
+      if (phase.startTimestampMs <= publishTimestampMs) {
+        phase.histogram.recordValue(latencyMs);
+        break;
+      }
+    }
+    total.recordValue(latencyMs);
+  }
+
+  /**
+   * This method returns the names of the phases, in the order they were started.
+   * @return List of phase names, starting with {@link #DEFAULT_PHASE}.
+   */
+  public List<String> getPhases() {
+    List<String> names = new ArrayList<>();
+    for (Phase phase : phases) {
+      if (!names.contains(phase.name)) {
+        names.add(phase.name);
+      }
+    }
+    return names;
+  }
+
+  /**
+   * This method returns a copy of the histogram of the latencies recorded in the given phase.
+   * @param phase Name of the phase.
+   * @return Histogram of latencies in milliseconds, empty if the phase is unknown.
+   */
+  public Histogram getHistogram(String phase) {
+    Histogram histogram = new Histogram(SIGNIFICANT_DIGITS);
+    for (Phase candidate : phases) {
+      if (candidate.name.equals(phase)) {
+        histogram.add(candidate.histogram);
+      }
+    }
+    return histogram;
+  }
+
+  /**
+   * This method returns a copy of the histogram of all the latencies recorded.
+   * @return Histogram of latencies in milliseconds.
+   */
+  public Histogram getTotalHistogram() {
+    return total.copy();
+  }
+
+  /**
+   * This method returns the summary of the latencies recorded in the given phase.
+   * @param phase Name of the phase.
+   * @return LatencySummary
+   */
+  public LatencySummary getSummary(String phase) {
+    return new LatencySummary(phase, getHistogram(phase));
+  }
+
+  /**
+   * This method returns the summaries of the phases in which latencies were recorded,
+   * in the order the phases were started, followed by the summary of all the latencies.
+   * @return Map of phase name, or "total", to its summary.
+   */
+  public Map<String, LatencySummary> getSummaries() {
+    Map<String, LatencySummary> summaries = new LinkedHashMap<>();
+    for (String phase : getPhases()) {
+      LatencySummary summary = getSummary(phase);
+      if (summary.getCount() > 0) {
+        summaries.put(phase, summary);
+      }
+    }
+    summaries.put("total", new LatencySummary("total", getTotalHistogram()));
+    return summaries;
+  }
+
+  /**
+   * This method discards all the phases and latencies recorded so far.
+   */
+  public synchronized void reset() {
+    phases.clear();
+    phases.add(new Phase(DEFAULT_PHASE, Long.MIN_VALUE));
+    total.reset();
+  }
+
+  private static final class Phase {
+    private final String name;
+    private final long startTimestampMs;
+    private final Histogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+    Phase(String name, long startTimestampMs) {
+      this.name = name;
+      this.startTimestampMs = startTimestampMs;
+    }
+  }
+}
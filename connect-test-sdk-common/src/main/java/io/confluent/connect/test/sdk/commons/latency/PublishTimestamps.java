@@ -0,0 +1,61 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.latency;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class embeds the time at which a record was published in a Kafka record header,
+ * and reads it back. The timestamp is written as a decimal string of milliseconds since
+ * the epoch, so that it survives sink systems which store headers as text.
+ */
+public class PublishTimestamps {
+
+  /** Name of the header holding the publish timestamp. */
+  public static final String HEADER = "connect-test-sdk-publish-timestamp";
+
+  private PublishTimestamps() {
+  }
+
+  /**
+   * This method creates the publish timestamp header.
+   * @param publishTimestampMs Publish time in milliseconds since the epoch.
+   * @return Header
+   */
+  public static Header header(long publishTimestampMs) {
+    return new RecordHeader(
+        HEADER, String.valueOf(publishTimestampMs).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * This method reads the publish timestamp from the headers of a Kafka record.
+   * @param headers Headers of the record.
+   * @return Publish time in milliseconds since the epoch, or -1 if there is no valid header.
+   */
+  public static long fromHeaders(Headers headers) {
+    Header header = headers.lastHeader(HEADER);
+    if (header == null || header.value() == null) {
+      return -1;
+    }
+    return parse(new String(header.value(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * This method parses a publish timestamp read from a sink system.
+   * @param publishTimestamp Publish timestamp as written in the header.
+   * @return Publish time in milliseconds since the epoch, or -1 if it is not valid.
+   */
+  public static long parse(String publishTimestamp) {
+    try {
+      return Long.parseLong(publishTimestamp.trim());
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.metrics;
+
+import io.confluent.connect.test.sdk.commons.execution.TaskScope;
+import org.apache.kafka.common.utils.Sanitizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class samples the JMX metrics of a connector and of its tasks at a fixed interval,
+ * e.g. source-record-poll-rate, put-batch-avg-time-ms, offset-commit-avg-time-ms or
+ * batch-size-avg, and keeps them as a time series per connector and per task.
+ *
+ * <p>The metrics are read from the MBean server of this JVM, where the workers of an
+ * EmbeddedConnectCluster register them. Every sample is tagged with the current phase of the
+ * test, e.g. before, during and after chaos, and the series can be written as CSV files
+ * when the sampler is stopped. The rates and averages of Kafka metrics are computed over
+ * the metrics sample window of the workers, 2 windows of 30 seconds by default, so the worker
+ * property metrics.sample.window.ms should be lowered to see sharp drops and recoveries.
+ */
+public class ConnectMetricsSampler implements AutoCloseable {
+
+  /** JMX domain of the Connect metrics. */
+  public static final String JMX_DOMAIN = "kafka.connect";
+  /** Name of the series of the connector level metrics. */
+  public static final String CONNECTOR_SERIES = "connector";
+  /** Prefix of the names of the series of the task level metrics, followed by the task id. */
+  public static final String TASK_SERIES_PREFIX = "task-";
+  /** Phase of the samples read before any phase is started. */
+  public static final String DEFAULT_PHASE = "default";
+
+  private static final String STATUS_ATTRIBUTE = "status";
+  private static final String TASK_KEY = "task";
+
+  private final Logger log = LoggerFactory.getLogger(ConnectMetricsSampler.class);
+  private final MBeanServer mbeanServer;
+  private final String connectorName;
+  private final ObjectName connectorPattern;
+  private final Map<String, MetricSeries> series = new ConcurrentSkipListMap<>();
+  private long sampleIntervalMs = TimeUnit.SECONDS.toMillis(1);
+  private Path outputDirectory;
+  private volatile String phase = DEFAULT_PHASE;
+  private TaskScope ownScope;
+  private CountDownLatch stopSignal;
+  private Future<?> sampling;
+
+  /**
+   * Constructor for ConnectMetricsSampler reading the platform MBean server.
+   * @param connectorName Name of the connector whose metrics are sampled.
+   */
+  public ConnectMetricsSampler(String connectorName) {
+    this(connectorName, ManagementFactory.getPlatformMBeanServer());
+  }
+
+  /**
+   * Constructor for ConnectMetricsSampler.
+   * @param connectorName Name of the connector whose metrics are sampled.
+   * @param mbeanServer MBean server where the metrics are registered.
+   */
+  public ConnectMetricsSampler(String connectorName, MBeanServer mbeanServer) {
+    this.connectorName = connectorName;
+    this.mbeanServer = mbeanServer;
+    try {
+      this.connectorPattern = new ObjectName(
+          JMX_DOMAIN + ":connector=" + Sanitizer.jmxSanitize(connectorName) + ",*");
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalArgumentException("Invalid connector name: " + connectorName, e);
+    }
+  }
+
+  public String getConnectorName() {
+    return connectorName;
+  }
+
+  public long getSampleIntervalMs() {
+    return sampleIntervalMs;
+  }
+
+  /**
+   * This method is used to set the interval at which the metrics are sampled.
+   * Default value is 1000. It must be set before the sampler is started.
+   * @param sampleIntervalMs Sample interval in milliseconds.
+   */
+  public void setSampleIntervalMs(long sampleIntervalMs) {
+    if (sampleIntervalMs <= 0) {
+      throw new IllegalArgumentException(
+          "sampleIntervalMs must be positive: " + sampleIntervalMs);
+    }
+    this.sampleIntervalMs = sampleIntervalMs;
+  }
+
+  public Path getOutputDirectory() {
+    return outputDirectory;
+  }
+
+  /**
+   * This method is used to set the directory where the series are written as CSV files
+   * when the sampler is stopped (@see #writeCsv(Path)). Default value is null, in which
+   * case the series are only kept in memory.
+   * @param outputDirectory Output directory, or null to not write the series.
+   */
+  public void setOutputDirectory(Path outputDirectory) {
+    this.outputDirectory = outputDirectory;
+  }
+
+  /**
+   * This method starts sampling the metrics in a background thread of its own.
+   * It does nothing if the sampler is already started.
+   */
+  public synchronized void start() {
+    if (sampling != null) {
+      return;
+    }
+    ownScope = TaskScope.open("connect-metrics-sampler-" + connectorName);
+    start(ownScope);
+  }
+
+  /**
+   * This method starts sampling the metrics in a background task of the given scope,
+   * so that the sampling does not outlive the test which opened the scope.
+   * It does nothing if the sampler is already started.
+   * @param scope Scope running the sampling task.
+   */
+  public synchronized void start(TaskScope scope) {
+    if (sampling != null) {
+      return;
+    }
+    log.info("Sampling the metrics of {} every {} ms", connectorName, sampleIntervalMs);
+    CountDownLatch signal = new CountDownLatch(1);
+    stopSignal = signal;
+    sampling = scope.fork(() -> sampleUntil(signal));
+  }
+
+  /**
+   * This method stops sampling the metrics, reads a last sample, and writes the series
+   * to the output directory if there is one, even if interrupted while waiting for the
+   * background sampling to stop. It does nothing if the sampler is not started.
+   * @throws IOException if the series cannot be written.
+   * @throws InterruptedException if interrupted while waiting for the background sampling.
+   */
+  public synchronized void stop() throws IOException, InterruptedException {
+    if (sampling == null) {
+      return;
+    }
+    stopSignal.countDown();
+    try {
+      sampling.get(sampleIntervalMs + TimeUnit.SECONDS.toMillis(5), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      log.warn("Sampling the metrics of {} did not stop in time", connectorName);
+    } catch (ExecutionException | CancellationException e) {
+      log.warn("Sampling the metrics of {} failed", connectorName, e);
+    } finally {
+      sampling.cancel(true);
+      sampling = null;
+      stopSignal = null;
+      if (ownScope != null) {
+        ownScope.close();
+        ownScope = null;
+      }
+      sample();
+      if (outputDirectory != null) {
+        writeCsv(outputDirectory);
+      }
+    }
+  }
+
+  /**
+   * This method stops the sampler (@see #stop()). If interrupted while waiting for the
+   * background sampling to stop, it restores the interrupt status of the thread.
+   * @throws IOException if the series cannot be written.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      stop();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while stopping the sampling of the metrics of {}", connectorName);
+    }
+  }
+
+  /**
+   * This method starts a new phase now. The samples read from now on are tagged with it.
+   * @param phase Name of the phase.
+   */
+  public void startPhase(String phase) {
+    this.phase = phase;
+  }
+
+  public String getPhase() {
+    return phase;
+  }
+
+  /**
+   * This method reads the current value of all the numeric metrics and of the status of
+   * the connector and of its tasks, and adds them to their series. Metrics which cannot be
+   * read, e.g. because the task is restarting, are left out of the sample.
+   */
+  public void sample() {
+    long timestampMs = System.currentTimeMillis();
+    Map<String, Map<String, Object>> valuesBySeries = new TreeMap<>();
+    for (ObjectName name : mbeanServer.queryNames(connectorPattern, null)) {
+      String task = name.getKeyProperty(TASK_KEY);
+      String seriesName = task == null ? CONNECTOR_SERIES : TASK_SERIES_PREFIX + task;
+      readAttributes(
+          name, valuesBySeries.computeIfAbsent(seriesName, key -> new LinkedHashMap<>()));
+    }
+    String currentPhase = phase;
+    for (Map.Entry<String, Map<String, Object>> entry : valuesBySeries.entrySet()) {
+      if (entry.getValue().isEmpty()) {
+        continue;
+      }
+      series.computeIfAbsent(entry.getKey(), MetricSeries::new)
+          .add(new MetricSample(timestampMs, currentPhase, entry.getValue()));
+    }
+  }
+
+  /**
+   * This method returns the series sampled so far, by series name.
+   * @return Series of the connector and of its tasks.
+   */
+  public Map<String, MetricSeries> getSeries() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(series));
+  }
+
+  /**
+   * This method returns the series of the given name.
+   * @param seriesName Name of the series, e.g. connector or task-0.
+   * @return Series, or null if no metric of that name was sampled.
+   */
+  public MetricSeries getSeries(String seriesName) {
+    return series.get(seriesName);
+  }
+
+  /**
+   * This method writes every series to a CSV file named after the connector and the series,
+   * e.g. my-connector-task-0.csv, with a row per sample and a column per metric after the
+   * timestamp_ms and phase columns. Metrics missing from a sample are left empty.
+   * @param directory Directory where the files are written. It is created if needed.
+   * @return Paths of the files written.
+   * @throws IOException if a file cannot be written.
+   */
+  public List<Path> writeCsv(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    String filePrefix = connectorName.replaceAll("[^A-Za-z0-9._-]", "_") + "-";
+    List<Path> files = new ArrayList<>();
+    for (MetricSeries metricSeries : series.values()) {
+      Path file = directory.resolve(filePrefix + metricSeries.getName() + ".csv");
+      Set<String> metrics = metricSeries.getMetrics();
+      try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        writer.write("timestamp_ms,phase");
+        for (String metric : metrics) {
+          writer.write(',');
+          writer.write(CsvFields.escape(metric));
+        }
+        writer.newLine();
+        for (MetricSample sample : metricSeries.getSamples()) {
+          writer.write(String.valueOf(sample.getTimestampMs()));
+          writer.write(',');
+          writer.write(CsvFields.escape(sample.getPhase()));
+          for (String metric : metrics) {
+            writer.write(',');
+            Object value = sample.getValues().get(metric);
+            if (value != null) {
+              writer.write(CsvFields.escape(String.valueOf(value)));
+            }
+          }
+          writer.newLine();
+        }
+      }
+      files.add(file);
+    }
+    log.info("Wrote the metrics of {} to {}", connectorName, files);
+    return files;
+  }
+
+  private void sampleUntil(CountDownLatch signal) {
+    try {
+      do {
+        sampleSafely();
+      } while (!signal.await(sampleIntervalMs, TimeUnit.MILLISECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void sampleSafely() {
+    try {
+      sample();
+    } catch (RuntimeException e) {
+      // a failed sample must not cancel the following ones
+      log.warn("Failed to sample the metrics of {}", connectorName, e);
+    }
+  }
+
+  private void readAttributes(ObjectName name, Map<String, Object> values) {
+    try {
+      MBeanAttributeInfo[] attributeInfos = mbeanServer.getMBeanInfo(name).getAttributes();
+      String[] attributes = new String[attributeInfos.length];
+      for (int i = 0; i < attributeInfos.length; i++) {
+        attributes[i] = attributeInfos[i].getName();
+      }
+      AttributeList attributeList = mbeanServer.getAttributes(name, attributes);
+      for (Attribute attribute : attributeList.asList()) {
+        Object value = attribute.getValue();
+        if (value instanceof Number || STATUS_ATTRIBUTE.equals(attribute.getName())) {
+          values.put(attribute.getName(), value);
+        }
+      }
+    } catch (JMException e) {
+      log.debug("Could not read the metrics of {}", name, e);
+    }
+  }
+}
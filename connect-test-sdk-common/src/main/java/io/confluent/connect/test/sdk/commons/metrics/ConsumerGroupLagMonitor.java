@@ -0,0 +1,398 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.metrics;
+
+import io.confluent.connect.test.sdk.commons.ConnectorUtils;
+import io.confluent.connect.test.sdk.commons.execution.TaskScope;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class tracks the lag of the consumer group of a sink connector (connect-[name]),
+ * i.e. the number of records between its committed offsets and the end offsets of the
+ * topics it consumes, using the admin client of the embedded Kafka cluster.
+ *
+ * <p>It gives a cheap signal that the connector caught up with the topics, which does not
+ * read the sink system (@see #waitUntilCaughtUp(long)), and keeps the lag over time, which
+ * shows how quickly the connector drains a backlog, e.g. after chaos. Partitions without a
+ * committed offset lag by all their records. The committed offsets of a sink connector
+ * trail the records written to the sink system by up to offset.flush.interval.ms.
+ */
+public class ConsumerGroupLagMonitor implements AutoCloseable {
+
+  /** Phase of the samples measured before any phase is started. */
+  public static final String DEFAULT_PHASE = "default";
+
+  private static final String SINK_CONNECTOR_GROUP_PREFIX = "connect-";
+  private static final long ADMIN_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(10);
+  private static final Comparator<TopicPartition> PARTITION_ORDER =
+      Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition);
+
+  private final Logger log = LoggerFactory.getLogger(ConsumerGroupLagMonitor.class);
+  private final EmbeddedConnectCluster connect;
+  private final String connectorName;
+  private final String groupId;
+  private final List<String> topics;
+  private final List<LagSample> samples = new ArrayList<>();
+  private long sampleIntervalMs = TimeUnit.SECONDS.toMillis(1);
+  private long maxCatchUpTimeMs = TimeUnit.MINUTES.toMillis(5);
+  private Path outputDirectory;
+  private volatile String phase = DEFAULT_PHASE;
+  private final Object adminLock = new Object();
+  private Admin admin;
+  private TaskScope ownScope;
+  private CountDownLatch stopSignal;
+  private Future<?> measuring;
+
+  /**
+   * Constructor for ConsumerGroupLagMonitor.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param connectorName Name of the sink connector.
+   * @param topics Topics consumed by the sink connector.
+   */
+  public ConsumerGroupLagMonitor(
+      EmbeddedConnectCluster connect, String connectorName, Collection<String> topics) {
+    this.connect = connect;
+    this.connectorName = connectorName;
+    this.groupId = SINK_CONNECTOR_GROUP_PREFIX + connectorName;
+    this.topics = new ArrayList<>(topics);
+  }
+
+  public String getConnectorName() {
+    return connectorName;
+  }
+
+  public String getGroupId() {
+    return groupId;
+  }
+
+  public long getSampleIntervalMs() {
+    return sampleIntervalMs;
+  }
+
+  /**
+   * This method is used to set the interval at which the lag is measured in the background.
+   * Default value is 1000. It must be set before the monitor is started.
+   * @param sampleIntervalMs Sample interval in milliseconds.
+   */
+  public void setSampleIntervalMs(long sampleIntervalMs) {
+    if (sampleIntervalMs <= 0) {
+      throw new IllegalArgumentException(
+          "sampleIntervalMs must be positive: " + sampleIntervalMs);
+    }
+    this.sampleIntervalMs = sampleIntervalMs;
+  }
+
+  public long getMaxCatchUpTimeMs() {
+    return maxCatchUpTimeMs;
+  }
+
+  /**
+   * This method is used to set the maximum time the test flows wait for the connector
+   * to catch up before extracting the data from the sink system. Default value is 300000.
+   * @param maxCatchUpTimeMs Maximum catch up time in milliseconds.
+   */
+  public void setMaxCatchUpTimeMs(long maxCatchUpTimeMs) {
+    this.maxCatchUpTimeMs = maxCatchUpTimeMs;
+  }
+
+  public Path getOutputDirectory() {
+    return outputDirectory;
+  }
+
+  /**
+   * This method is used to set the directory where the lag over time is written as a CSV file
+   * when the monitor is stopped (@see #writeCsv(Path)). Default value is null, in which case
+   * the samples are only kept in memory.
+   * @param outputDirectory Output directory, or null to not write the samples.
+   */
+  public void setOutputDirectory(Path outputDirectory) {
+    this.outputDirectory = outputDirectory;
+  }
+
+  /**
+   * This method starts measuring the lag in a background thread of its own.
+   * It does nothing if the monitor is already started.
+   */
+  public synchronized void start() {
+    if (measuring != null) {
+      return;
+    }
+    ownScope = TaskScope.open("consumer-group-lag-monitor-" + connectorName);
+    start(ownScope);
+  }
+
+  /**
+   * This method starts measuring the lag in a background task of the given scope,
+   * so that the measures do not outlive the test which opened the scope.
+   * It does nothing if the monitor is already started.
+   * @param scope Scope running the measuring task.
+   */
+  public synchronized void start(TaskScope scope) {
+    if (measuring != null) {
+      return;
+    }
+    log.info("Measuring the lag of {} every {} ms", groupId, sampleIntervalMs);
+    CountDownLatch signal = new CountDownLatch(1);
+    stopSignal = signal;
+    measuring = scope.fork(() -> measureLagUntil(signal));
+  }
+
+  /**
+   * This method stops measuring the lag in the background, writes the samples to the output
+   * directory if there is one, and closes the admin client, even if interrupted while waiting
+   * for the background measures to stop.
+   * @throws IOException if the samples cannot be written.
+   * @throws InterruptedException if interrupted while waiting for the background measures.
+   */
+  public synchronized void stop() throws IOException, InterruptedException {
+    try {
+      if (measuring != null) {
+        stopSignal.countDown();
+        try {
+          measuring.get(sampleIntervalMs + ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+          log.warn("Measuring the lag of {} did not stop in time", groupId);
+        } catch (ExecutionException | CancellationException e) {
+          log.warn("Measuring the lag of {} failed", groupId, e);
+        } finally {
+          measuring.cancel(true);
+          measuring = null;
+          stopSignal = null;
+          if (ownScope != null) {
+            ownScope.close();
+            ownScope = null;
+          }
+          if (outputDirectory != null) {
+            writeCsv(outputDirectory);
+          }
+        }
+      }
+    } finally {
+      synchronized (adminLock) {
+        if (admin != null) {
+          admin.close();
+          admin = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * This method stops the monitor (@see #stop()). If interrupted while waiting for the
+   * background measures to stop, it restores the interrupt status of the thread.
+   * @throws IOException if the samples cannot be written.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      stop();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while stopping measuring the lag of {}", groupId);
+    }
+  }
+
+  /**
+   * This method starts a new phase now. The samples measured from now on are tagged with it.
+   * @param phase Name of the phase.
+   */
+  public void startPhase(String phase) {
+    this.phase = phase;
+  }
+
+  /**
+   * This method measures the lag of every partition of the topics now,
+   * and adds it to the samples.
+   * @return Lag of the consumer group.
+   * @throws Exception if the offsets could not be listed.
+   */
+  public LagSample measureLag() throws Exception {
+    Admin admin = admin();
+    long timestampMs = System.currentTimeMillis();
+    Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+    for (TopicDescription description : admin.describeTopics(topics).allTopicNames()
+        .get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS).values()) {
+      for (TopicPartitionInfo partition : description.partitions()) {
+        latest.put(
+            new TopicPartition(description.name(), partition.partition()), OffsetSpec.latest());
+      }
+    }
+    Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets =
+        admin.listOffsets(latest).all().get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    Map<TopicPartition, OffsetAndMetadata> committedOffsets = admin
+        .listConsumerGroupOffsets(groupId)
+        .partitionsToOffsetAndMetadata()
+        .get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+    // partitions without a committed offset are consumed from their earliest offset
+    Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+    for (TopicPartition partition : latest.keySet()) {
+      if (committedOffsets.get(partition) == null) {
+        earliest.put(partition, OffsetSpec.earliest());
+      }
+    }
+    Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> startOffsets =
+        earliest.isEmpty() ? new HashMap<>()
+            : admin.listOffsets(earliest).all().get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+    Map<TopicPartition, Long> lags = new LinkedHashMap<>();
+    endOffsets.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey(PARTITION_ORDER))
+        .forEach(entry -> {
+          OffsetAndMetadata committed = committedOffsets.get(entry.getKey());
+          long position = committed != null
+              ? committed.offset() : startOffsets.get(entry.getKey()).offset();
+          lags.put(entry.getKey(), Math.max(0, entry.getValue().offset() - position));
+        });
+    LagSample sample = new LagSample(timestampMs, phase, lags);
+    synchronized (samples) {
+      samples.add(sample);
+    }
+    return sample;
+  }
+
+  /**
+   * This method checks whether the connector caught up with the topics,
+   * i.e. whether its consumer group committed the end offset of every partition.
+   * @return true if the consumer group has no lag.
+   * @throws Exception if the offsets could not be listed.
+   */
+  public boolean isCaughtUp() throws Exception {
+    return measureLag().getTotalLag() == 0;
+  }
+
+  /**
+   * This method waits for the connector to catch up with the topics (@see #isCaughtUp()).
+   * The records must all be published before waiting, or the wait may end early.
+   * @param maxWaitMs the maximum time in milliseconds to wait
+   * @return true if the connector caught up in time
+   * @throws InterruptedException if this was interrupted
+   */
+  public boolean waitUntilCaughtUp(long maxWaitMs) throws InterruptedException {
+    long startMs = System.currentTimeMillis();
+    boolean caughtUp = ConnectorUtils.waitForReadiness(this::isCaughtUp, maxWaitMs);
+    if (caughtUp) {
+      log.info("Consumer group {} caught up after {} ms",
+          groupId, System.currentTimeMillis() - startMs);
+    } else {
+      log.warn("Consumer group {} did not catch up within {} ms", groupId, maxWaitMs);
+    }
+    return caughtUp;
+  }
+
+  /**
+   * This method returns the samples measured so far, in the order in which they were measured.
+   * @return Samples of the lag.
+   */
+  public List<LagSample> getSamples() {
+    synchronized (samples) {
+      return new ArrayList<>(samples);
+    }
+  }
+
+  /**
+   * This method writes the samples to a CSV file named after the connector, e.g.
+   * my-connector-lag.csv, with a row per sample and the timestamp_ms, phase and total_lag
+   * columns followed by a column per partition. Partitions missing from a sample are left
+   * empty.
+   * @param directory Directory where the file is written. It is created if needed.
+   * @return Path of the file written.
+   * @throws IOException if the file cannot be written.
+   */
+  public Path writeCsv(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    Path file = directory.resolve(
+        connectorName.replaceAll("[^A-Za-z0-9._-]", "_") + "-lag.csv");
+    List<LagSample> lagSamples = getSamples();
+    List<TopicPartition> partitions = new ArrayList<>();
+    for (LagSample sample : lagSamples) {
+      for (TopicPartition partition : sample.getLags().keySet()) {
+        if (!partitions.contains(partition)) {
+          partitions.add(partition);
+        }
+      }
+    }
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write("timestamp_ms,phase,total_lag");
+      for (TopicPartition partition : partitions) {
+        writer.write(',');
+        writer.write(CsvFields.escape(partition.toString()));
+      }
+      writer.newLine();
+      for (LagSample sample : lagSamples) {
+        writer.write(sample.getTimestampMs() + "," + CsvFields.escape(sample.getPhase())
+            + "," + sample.getTotalLag());
+        for (TopicPartition partition : partitions) {
+          writer.write(',');
+          Long lag = sample.getLags().get(partition);
+          if (lag != null) {
+            writer.write(String.valueOf(lag));
+          }
+        }
+        writer.newLine();
+      }
+    }
+    log.info("Wrote the lag of {} to {}", groupId, file);
+    return file;
+  }
+
+  private Admin admin() {
+    synchronized (adminLock) {
+      if (admin == null) {
+        admin = connect.kafka().createAdminClient();
+      }
+      return admin;
+    }
+  }
+
+  private void measureLagUntil(CountDownLatch signal) {
+    try {
+      do {
+        measureLagSafely();
+      } while (!signal.await(sampleIntervalMs, TimeUnit.MILLISECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void measureLagSafely() {
+    try {
+      measureLag();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      // e.g. while Kafka is down; the lag is measured again on the next run
+      log.debug("Failed to measure the lag of {}", groupId, e);
+    }
+  }
+}
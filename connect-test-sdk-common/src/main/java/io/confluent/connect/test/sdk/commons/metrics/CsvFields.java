@@ -0,0 +1,25 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.metrics;
+
+/** Helper to write the fields of the CSV files of the samplers and monitors. */
+final class CsvFields {
+
+  private CsvFields() {
+  }
+
+  /**
+   * This method quotes a field if it contains a separator, a quote or a line break.
+   * @param value Value of the field.
+   * @return Field as written in the CSV file.
+   */
+  static String escape(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+        && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
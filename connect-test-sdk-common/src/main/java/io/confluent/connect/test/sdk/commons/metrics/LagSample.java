@@ -0,0 +1,68 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.metrics;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class holds the lag of the consumer group of a sink connector, measured at a point in
+ * time by the ConsumerGroupLagMonitor: for every partition, the number of records between the
+ * committed offset of the group and the end offset of the partition.
+ */
+public class LagSample {
+
+  private final long timestampMs;
+  private final String phase;
+  private final Map<TopicPartition, Long> lags;
+  private final long totalLag;
+
+  LagSample(long timestampMs, String phase, Map<TopicPartition, Long> lags) {
+    this.timestampMs = timestampMs;
+    this.phase = phase;
+    this.lags = Collections.unmodifiableMap(new LinkedHashMap<>(lags));
+    this.totalLag = lags.values().stream().mapToLong(Long::longValue).sum();
+  }
+
+  /**
+   * This method returns the time at which the lag was measured.
+   * @return Time in milliseconds since the epoch.
+   */
+  public long getTimestampMs() {
+    return timestampMs;
+  }
+
+  /**
+   * This method returns the phase of the test in which the lag was measured.
+   * @return Name of the phase.
+   */
+  public String getPhase() {
+    return phase;
+  }
+
+  /**
+   * This method returns the lag of every partition of the topics consumed by the connector.
+   * @return Lag in records by partition.
+   */
+  public Map<TopicPartition, Long> getLags() {
+    return lags;
+  }
+
+  /**
+   * This method returns the sum of the lags of all the partitions.
+   * @return Total lag in records.
+   */
+  public long getTotalLag() {
+    return totalLag;
+  }
+
+  @Override
+  public String toString() {
+    return "lag of " + totalLag + " records at " + timestampMs + " in phase " + phase;
+  }
+}
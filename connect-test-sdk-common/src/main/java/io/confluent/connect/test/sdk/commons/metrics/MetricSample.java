@@ -0,0 +1,61 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class holds the values of the metrics of a connector or of one of its tasks,
+ * read at a point in time by the ConnectMetricsSampler.
+ */
+public class MetricSample {
+
+  private final long timestampMs;
+  private final String phase;
+  private final Map<String, Object> values;
+
+  MetricSample(long timestampMs, String phase, Map<String, Object> values) {
+    this.timestampMs = timestampMs;
+    this.phase = phase;
+    this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+  }
+
+  /**
+   * This method returns the time at which the metrics were read.
+   * @return Time in milliseconds since the epoch.
+   */
+  public long getTimestampMs() {
+    return timestampMs;
+  }
+
+  /**
+   * This method returns the phase of the test in which the metrics were read.
+   * @return Name of the phase.
+   */
+  public String getPhase() {
+    return phase;
+  }
+
+  /**
+   * This method returns the values of the metrics by metric name, e.g.
+   * source-record-poll-rate. Numeric metrics are numbers, and the status is a string.
+   * @return Values of the metrics.
+   */
+  public Map<String, Object> getValues() {
+    return values;
+  }
+
+  /**
+   * This method returns the value of a numeric metric.
+   * @param metric Name of the metric.
+   * @return Value of the metric, or NaN if it was not read in this sample.
+   */
+  public double getValue(String metric) {
+    Object value = values.get(metric);
+    return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class holds the time series of the metrics of a connector or of one of its tasks,
+ * sampled by the ConnectMetricsSampler.
+ */
+public class MetricSeries {
+
+  private final String name;
+  private final List<MetricSample> samples = new ArrayList<>();
+
+  MetricSeries(String name) {
+    this.name = name;
+  }
+
+  /**
+   * This method returns the name of the series, which is
+   * {@link ConnectMetricsSampler#CONNECTOR_SERIES} for the connector
+   * or {@link ConnectMetricsSampler#TASK_SERIES_PREFIX} followed by the task id for a task.
+   * @return Name of the series.
+   */
+  public String getName() {
+    return name;
+  }
+
+  synchronized void add(MetricSample sample) {
+    samples.add(sample);
+  }
+
+  /**
+   * This method returns the samples of the series in the order in which they were read.
+   * @return Samples of the series.
+   */
+  public synchronized List<MetricSample> getSamples() {
+    return new ArrayList<>(samples);
+  }
+
+  /**
+   * This method returns the names of all the metrics read in the series,
+   * in the order in which they were first read.
+   * @return Names of the metrics.
+   */
+  public synchronized Set<String> getMetrics() {
+    Set<String> metrics = new LinkedHashSet<>();
+    for (MetricSample sample : samples) {
+      metrics.addAll(sample.getValues().keySet());
+    }
+    return metrics;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import java.util.List;
+
+/**
+ * This class holds a pre-serialized record read from a record corpus
+ * (@see RecordCorpusWriter, RecordCorpusReader).
+ */
+public class CorpusRecord {
+
+  private final int index;
+  private final byte[] key;
+  private final byte[] value;
+  private final List<String> uniqueIds;
+
+  public CorpusRecord(int index, byte[] key, byte[] value, List<String> uniqueIds) {
+    this.index = index;
+    this.key = key;
+    this.value = value;
+    this.uniqueIds = uniqueIds;
+  }
+
+  /**
+   * This method returns the position of the record in the corpus.
+   * @return Index of the record.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  public byte[] getKey() {
+    return key;
+  }
+
+  public byte[] getValue() {
+    return value;
+  }
+
+  /**
+   * This method returns the unique ids expected in the end system for this record.
+   * @return List of unique ids.
+   */
+  public List<String> getUniqueIds() {
+    return uniqueIds;
+  }
+}
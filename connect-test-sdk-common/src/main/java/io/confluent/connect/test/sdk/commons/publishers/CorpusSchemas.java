@@ -0,0 +1,129 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class handles the Schema Registry ids of the records of a record corpus.
+ * Records serialized by the converters of Schema Registry start with a magic byte and the
+ * 4 bytes of the id of their schema, which is only valid in the registry which assigned it.
+ * The schemas are therefore recorded with the corpus, and registered again in the registry of
+ * the test replaying it, so that the ids of the records can be rewritten.
+ */
+final class CorpusSchemas {
+
+  private static final byte MAGIC_BYTE = 0x0;
+  private static final int HEADER_SIZE = 5;
+  private static final String CONTENT_TYPE = "application/vnd.schemaregistry.v1+json";
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private CorpusSchemas() {
+  }
+
+  /**
+   * Return the schema id of a value in the wire format of Schema Registry,
+   * or -1 if the value is not in this format.
+   */
+  static int schemaId(byte[] value) {
+    if (value == null || value.length < HEADER_SIZE || value[0] != MAGIC_BYTE) {
+      return -1;
+    }
+    return ((value[1] & 0xff) << 24) | ((value[2] & 0xff) << 16)
+        | ((value[3] & 0xff) << 8) | (value[4] & 0xff);
+  }
+
+  /** Overwrite the schema id of a value in the wire format of Schema Registry. */
+  static void setSchemaId(byte[] value, int schemaId) {
+    value[1] = (byte) (schemaId >>> 24);
+    value[2] = (byte) (schemaId >>> 16);
+    value[3] = (byte) (schemaId >>> 8);
+    value[4] = (byte) schemaId;
+  }
+
+  /**
+   * Fetch the schema with the given id.
+   * @return Schema as returned by Schema Registry, i.e. a JSON object with the schema,
+   *         its type and its references.
+   */
+  static String fetch(String schemaRegistryUrl, int schemaId) throws IOException {
+    String url = trimSlash(schemaRegistryUrl) + "/schemas/ids/" + schemaId;
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    try {
+      if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+        throw new IOException("GET " + url + " returned " + connection.getResponseCode());
+      }
+      try (InputStream in = connection.getInputStream()) {
+        return OBJECT_MAPPER.readTree(in).toString();
+      }
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  /**
+   * Register a schema recorded with {@link #fetch(String, int)} under the given subject.
+   * @return Id of the schema in the registry.
+   */
+  static int register(String schemaRegistryUrl, String subject, String schema) {
+    String url = trimSlash(schemaRegistryUrl) + "/subjects/"
+        + encode(subject) + "/versions";
+    try {
+      JsonNode recorded = OBJECT_MAPPER.readTree(schema);
+      if (recorded.path("references").size() > 0) {
+        throw new IllegalStateException(
+            "Schemas with references cannot be registered again: " + schema);
+      }
+      ObjectNode request = OBJECT_MAPPER.createObjectNode();
+      request.set("schema", recorded.get("schema"));
+      if (recorded.has("schemaType")) {
+        request.set("schemaType", recorded.get("schemaType"));
+      }
+      HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+      try {
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", CONTENT_TYPE);
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+          out.write(OBJECT_MAPPER.writeValueAsBytes(request));
+        }
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+          throw new IOException("POST " + url + " returned " + connection.getResponseCode());
+        }
+        try (InputStream in = connection.getInputStream()) {
+          return OBJECT_MAPPER.readTree(in).get("id").asInt();
+        }
+      } finally {
+        connection.disconnect();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not register the schema under " + subject, e);
+    }
+  }
+
+  private static String trimSlash(String schemaRegistryUrl) {
+    return schemaRegistryUrl.endsWith("/")
+        ? schemaRegistryUrl.substring(0, schemaRegistryUrl.length() - 1) : schemaRegistryUrl;
+  }
+
+  private static String encode(String subject) {
+    try {
+      return URLEncoder.encode(subject, StandardCharsets.UTF_8.name());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -4,21 +4,52 @@
 
 package io.confluent.connect.test.sdk.commons.publishers;
 
+import io.confluent.connect.test.sdk.commons.latency.PublishTimestamps;
+import io.confluent.connect.test.sdk.commons.sketches.KeySketch;
+import org.apache.kafka.clients.producer.ProducerRecord;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** This class is used to publish data to Source System/ Kafka Topic
  * depending on the type of Connector. */
-public abstract class DataPublisher<S> {
+public abstract class DataPublisher<S> implements AutoCloseable {
+
+  private static final int MIN_RECORDS_PER_GENERATION_TASK = 1000;
+  private static final int GENERATION_TASKS_PER_THREAD = 4;
 
   private int uniqueIdMarker;
   private int currentRecordCount;
   private final List<String> uniqueIds;
+  private final UniqueIdCodec uniqueIdCodec;
+  private UniqueIdLedger uniqueIdLedger;
+  private final AtomicLong publishedBytes = new AtomicLong();
+  private int generationParallelism = 1;
+  private ForkJoinPool generationPool;
+  private KeySketch keySketch;
+  private boolean publishTimestampInHeader = false;
 
   public DataPublisher() {
+    this(null);
+  }
+
+  /** Constructor for publishers whose unique ids can be derived from the raw unique ids.
+   * Such publishers generate exactly one record in the end system per data point,
+   * with the unique id returned by the codec for the raw unique id of the data point.
+   * Instead of keeping every unique id as a string, the raw unique ids can then be tracked
+   * in a compact {@link UniqueIdLedger} (@see #setUniqueIdLedgerEnabled).
+   * @param uniqueIdCodec Codec to convert between raw unique ids and unique ids,
+   *                      or null if the unique ids cannot be derived.
+   * */
+  protected DataPublisher(UniqueIdCodec uniqueIdCodec) {
     uniqueIdMarker = 0;
     currentRecordCount = 0;
     uniqueIds = new ArrayList<>();
+    this.uniqueIdCodec = uniqueIdCodec;
   }
 
   /** This method should generate a data point/ record for using the given raw unique id.
@@ -44,6 +75,18 @@ public abstract class DataPublisher<S> {
    * */
   public abstract void publishDataPoints(List<S> dataPoints) throws Exception;
 
+  /** This method publishes the data points/ records generated for a range of consecutive
+   * raw unique ids. By default, it calls {@link #publishDataPoints(List)}.
+   * Publishers which derive e.g. the keys or the partitions of the records from their raw
+   * unique ids can override it.
+   * @param dataPoints List of data points/ records in the order of their raw unique ids.
+   * @param firstRawUniqueId Raw unique id of the first data point/ record.
+   * @throws Exception Exception thrown while publishing the data points/ records
+   * */
+  protected void publishDataPoints(List<S> dataPoints, int firstRawUniqueId) throws Exception {
+    publishDataPoints(dataPoints);
+  }
+
   /** This method should publish the given number of data points/ records
    *  to the source system/ Kafka topic.
    * @param numberOfRecords Number of data points/ records to be published
@@ -52,26 +95,231 @@ public abstract class DataPublisher<S> {
    * @throws Exception Exception thrown while publishing the data points/ records
    * */
   public List<S> publishDataPoints(int numberOfRecords) throws Exception {
-    List<S> dataPoints = new ArrayList<>();
+    final int firstRawUniqueId = uniqueIdMarker;
+    final int firstRecordCount = currentRecordCount;
+    uniqueIdMarker += numberOfRecords;
+    currentRecordCount += numberOfRecords;
+    List<S> dataPoints;
+    if (generationParallelism > 1
+        && numberOfRecords >= 2 * MIN_RECORDS_PER_GENERATION_TASK) {
+      dataPoints = generateDataPointsInParallel(
+          firstRawUniqueId, firstRecordCount, numberOfRecords);
+    } else {
+      dataPoints = generateDataPoints(firstRawUniqueId, firstRecordCount, numberOfRecords);
+    }
+    publishDataPoints(dataPoints, firstRawUniqueId);
+    if (uniqueIdLedger != null) {
+      uniqueIdLedger.addRange(firstRawUniqueId, numberOfRecords);
+      if (keySketch != null) {
+        for (int i = 0; i < numberOfRecords; i++) {
+          keySketch.add(uniqueIdCodec.format(firstRawUniqueId + i));
+        }
+      }
+    } else {
+      for (S dataPoint : dataPoints) {
+        List<String> dataPointUniqueIds = getUniqueIdFrom(dataPoint);
+        uniqueIds.addAll(dataPointUniqueIds);
+        if (keySketch != null) {
+          dataPointUniqueIds.forEach(keySketch::add);
+        }
+      }
+    }
+    return dataPoints;
+  }
+
+  /** This method generates the data points/ records for a range of consecutive raw unique ids.
+   * By default, it calls {@link #generateDataPoint(int, int)} for every raw unique id.
+   * Publishers which can generate data points more efficiently in bulk can override it.
+   * @param firstRawUniqueId Raw unique id of the first data point/ record.
+   * @param firstRecordCount Record count of the first data point/ record.
+   * @param numberOfRecords Number of data points/ records to be generated.
+   * @return List of data points/ records in the order of their raw unique ids.
+   * */
+  protected List<S> generateDataPoints(
+      int firstRawUniqueId, int firstRecordCount, int numberOfRecords) {
+    List<S> dataPoints = new ArrayList<>(numberOfRecords);
     for (int i = 0; i < numberOfRecords; i++) {
-      dataPoints.add(generateDataPoint(uniqueIdMarker, currentRecordCount));
-      uniqueIdMarker++;
-      currentRecordCount++;
+      dataPoints.add(generateDataPoint(firstRawUniqueId + i, firstRecordCount + i));
     }
-    publishDataPoints(dataPoints);
-    for (S dataPoint : dataPoints) {
-      uniqueIds.addAll(getUniqueIdFrom(dataPoint));
+    return dataPoints;
+  }
+
+  public int getGenerationParallelism() {
+    return generationParallelism;
+  }
+
+  /** This method is used to set the number of threads generating data points/ records.
+   * When it is greater than 1, every call to {@link #publishDataPoints(int)} splits its range
+   * of raw unique ids into disjoint sub-ranges which are generated in parallel and put back
+   * in the order of their raw unique ids before publishing. The raw unique ids therefore stay
+   * deterministic and unique, but {@link #generateDataPoint(int, int)} and
+   * {@link #generateDataPoints(int, int, int)} must be thread safe.
+   * Default value is 1.
+   * @param generationParallelism Number of threads generating data points/ records.
+   * */
+  public void setGenerationParallelism(int generationParallelism) {
+    if (generationParallelism < 1) {
+      throw new IllegalArgumentException(
+          "generationParallelism must be positive: " + generationParallelism);
+    }
+    this.generationParallelism = generationParallelism;
+  }
+
+  private List<S> generateDataPointsInParallel(
+      int firstRawUniqueId, int firstRecordCount, int numberOfRecords) throws Exception {
+    if (generationPool == null || generationPool.getParallelism() != generationParallelism) {
+      shutdownGenerationPool();
+      generationPool = new ForkJoinPool(generationParallelism);
+    }
+    int recordsPerTask = Math.max(
+        MIN_RECORDS_PER_GENERATION_TASK,
+        -Math.floorDiv(-numberOfRecords, generationParallelism * GENERATION_TASKS_PER_THREAD));
+    List<ForkJoinTask<List<S>>> tasks = new ArrayList<>();
+    for (int offset = 0; offset < numberOfRecords; offset += recordsPerTask) {
+      final int taskOffset = offset;
+      final int taskRecords = Math.min(recordsPerTask, numberOfRecords - offset);
+      tasks.add(generationPool.submit(() -> generateDataPoints(
+          firstRawUniqueId + taskOffset, firstRecordCount + taskOffset, taskRecords)));
+    }
+    List<S> dataPoints = new ArrayList<>(numberOfRecords);
+    try {
+      for (ForkJoinTask<List<S>> task : tasks) {
+        dataPoints.addAll(task.get());
+      }
+    } catch (ExecutionException e) {
+      for (ForkJoinTask<List<S>> task : tasks) {
+        task.cancel(true);
+      }
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
     }
     return dataPoints;
   }
 
+  private void shutdownGenerationPool() {
+    if (generationPool != null) {
+      generationPool.shutdownNow();
+      generationPool = null;
+    }
+  }
+
+  /** This method should be called by publishers after publishing data points/ records,
+   * with the number of bytes they published, e.g. the size of the serialized keys and values.
+   * It is required to publish at a target rate in bytes per second.
+   * @param bytes Number of bytes published.
+   * */
+  protected void recordPublishedBytes(long bytes) {
+    publishedBytes.addAndGet(bytes);
+  }
+
+  /** This method returns the number of bytes published so far,
+   * as reported by the publisher through {@link #recordPublishedBytes(long)}.
+   * @return Number of bytes published, or 0 if the publisher does not report them.
+   * */
+  public long getPublishedBytes() {
+    return publishedBytes.get();
+  }
+
+  public boolean isPublishTimestampInHeader() {
+    return publishTimestampInHeader;
+  }
+
+  /** This method is used to set whether every record carries the time at which it was sent
+   * in a header (@see PublishTimestamps), so that its end-to-end latency can be measured
+   * by the data extractor. Publishers to Kafka add the header with
+   * {@link #withPublishTimestamp(ProducerRecord)}, other publishers ignore it.
+   * Default value is false.
+   * @param publishTimestampInHeader Whether to add the publish timestamp header.
+   * */
+  public void setPublishTimestampInHeader(boolean publishTimestampInHeader) {
+    this.publishTimestampInHeader = publishTimestampInHeader;
+  }
+
+  /** This method should be called by publishers to Kafka on every record right before it is
+   * sent. It adds the current time in a header of the record if the publish timestamp header
+   * is enabled (@see #setPublishTimestampInHeader).
+   * @param record Record about to be sent.
+   * @param <K> Type of the key of the record.
+   * @param <V> Type of the value of the record.
+   * @return The given record.
+   * */
+  protected <K, V> ProducerRecord<K, V> withPublishTimestamp(ProducerRecord<K, V> record) {
+    if (publishTimestampInHeader) {
+      record.headers().add(PublishTimestamps.header(System.currentTimeMillis()));
+    }
+    return record;
+  }
+
   /** This method returns the list of unique ids of data generated by the publisher.
+   * When the {@link UniqueIdLedger} is enabled, the list is built from it on every call.
    * @return List of unique ids generated of data generated by the publisher.
    * */
   public List<String> getUniqueIds() {
+    if (uniqueIdLedger != null) {
+      return uniqueIdLedger.toUniqueIds(uniqueIdCodec);
+    }
     return uniqueIds;
   }
 
+  /** This method returns the codec used to derive unique ids from raw unique ids.
+   * @return Codec of the publisher, or null if its unique ids cannot be derived.
+   * */
+  public UniqueIdCodec getUniqueIdCodec() {
+    return uniqueIdCodec;
+  }
+
+  /** This method returns the ledger of raw unique ids of data generated by the publisher.
+   * When it is not null, the data is verified against the unique ids derived from it
+   * instead of {@link #getExpectedUniqueIds()}.
+   * @return Ledger of raw unique ids, or null if it is not enabled.
+   * */
+  public UniqueIdLedger getUniqueIdLedger() {
+    return uniqueIdLedger;
+  }
+
+  public boolean isUniqueIdLedgerEnabled() {
+    return uniqueIdLedger != null;
+  }
+
+  /** This method is used to set whether the raw unique ids of the published data are tracked
+   * in a compact {@link UniqueIdLedger} instead of a list of unique ids, which saves memory and
+   * speeds up the verification of large data sets. The expected unique ids are then derived
+   * from the ledger with the {@link UniqueIdCodec} of the publisher, bypassing
+   * {@link #getUniqueIdFrom}, {@link #getExpectedUniqueIds()} and the key sketch of
+   * overriding subclasses, so it must only be enabled when the publisher produces exactly the
+   * unique id formatted by the codec for every raw unique id.
+   * It must be set before publishing. Default value is false.
+   * @param uniqueIdLedgerEnabled Whether to track the raw unique ids in a ledger.
+   * */
+  public void setUniqueIdLedgerEnabled(boolean uniqueIdLedgerEnabled) {
+    if (uniqueIdMarker > 0) {
+      throw new IllegalStateException(
+          "The unique id ledger must be enabled or disabled before publishing");
+    }
+    if (uniqueIdLedgerEnabled && uniqueIdCodec == null) {
+      throw new IllegalStateException(
+          getClass().getName() + " has no unique id codec to track its unique ids in a ledger");
+    }
+    this.uniqueIdLedger = uniqueIdLedgerEnabled ? new UniqueIdLedger() : null;
+  }
+
+  public KeySketch getKeySketch() {
+    return keySketch;
+  }
+
+  /** This method is used to set the sketch to which the unique ids of the published data are
+   * added, for a fast verification in constant memory before the exact one
+   * (@see io.confluent.connect.test.sdk.commons.ConnectorUtils#verifyData). It must be set
+   * before publishing, and it must not be used if {@link #getExpectedUniqueIds()} is
+   * overridden. Default value is null, in which case the data is only verified exactly.
+   * @param keySketch Sketch of the published unique ids, or null.
+   * */
+  public void setKeySketch(KeySketch keySketch) {
+    this.keySketch = keySketch;
+  }
+
   /** This method returns the list of expected unique ids of data generated by the publisher.
    * It is required to override this method in case the expected unique ids that are going
    * to be generated in the end system are different from the actual unique ids generated
@@ -81,4 +329,12 @@ public abstract class DataPublisher<S> {
   public List<String> getExpectedUniqueIds() {
     return getUniqueIds();
   }
+
+  /** This method releases the resources held by the publisher, like connections to
+   * the source system/ Kafka. Publishers overriding it must call super.close().
+   * */
+  @Override
+  public void close() {
+    shutdownGenerationPool();
+  }
 }
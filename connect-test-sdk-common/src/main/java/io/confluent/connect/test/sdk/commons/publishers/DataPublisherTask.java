@@ -4,38 +4,165 @@
 
 package io.confluent.connect.test.sdk.commons.publishers;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
+/** This class publishes a number of data points/ records in batches, either with a fixed
+ * interval between the batches or at a target publish rate. At a target publish rate, the
+ * batches are sized to about 100 ms worth of data and paced by a {@link RateLimiter},
+ * so the time spent publishing is accounted for.
+ * The achieved rate can be read while the task is running.
+ */
 public class DataPublisherTask<S> implements Callable<List<S>> {
 
+  private static final Logger log = LoggerFactory.getLogger(DataPublisherTask.class);
+
+  private static final long RATE_CONTROLLED_BATCH_PERIOD_MS = 100;
+
   private final DataPublisher<S> dataPublisher;
   private int numberOfRecordsToProduce;
 
   private final long batchIntervalMs;
   private final int maxBatchSize;
+  private final PublishRate publishRate;
+  private volatile long startNanos = -1;
+  private volatile long endNanos = -1;
+  private volatile long publishedRecords = 0;
+  private volatile long publishedBytes = 0;
 
   public DataPublisherTask(
       DataPublisher<S> dataPublisher,
       int numberOfRecordsToProduce,
       long batchIntervalMs,
       int maxBatchSize) {
+    this(dataPublisher, numberOfRecordsToProduce, batchIntervalMs, maxBatchSize, null);
+  }
+
+  /** Constructor for DataPublisherTask.
+   * @param dataPublisher Publisher of the data points/ records.
+   * @param numberOfRecordsToProduce Number of data points/ records to publish.
+   * @param batchIntervalMs Interval between batches, used when there is no publish rate.
+   * @param maxBatchSize Maximum number of data points/ records in a batch.
+   * @param publishRate Target publish rate, or null to publish with a fixed batch interval.
+   * */
+  public DataPublisherTask(
+      DataPublisher<S> dataPublisher,
+      int numberOfRecordsToProduce,
+      long batchIntervalMs,
+      int maxBatchSize,
+      PublishRate publishRate) {
     this.dataPublisher = dataPublisher;
     this.numberOfRecordsToProduce = numberOfRecordsToProduce;
     this.batchIntervalMs = batchIntervalMs;
     this.maxBatchSize = maxBatchSize;
+    this.publishRate = publishRate;
   }
 
   @Override
   public List<S> call() throws Exception {
+    startNanos = System.nanoTime();
+    try {
+      if (publishRate == null) {
+        return publishWithBatchInterval();
+      }
+      return publishAtRate();
+    } finally {
+      endNanos = System.nanoTime();
+    }
+  }
+
+  private List<S> publishWithBatchInterval() throws Exception {
     List<S> dataPoints = new ArrayList<>();
     while (numberOfRecordsToProduce > 0) {
       int currentBatchSize = Math.min(numberOfRecordsToProduce, maxBatchSize);
-      dataPoints.addAll(dataPublisher.publishDataPoints(currentBatchSize));
+      publishBatch(currentBatchSize, dataPoints);
       numberOfRecordsToProduce -= currentBatchSize;
       Thread.sleep(batchIntervalMs);
     }
     return dataPoints;
   }
+
+  private List<S> publishAtRate() throws Exception {
+    boolean inBytes = publishRate.getUnit() == PublishRate.Unit.BYTES_PER_SECOND;
+    RateLimiter rateLimiter = publishRate.newRateLimiter();
+    List<S> dataPoints = new ArrayList<>();
+    long permits = 0;
+    while (numberOfRecordsToProduce > 0) {
+      // pay for the previous batch, which is only measured in bytes once it is published
+      rateLimiter.acquire(permits);
+      long recordsPerPeriod;
+      if (inBytes && publishedRecords == 0) {
+        // the size of the records is only known once some of them are published
+        recordsPerPeriod = 1;
+      } else {
+        double unitsPerRecord = inBytes
+            ? Math.max(1.0, (double) publishedBytes / publishedRecords) : 1.0;
+        recordsPerPeriod = (long) Math.ceil(rateLimiter.getCurrentTargetRate()
+            * RATE_CONTROLLED_BATCH_PERIOD_MS / TimeUnit.SECONDS.toMillis(1) / unitsPerRecord);
+      }
+      int currentBatchSize = (int) Math.max(1, Math.min(
+          Math.min(numberOfRecordsToProduce, maxBatchSize), recordsPerPeriod));
+      long bytesBefore = publishedBytes;
+      publishBatch(currentBatchSize, dataPoints);
+      numberOfRecordsToProduce -= currentBatchSize;
+      if (inBytes) {
+        permits = publishedBytes - bytesBefore;
+        if (permits == 0) {
+          throw new IllegalStateException(dataPublisher.getClass().getName()
+              + " does not report published bytes, cannot publish at " + publishRate);
+        }
+      } else {
+        permits = currentBatchSize;
+      }
+    }
+    // pay for the last batch, so that the task does not end above the target rate
+    rateLimiter.acquire(permits);
+    rateLimiter.acquire(0);
+    log.info("Published {} records at {} {} for a target of {}",
+        publishedRecords, getAchievedRate(), publishRate.getUnit(), publishRate);
+    return dataPoints;
+  }
+
+  private void publishBatch(int batchSize, List<S> dataPoints) throws Exception {
+    long bytesBefore = dataPublisher.getPublishedBytes();
+    dataPoints.addAll(dataPublisher.publishDataPoints(batchSize));
+    publishedBytes += dataPublisher.getPublishedBytes() - bytesBefore;
+    publishedRecords += batchSize;
+  }
+
+  /** This method returns the number of data points/ records published so far by the task.
+   * @return Number of published data points/ records.
+   * */
+  public long getPublishedRecords() {
+    return publishedRecords;
+  }
+
+  /** This method returns the number of bytes published so far by the task,
+   * as reported by the publisher.
+   * @return Number of published bytes.
+   * */
+  public long getPublishedBytes() {
+    return publishedBytes;
+  }
+
+  /** This method returns the rate achieved by the task, in the unit of its publish rate,
+   * or in records per second if it has none. It can be read while the task is running.
+   * @return Achieved rate, or 0 before the task started.
+   * */
+  public double getAchievedRate() {
+    long start = startNanos;
+    if (start < 0) {
+      return 0;
+    }
+    long end = endNanos >= 0 ? endNanos : System.nanoTime();
+    long published = publishRate != null
+        && publishRate.getUnit() == PublishRate.Unit.BYTES_PER_SECOND
+        ? publishedBytes : publishedRecords;
+    return end > start ? published * (double) TimeUnit.SECONDS.toNanos(1) / (end - start) : 0;
+  }
 }
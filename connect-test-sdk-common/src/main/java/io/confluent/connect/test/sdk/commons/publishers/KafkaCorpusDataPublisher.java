@@ -0,0 +1,238 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is used to publish the pre-serialized records of a record corpus to kafka topic.
+ * The records are published in corpus order and sent as they are, so neither generation nor
+ * conversion is paid while publishing. The corpus is owned by the caller and must stay open
+ * while data points are published.
+ *
+ * <p>The Schema Registry ids of records serialized with Schema Registry are only valid in the
+ * registry which assigned them. When the corpus holds such records, the schemas recorded with
+ * the corpus are registered again under the value subject of the topic in the registry set with
+ * {@link #setSchemaRegistryUrl(String)}, and the ids of the records are rewritten accordingly.
+ */
+public class KafkaCorpusDataPublisher extends DataPublisher<CorpusRecord> {
+
+  private static final Logger log = LoggerFactory.getLogger(KafkaCorpusDataPublisher.class);
+
+  private final EmbeddedConnectCluster connect;
+
+  private final String topicName;
+  private final RecordCorpusReader corpus;
+  private long maxTimeToPublishRecordMs = TimeUnit.SECONDS.toMillis(120);
+  private int maxInFlightSends = 1000;
+  private String schemaRegistryUrl;
+  private PartitioningStrategy partitioningStrategy = PartitioningStrategy.singlePartition();
+  // schema ids of the corpus to the ids of the same schemas in the registry of the test
+  private Map<Integer, Integer> schemaIds;
+  private PipelinedProducer producer;
+
+  public KafkaCorpusDataPublisher(
+      EmbeddedConnectCluster connect, String topicName, RecordCorpusReader corpus) {
+    super();
+    this.connect = connect;
+    this.topicName = topicName;
+    this.corpus = corpus;
+  }
+
+  public long getMaxTimeToPublishRecordMs() {
+    return maxTimeToPublishRecordMs;
+  }
+
+  /**
+   * This method is used to set max time to wait for publishing a record to Kafka.
+   * It must be set before the first data points are published.
+   *
+   * @param maxTimeToPublishRecordMs Max time to publish record.
+   */
+  public void setMaxTimeToPublishRecordMs(long maxTimeToPublishRecordMs) {
+    this.maxTimeToPublishRecordMs = maxTimeToPublishRecordMs;
+  }
+
+  public int getMaxInFlightSends() {
+    return maxInFlightSends;
+  }
+
+  /**
+   * This method is used to set the maximum number of records sent to Kafka
+   * without being acknowledged yet. Default value is 1000.
+   * It must be set before the first data points are published.
+   *
+   * @param maxInFlightSends Max number of in-flight sends.
+   */
+  public void setMaxInFlightSends(int maxInFlightSends) {
+    this.maxInFlightSends = maxInFlightSends;
+  }
+
+  public String getSchemaRegistryUrl() {
+    return schemaRegistryUrl;
+  }
+
+  /**
+   * This method is used to set the URL of the Schema Registry in which the schemas of the
+   * corpus are registered again before they are published. It is required when the corpus
+   * holds records serialized with Schema Registry. Default value is null.
+   * It must be set before the first data points are published.
+   *
+   * @param schemaRegistryUrl Schema Registry URL.
+   */
+  public void setSchemaRegistryUrl(String schemaRegistryUrl) {
+    this.schemaRegistryUrl = schemaRegistryUrl;
+  }
+
+  public PartitioningStrategy getPartitioningStrategy() {
+    return partitioningStrategy;
+  }
+
+  /**
+   * This method is used to set how the records are spread across the partitions of the topic,
+   * e.g. by the hash of the key with {@link PartitioningStrategy#keyHash()}, evenly with
+   * {@link PartitioningStrategy#roundRobin()} or skewed towards a hot partition with
+   * {@link PartitioningStrategy#hotPartition(int, double)}. The raw unique id passed to the
+   * strategy is the position of the record in the corpus, and the strategies hashing the key
+   * require every record of the corpus to have a key.
+   * Default value is {@link PartitioningStrategy#singlePartition()}, which publishes all the
+   * records to partition 0.
+   *
+   * @param partitioningStrategy Partitioning strategy.
+   */
+  public void setPartitioningStrategy(PartitioningStrategy partitioningStrategy) {
+    this.partitioningStrategy = partitioningStrategy;
+  }
+
+  /**
+   * This method is used to read the next record of the corpus.
+   *
+   * @param rawUniqueId        Position of the record in the corpus.
+   * @param currentRecordCount Count of the data point.
+   * @return Record of the corpus.
+   * @throws IllegalStateException if all the records of the corpus were already published.
+   */
+  @Override
+  public CorpusRecord generateDataPoint(int rawUniqueId, int currentRecordCount) {
+    if (rawUniqueId >= corpus.size()) {
+      throw new IllegalStateException("Corpus of " + corpus.size()
+          + " records is exhausted, cannot publish record " + rawUniqueId);
+    }
+    return corpus.get(rawUniqueId);
+  }
+
+  /**
+   * This method is used to get unique id from data point.
+   *
+   * @param dataPoint Data point.
+   * @return Unique id.
+   */
+  @Override
+  public List<String> getUniqueIdFrom(CorpusRecord dataPoint) {
+    return dataPoint.getUniqueIds();
+  }
+
+  /**
+   * This method is used to publish data points to kafka topic.
+   * The records are sent without waiting for each of them to be acknowledged,
+   * and the producer is flushed once at the end of the batch.
+   * Every record is sent to the partition chosen by the partitioning strategy.
+   *
+   * @param dataPoints List of data points.
+   * @throws IllegalStateException if the corpus holds records serialized with Schema Registry
+   *                               but no Schema Registry URL is set.
+   */
+  @Override
+  public void publishDataPoints(List<CorpusRecord> dataPoints) {
+    if (schemaIds == null) {
+      schemaIds = registerSchemas();
+    }
+    if (producer == null) {
+      producer = configureProducer();
+    }
+    int partitionCount = producer.partitionCount(topicName);
+    long bytes = 0;
+    for (CorpusRecord dataPoint : dataPoints) {
+      rewriteSchemaId(dataPoint);
+      int partition = partitioningStrategy.partition(
+          dataPoint.getIndex(), dataPoint.getKey(), partitionCount);
+      producer.send(withPublishTimestamp(new ProducerRecord<>(
+          topicName, partition, dataPoint.getKey(), dataPoint.getValue())));
+      bytes += length(dataPoint.getKey()) + length(dataPoint.getValue());
+    }
+    producer.flush();
+    recordPublishedBytes(bytes);
+  }
+
+  /**
+   * This method closes the producer used to publish data points.
+   * The corpus is not closed.
+   */
+  @Override
+  public void close() {
+    if (producer != null) {
+      producer.close();
+      producer = null;
+    }
+    super.close();
+  }
+
+  /** Register the schemas of the corpus and map their recorded ids to their new ids. */
+  private Map<Integer, Integer> registerSchemas() {
+    Map<Integer, String> schemas = corpus.getSchemas();
+    if (schemas.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    if (schemaRegistryUrl == null) {
+      throw new IllegalStateException("The corpus holds records serialized with the Schema"
+          + " Registry ids " + schemas.keySet() + ", which are only valid in the registry which"
+          + " assigned them. Set the Schema Registry URL to register their schemas again.");
+    }
+    Map<Integer, Integer> ids = new HashMap<>();
+    for (Map.Entry<Integer, String> schema : schemas.entrySet()) {
+      ids.put(schema.getKey(),
+          CorpusSchemas.register(schemaRegistryUrl, topicName + "-value", schema.getValue()));
+    }
+    log.info("Registered the schemas of the corpus under {}-value, ids {}", topicName, ids);
+    return ids;
+  }
+
+  private void rewriteSchemaId(CorpusRecord dataPoint) {
+    if (schemaIds.isEmpty()) {
+      return;
+    }
+    int schemaId = CorpusSchemas.schemaId(dataPoint.getValue());
+    if (schemaId < 0) {
+      return;
+    }
+    Integer newSchemaId = schemaIds.get(schemaId);
+    if (newSchemaId == null) {
+      throw new IllegalStateException("Record " + dataPoint.getIndex()
+          + " of the corpus references the Schema Registry id " + schemaId
+          + ", whose schema was not recorded with the corpus");
+    }
+    CorpusSchemas.setSchemaId(dataPoint.getValue(), newSchemaId);
+  }
+
+  private static int length(byte[] bytes) {
+    return bytes == null ? 0 : bytes.length;
+  }
+
+  private PipelinedProducer configureProducer() {
+    Map<String, Object> producerProps = new HashMap<>();
+    producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, connect.kafka().bootstrapServers());
+    return new PipelinedProducer(producerProps, maxInFlightSends, maxTimeToPublishRecordMs);
+  }
+}
@@ -4,18 +4,18 @@
 
 package io.confluent.connect.test.sdk.commons.publishers;
 
-import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.KafkaException;
-import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaAndValue;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.storage.Converter;
 import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +26,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class KafkaSchemaDataPublisher extends DataPublisher<Struct> {
 
+  private static final int CORPUS_CHUNK_SIZE = 10000;
+
   private final EmbeddedConnectCluster connect;
 
   private final String topicName;
@@ -33,6 +35,13 @@ public class KafkaSchemaDataPublisher extends DataPublisher<Struct> {
   private final Schema schema;
   private final StructDataPointGenerator datapointGenerator;
   private long maxTimeToPublishRecordMs = TimeUnit.SECONDS.toMillis(120);
+  private int maxInFlightSends = 1000;
+  private int batchSize = 16384;
+  private long lingerMs = 0;
+  private String compressionType = "none";
+  private PartitioningStrategy partitioningStrategy = PartitioningStrategy.singlePartition();
+  private PipelinedProducer producer;
+  private int nextUnidentifiedRecord = 0;
 
   public KafkaSchemaDataPublisher(
       EmbeddedConnectCluster connect,
@@ -59,6 +68,81 @@ public class KafkaSchemaDataPublisher extends DataPublisher<Struct> {
     this.maxTimeToPublishRecordMs = maxTimeToPublishRecordMs;
   }
 
+  public int getMaxInFlightSends() {
+    return maxInFlightSends;
+  }
+
+  /**
+   * This method is used to set the maximum number of records sent to Kafka
+   * without being acknowledged yet. Default value is 1000.
+   * It must be set before the first data points are published.
+   *
+   * @param maxInFlightSends Max number of in-flight sends.
+   */
+  public void setMaxInFlightSends(int maxInFlightSends) {
+    this.maxInFlightSends = maxInFlightSends;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * This method is used to set the batch.size of the producer in bytes. Default value is 16384.
+   * It must be set before the first data points are published.
+   *
+   * @param batchSize Producer batch size in bytes.
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public long getLingerMs() {
+    return lingerMs;
+  }
+
+  /**
+   * This method is used to set the linger.ms of the producer. Default value is 0.
+   * It must be set before the first data points are published.
+   *
+   * @param lingerMs Producer linger in milliseconds.
+   */
+  public void setLingerMs(long lingerMs) {
+    this.lingerMs = lingerMs;
+  }
+
+  public String getCompressionType() {
+    return compressionType;
+  }
+
+  /**
+   * This method is used to set the compression.type of the producer. Default value is none.
+   * It must be set before the first data points are published.
+   *
+   * @param compressionType Producer compression type, e.g. none, gzip, snappy, lz4 or zstd.
+   */
+  public void setCompressionType(String compressionType) {
+    this.compressionType = compressionType;
+  }
+
+  public PartitioningStrategy getPartitioningStrategy() {
+    return partitioningStrategy;
+  }
+
+  /**
+   * This method is used to set how the records are spread across the partitions of the topic,
+   * e.g. by the hash of the key with {@link PartitioningStrategy#keyHash()}, evenly with
+   * {@link PartitioningStrategy#roundRobin()} or skewed towards a hot partition with
+   * {@link PartitioningStrategy#hotPartition(int, double)}.
+   * Default value is {@link PartitioningStrategy#singlePartition()}, which publishes all the
+   * records to partition 0.
+   *
+   * @param partitioningStrategy Partitioning strategy.
+   */
+  public void setPartitioningStrategy(PartitioningStrategy partitioningStrategy) {
+    this.partitioningStrategy = partitioningStrategy;
+  }
+
   /**
    * This method is used to generate data point.
    *
@@ -71,6 +155,23 @@ public class KafkaSchemaDataPublisher extends DataPublisher<Struct> {
     return datapointGenerator.generateSingleData(rawUniqueId, currentRecordCount, schema);
   }
 
+  /**
+   * This method is used to generate data points for consecutive unique ids in one batch.
+   *
+   * @param firstRawUniqueId Unique id of the first data point.
+   * @param firstRecordCount Count of the first data point.
+   * @param numberOfRecords  Number of data points.
+   * @return Data points.
+   */
+  @Override
+  protected List<Struct> generateDataPoints(
+      int firstRawUniqueId, int firstRecordCount, int numberOfRecords) {
+    List<Struct> dataPoints = new ArrayList<>(numberOfRecords);
+    datapointGenerator.generateBatchData(
+        firstRawUniqueId, firstRecordCount, numberOfRecords, schema, dataPoints);
+    return dataPoints;
+  }
+
   /**
    * This method is used to get unique id from data point.
    *
@@ -84,41 +185,130 @@ public class KafkaSchemaDataPublisher extends DataPublisher<Struct> {
 
   /**
    * This method is used to publish data points to kafka topic.
+   * The records are sent without waiting for each of them to be acknowledged,
+   * and the producer is flushed once at the end of the batch.
+   * As their raw unique ids are not known, every record is keyed by the unique ids of its
+   * data point, and is partitioned as if the data points were numbered in the order in which
+   * they are published through this method.
    *
    * @param dataPoints List of data points.
    */
   @Override
   public void publishDataPoints(List<Struct> dataPoints) {
-    KafkaProducer<byte[], byte[]> producer = configureProducer();
-    produceRecords(producer, converter, dataPoints, topicName);
+    int firstRecord = nextUnidentifiedRecord;
+    nextUnidentifiedRecord += dataPoints.size();
+    publishRecords(dataPoints, firstRecord, false);
+  }
+
+  /**
+   * This method is used to publish data points generated for consecutive raw unique ids
+   * to kafka topic. Every record is keyed by its raw unique id, which is globally unique
+   * and stable across runs, and sent to the partition chosen by the partitioning strategy.
+   *
+   * @param dataPoints       List of data points.
+   * @param firstRawUniqueId Raw unique id of the first data point.
+   */
+  @Override
+  protected void publishDataPoints(List<Struct> dataPoints, int firstRawUniqueId) {
+    publishRecords(dataPoints, firstRawUniqueId, true);
+  }
+
+  /**
+   * This method generates data points and writes them, converted, to a record corpus
+   * which can be published again later without generating or converting them
+   * (@see KafkaCorpusDataPublisher).
+   * The data points are generated for raw unique ids 0 to numberOfRecords - 1, independently of
+   * the data points published so far, and every record is keyed by its raw unique id.
+   *
+   * @param corpusFile      Path of the corpus file.
+   * @param numberOfRecords Number of records to write.
+   * @throws IOException if the corpus could not be written.
+   */
+  public void writeCorpus(Path corpusFile, int numberOfRecords) throws IOException {
+    writeCorpus(corpusFile, numberOfRecords, null);
   }
 
-  private KafkaProducer<byte[], byte[]> configureProducer() {
+  /**
+   * This method generates data points and writes them, converted, to a record corpus,
+   * together with the schemas registered by the converter, so that the corpus can be replayed
+   * against another Schema Registry (@see KafkaCorpusDataPublisher#setSchemaRegistryUrl).
+   *
+   * @param corpusFile        Path of the corpus file.
+   * @param numberOfRecords   Number of records to write.
+   * @param schemaRegistryUrl URL of the Schema Registry used by the converter, or null if the
+   *                          converter does not use Schema Registry.
+   * @throws IOException if the corpus could not be written.
+   */
+  public void writeCorpus(Path corpusFile, int numberOfRecords, String schemaRegistryUrl)
+      throws IOException {
+    try (RecordCorpusWriter writer = new RecordCorpusWriter(corpusFile, schemaRegistryUrl)) {
+      for (int first = 0; first < numberOfRecords; first += CORPUS_CHUNK_SIZE) {
+        int chunkSize = Math.min(CORPUS_CHUNK_SIZE, numberOfRecords - first);
+        List<Struct> dataPoints = generateDataPoints(first, first, chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+          Struct dataPoint = dataPoints.get(i);
+          writer.append(
+              String.valueOf(first + i).getBytes(StandardCharsets.UTF_8),
+              converter.fromConnectData(topicName, schema, dataPoint),
+              getUniqueIdFrom(dataPoint));
+        }
+      }
+    }
+  }
+
+  /**
+   * This method closes the producer used to publish data points.
+   */
+  @Override
+  public void close() {
+    if (producer != null) {
+      producer.close();
+      producer = null;
+    }
+    super.close();
+  }
+
+  private PipelinedProducer configureProducer() {
     Map<String, Object> producerProps = new HashMap<>();
     producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, connect.kafka().bootstrapServers());
-    return new KafkaProducer<>(
-        producerProps,
-        new ByteArraySerializer(),
-        new ByteArraySerializer());
+    producerProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+    producerProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+    producerProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+    return new PipelinedProducer(producerProps, maxInFlightSends, maxTimeToPublishRecordMs);
   }
 
-  private void produceRecords(
-      KafkaProducer<byte[], byte[]> producer,
+  private void publishRecords(
+      List<Struct> dataPoints, int firstRawUniqueId, boolean keyedByRawUniqueId) {
+    if (producer == null) {
+      producer = configureProducer();
+    }
+    long bytes = produceRecords(
+        producer, converter, dataPoints, topicName, firstRawUniqueId, keyedByRawUniqueId);
+    producer.flush();
+    recordPublishedBytes(bytes);
+  }
+
+  private long produceRecords(
+      PipelinedProducer producer,
       Converter converter, List<Struct> recordsList,
-      String topic) {
+      String topic, int firstRawUniqueId, boolean keyedByRawUniqueId) {
+    int partitionCount = producer.partitionCount(topic);
+    long bytes = 0;
     for (int i = 0; i < recordsList.size(); i++) {
-      SchemaAndValue schemaAndValue = new SchemaAndValue(schema, recordsList.get(i));
+      Struct dataPoint = recordsList.get(i);
+      SchemaAndValue schemaAndValue = new SchemaAndValue(schema, dataPoint);
       byte[] convertedStruct = converter.fromConnectData(
           topic, schemaAndValue.schema(), schemaAndValue.value());
-      ProducerRecord<byte[], byte[]> msg = new ProducerRecord<>(
-          topic, 0,
-          String.valueOf(i).getBytes(StandardCharsets.UTF_8),
-          convertedStruct);
-      try {
-        producer.send(msg).get(maxTimeToPublishRecordMs, TimeUnit.MILLISECONDS);
-      } catch (Exception e) {
-        throw new KafkaException("Could not produce message: " + msg, e);
-      }
+      int rawUniqueId = firstRawUniqueId + i;
+      String keyString = keyedByRawUniqueId
+          ? String.valueOf(rawUniqueId)
+          : String.join(",", getUniqueIdFrom(dataPoint));
+      byte[] key = keyString.getBytes(StandardCharsets.UTF_8);
+      int partition = partitioningStrategy.partition(rawUniqueId, key, partitionCount);
+      producer.send(withPublishTimestamp(
+          new ProducerRecord<>(topic, partition, key, convertedStruct)));
+      bytes += key.length + (convertedStruct == null ? 0 : convertedStruct.length);
     }
+    return bytes;
   }
-}
\ No newline at end of file
+}
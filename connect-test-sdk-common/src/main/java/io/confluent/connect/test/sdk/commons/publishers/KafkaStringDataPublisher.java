@@ -4,27 +4,104 @@
 
 package io.confluent.connect.test.sdk.commons.publishers;
 
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is used to publish String data to kafka topic.
  */
 public class KafkaStringDataPublisher extends DataPublisher<String> {
 
+  private static final String VALUE_PREFIX = "Value_";
+
+  private static final UniqueIdCodec UNIQUE_ID_CODEC = new UniqueIdCodec() {
+    @Override
+    public String format(int rawUniqueId) {
+      return VALUE_PREFIX + rawUniqueId;
+    }
+
+    @Override
+    public int parse(String uniqueId) {
+      if (uniqueId == null || !uniqueId.startsWith(VALUE_PREFIX)) {
+        return -1;
+      }
+      try {
+        int rawUniqueId = Integer.parseInt(uniqueId.substring(VALUE_PREFIX.length()));
+        // reject non canonical forms, e.g. with leading zeros or a sign, of a published id
+        return rawUniqueId >= 0 && format(rawUniqueId).equals(uniqueId) ? rawUniqueId : -1;
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+  };
+
   private final EmbeddedConnectCluster connect;
 
   private final String topicName;
+  private long maxTimeToPublishRecordMs = TimeUnit.SECONDS.toMillis(120);
+  private int maxInFlightSends = 1000;
+  private boolean keyedByValue = false;
+  private PipelinedProducer producer;
 
   public KafkaStringDataPublisher(
       EmbeddedConnectCluster connect, String topicName) {
-    super();
+    super(UNIQUE_ID_CODEC);
     this.connect = connect;
     this.topicName = topicName;
   }
 
+  public long getMaxTimeToPublishRecordMs() {
+    return maxTimeToPublishRecordMs;
+  }
+
+  /**
+   * This method is used to set max time to wait for publishing a record to Kafka.
+   * It must be set before the first data points are published.
+   *
+   * @param maxTimeToPublishRecordMs Max time to publish record.
+   */
+  public void setMaxTimeToPublishRecordMs(long maxTimeToPublishRecordMs) {
+    this.maxTimeToPublishRecordMs = maxTimeToPublishRecordMs;
+  }
+
+  public int getMaxInFlightSends() {
+    return maxInFlightSends;
+  }
+
+  /**
+   * This method is used to set the maximum number of records sent to Kafka
+   * without being acknowledged yet. Default value is 1000.
+   * It must be set before the first data points are published.
+   *
+   * @param maxInFlightSends Max number of in-flight sends.
+   */
+  public void setMaxInFlightSends(int maxInFlightSends) {
+    this.maxInFlightSends = maxInFlightSends;
+  }
+
+  public boolean isKeyedByValue() {
+    return keyedByValue;
+  }
+
+  /**
+   * This method is used to set whether every record is keyed by its value, so that
+   * the records are spread across the partitions of the topic by the hash of the key.
+   * Default value is false, in which case the records are sent without a key.
+   *
+   * @param keyedByValue Whether to key the records by their value.
+   */
+  public void setKeyedByValue(boolean keyedByValue) {
+    this.keyedByValue = keyedByValue;
+  }
+
   /**
    * This method is used to generate data point.
    * @param rawUniqueID Unique id of the data point.
@@ -33,7 +110,7 @@ public class KafkaStringDataPublisher extends DataPublisher<String> {
    */
   @Override
   public String generateDataPoint(int rawUniqueID, int currentRecordCount) {
-    return "Value_" + rawUniqueID;
+    return UNIQUE_ID_CODEC.format(rawUniqueID);
   }
 
   /**
@@ -52,12 +129,41 @@ public class KafkaStringDataPublisher extends DataPublisher<String> {
 
   /**
    * This method is used to publish data points to kafka topic.
+   * All the data points are sent through a shared producer without waiting for
+   * each of them to be acknowledged, and the producer is flushed once at the end.
    * @param dataPoints List of data points.
    */
   @Override
   public void publishDataPoints(List<String> dataPoints) {
+    if (producer == null) {
+      producer = configureProducer();
+    }
+    long bytes = 0;
     for (String dataPoint : dataPoints) {
-      connect.kafka().produce(topicName, dataPoint);
+      byte[] value = dataPoint.getBytes(StandardCharsets.UTF_8);
+      producer.send(withPublishTimestamp(
+          new ProducerRecord<>(topicName, keyedByValue ? value : null, value)));
+      bytes += keyedByValue ? 2L * value.length : value.length;
     }
+    producer.flush();
+    recordPublishedBytes(bytes);
+  }
+
+  /**
+   * This method closes the producer used to publish data points.
+   */
+  @Override
+  public void close() {
+    if (producer != null) {
+      producer.close();
+      producer = null;
+    }
+    super.close();
+  }
+
+  private PipelinedProducer configureProducer() {
+    Map<String, Object> producerProps = new HashMap<>();
+    producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, connect.kafka().bootstrapServers());
+    return new PipelinedProducer(producerProps, maxInFlightSends, maxTimeToPublishRecordMs);
   }
-}
\ No newline at end of file
+}
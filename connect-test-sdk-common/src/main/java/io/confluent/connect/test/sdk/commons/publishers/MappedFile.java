@@ -0,0 +1,96 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class memory maps a read only file in segments, so that files larger than 2 GB can be
+ * read at any position without being loaded into the heap.
+ */
+final class MappedFile implements Closeable {
+
+  private static final int SEGMENT_SIZE = 1 << 30;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer[] segments;
+  private final long size;
+
+  MappedFile(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      this.size = channel.size();
+      this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+      for (int i = 0; i < segments.length; i++) {
+        long position = (long) i * SEGMENT_SIZE;
+        segments[i] = channel.map(
+            FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position));
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  long size() {
+    return size;
+  }
+
+  byte readByte(long position) {
+    return segments[(int) (position / SEGMENT_SIZE)].get((int) (position % SEGMENT_SIZE));
+  }
+
+  int readUnsignedShort(long position) {
+    return ((readByte(position) & 0xff) << 8) | (readByte(position + 1) & 0xff);
+  }
+
+  int readInt(long position) {
+    int segmentOffset = (int) (position % SEGMENT_SIZE);
+    if (segmentOffset <= SEGMENT_SIZE - Integer.BYTES) {
+      return segments[(int) (position / SEGMENT_SIZE)].getInt(segmentOffset);
+    }
+    int value = 0;
+    for (int i = 0; i < Integer.BYTES; i++) {
+      value = (value << 8) | (readByte(position + i) & 0xff);
+    }
+    return value;
+  }
+
+  long readLong(long position) {
+    return ((long) readInt(position) << 32) | (readInt(position + Integer.BYTES) & 0xffffffffL);
+  }
+
+  /** Read the given number of bytes, or return null if the length is negative. */
+  byte[] readBytes(long position, int length) {
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    int copied = 0;
+    while (copied < length) {
+      long current = position + copied;
+      int segmentOffset = (int) (current % SEGMENT_SIZE);
+      int chunk = Math.min(length - copied, SEGMENT_SIZE - segmentOffset);
+      // duplicate the segment so that concurrent readers do not share its position
+      MappedByteBuffer segment = segments[(int) (current / SEGMENT_SIZE)];
+      ByteBuffer view = segment.duplicate();
+      view.position(segmentOffset);
+      view.get(bytes, copied, chunk);
+      copied += chunk;
+    }
+    return bytes;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
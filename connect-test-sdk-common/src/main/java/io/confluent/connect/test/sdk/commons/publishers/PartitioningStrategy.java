@@ -0,0 +1,78 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * This interface is used to choose the partition of the Kafka topic to which a record
+ * is published. The in-built strategies only depend on the raw unique id and the key of the
+ * record, so that the same data points always land on the same partitions.
+ */
+public interface PartitioningStrategy {
+
+  /**
+   * This method is used to choose the partition of a record.
+   * @param rawUniqueId Raw unique id of the data point of the record.
+   * @param key Serialized key of the record.
+   * @param partitionCount Number of partitions of the topic.
+   * @return Partition of the record, in [0, partitionCount).
+   */
+  int partition(int rawUniqueId, byte[] key, int partitionCount);
+
+  /**
+   * This method creates a strategy sending all the records to partition 0, so that they are
+   * kept in the order in which they were published.
+   * @return PartitioningStrategy
+   */
+  static PartitioningStrategy singlePartition() {
+    return (rawUniqueId, key, partitionCount) -> 0;
+  }
+
+  /**
+   * This method creates a strategy spreading the records evenly across the partitions,
+   * in the order of their raw unique ids.
+   * @return PartitioningStrategy
+   */
+  static PartitioningStrategy roundRobin() {
+    return (rawUniqueId, key, partitionCount) -> Math.floorMod(rawUniqueId, partitionCount);
+  }
+
+  /**
+   * This method creates a strategy choosing the partition by the hash of the key,
+   * the same way as the default partitioner of the Kafka producer.
+   * @return PartitioningStrategy
+   */
+  static PartitioningStrategy keyHash() {
+    return (rawUniqueId, key, partitionCount) ->
+        Utils.toPositive(Utils.murmur2(key)) % partitionCount;
+  }
+
+  /**
+   * This method creates a skewed strategy sending a share of the records to a hot partition
+   * and spreading the other records evenly across the other partitions. The records sent to
+   * the hot partition are chosen by the hash of their key.
+   * @param hotPartition Hot partition. It wraps around when the topic has fewer partitions.
+   * @param hotShare Share of the records sent to the hot partition, in [0, 1].
+   * @return PartitioningStrategy
+   */
+  static PartitioningStrategy hotPartition(int hotPartition, double hotShare) {
+    if (hotPartition < 0) {
+      throw new IllegalArgumentException("hotPartition must not be negative: " + hotPartition);
+    }
+    if (!(hotShare >= 0 && hotShare <= 1)) {
+      throw new IllegalArgumentException("hotShare must be in [0, 1]: " + hotShare);
+    }
+    return (rawUniqueId, key, partitionCount) -> {
+      int hot = hotPartition % partitionCount;
+      double position = Utils.toPositive(Utils.murmur2(key)) / (Integer.MAX_VALUE + 1.0);
+      if (partitionCount == 1 || position < hotShare) {
+        return hot;
+      }
+      int partition = Math.floorMod(rawUniqueId, partitionCount - 1);
+      return partition < hot ? partition : partition + 1;
+    };
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class wraps a Kafka producer which is reused across batches and keeps up to a
+ * configured number of sends in flight instead of waiting for every record to be acknowledged.
+ * Send failures are collected asynchronously and reported on the next send or flush.
+ */
+public class PipelinedProducer implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(PipelinedProducer.class);
+
+  private final KafkaProducer<byte[], byte[]> producer;
+  private final Semaphore inFlightSends;
+  private final long maxTimeToSendRecordMs;
+  private final AtomicReference<Exception> firstError = new AtomicReference<>();
+  private final AtomicLong failedSends = new AtomicLong();
+  private final AtomicLong unreportedFailedSends = new AtomicLong();
+
+  /**
+   * Constructor for PipelinedProducer.
+   * @param producerProps properties of the Kafka producer.
+   * @param maxInFlightSends maximum number of records sent but not yet acknowledged.
+   * @param maxTimeToSendRecordMs maximum time to wait for a record to be accepted
+   *                              when the maximum number of sends are in flight.
+   */
+  public PipelinedProducer(
+      Map<String, Object> producerProps,
+      int maxInFlightSends, long maxTimeToSendRecordMs) {
+    if (maxInFlightSends < 1) {
+      throw new IllegalArgumentException(
+          "maxInFlightSends must be positive: " + maxInFlightSends);
+    }
+    this.producer = new KafkaProducer<>(
+        producerProps,
+        new ByteArraySerializer(),
+        new ByteArraySerializer());
+    this.inFlightSends = new Semaphore(maxInFlightSends);
+    this.maxTimeToSendRecordMs = maxTimeToSendRecordMs;
+  }
+
+  /**
+   * This method sends a record without waiting for it to be acknowledged.
+   * It blocks only while the maximum number of sends are in flight.
+   *
+   * @param record Record to be sent.
+   * @throws KafkaException if an earlier send failed or the record could not be sent.
+   */
+  public void send(ProducerRecord<byte[], byte[]> record) {
+    throwIfFailed();
+    try {
+      if (!inFlightSends.tryAcquire(maxTimeToSendRecordMs, TimeUnit.MILLISECONDS)) {
+        throw new KafkaException("Timed out after " + maxTimeToSendRecordMs
+            + " ms waiting for in-flight sends to " + record.topic() + " to complete");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new KafkaException("Interrupted while sending to " + record.topic(), e);
+    }
+    try {
+      producer.send(record, (metadata, exception) -> {
+        inFlightSends.release();
+        if (exception != null) {
+          failedSends.incrementAndGet();
+          unreportedFailedSends.incrementAndGet();
+          if (firstError.compareAndSet(null, exception)) {
+            log.error("Could not produce message to {}", record.topic(), exception);
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      inFlightSends.release();
+      throw new KafkaException("Could not produce message to " + record.topic(), e);
+    }
+  }
+
+  /**
+   * This method waits for all the records sent so far to be acknowledged.
+   *
+   * @throws KafkaException if any of the records could not be produced.
+   */
+  public void flush() {
+    producer.flush();
+    throwIfFailed();
+  }
+
+  /**
+   * This method returns the number of partitions of a topic, from the metadata of the producer.
+   *
+   * @param topic Topic name.
+   * @return Number of partitions.
+   * @throws KafkaException if the metadata of the topic could not be fetched.
+   */
+  public int partitionCount(String topic) {
+    return producer.partitionsFor(topic).size();
+  }
+
+  /**
+   * This method returns the number of records which could not be produced since the producer
+   * was created, including the failures already reported by {@link #send} or {@link #flush}.
+   *
+   * @return Number of failed sends.
+   */
+  public long getFailedSends() {
+    return failedSends.get();
+  }
+
+  @Override
+  public void close() {
+    producer.close(Duration.ofMillis(maxTimeToSendRecordMs));
+  }
+
+  private void throwIfFailed() {
+    Exception error = firstError.getAndSet(null);
+    if (error != null) {
+      // only the failures since the last report, which include at least the reported error
+      long failures = Math.max(1, unreportedFailedSends.getAndSet(0));
+      throw new KafkaException("Could not produce " + failures + " message(s)", error);
+    }
+  }
+}
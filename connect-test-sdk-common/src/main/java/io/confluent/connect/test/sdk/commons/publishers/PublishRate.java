@@ -0,0 +1,89 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+/**
+ * This class describes the target rate at which data points are published,
+ * in records or bytes per second, with an optional linear ramp-up from zero.
+ */
+public class PublishRate {
+
+  /** Unit of a publish rate. */
+  public enum Unit {
+    RECORDS_PER_SECOND,
+    BYTES_PER_SECOND
+  }
+
+  private final double targetRate;
+  private final Unit unit;
+  private final long rampUpMs;
+
+  private PublishRate(double targetRate, Unit unit, long rampUpMs) {
+    if (!(targetRate > 0) || Double.isInfinite(targetRate)) {
+      throw new IllegalArgumentException("targetRate must be positive: " + targetRate);
+    }
+    if (rampUpMs < 0) {
+      throw new IllegalArgumentException("rampUpMs must not be negative: " + rampUpMs);
+    }
+    this.targetRate = targetRate;
+    this.unit = unit;
+    this.rampUpMs = rampUpMs;
+  }
+
+  /**
+   * This method creates a constant publish rate in records per second.
+   * @param recordsPerSecond Target number of records per second.
+   * @return PublishRate
+   */
+  public static PublishRate recordsPerSecond(double recordsPerSecond) {
+    return new PublishRate(recordsPerSecond, Unit.RECORDS_PER_SECOND, 0);
+  }
+
+  /**
+   * This method creates a constant publish rate in bytes per second.
+   * It requires a publisher which reports the bytes it publishes,
+   * like the in-built Kafka data publishers.
+   * @param bytesPerSecond Target number of bytes per second.
+   * @return PublishRate
+   */
+  public static PublishRate bytesPerSecond(double bytesPerSecond) {
+    return new PublishRate(bytesPerSecond, Unit.BYTES_PER_SECOND, 0);
+  }
+
+  /**
+   * This method returns the same publish rate, ramping up linearly from zero
+   * to the target rate over the given period.
+   * @param rampUpMs Ramp-up period in milliseconds.
+   * @return PublishRate
+   */
+  public PublishRate withRampUp(long rampUpMs) {
+    return new PublishRate(targetRate, unit, rampUpMs);
+  }
+
+  public double getTargetRate() {
+    return targetRate;
+  }
+
+  public Unit getUnit() {
+    return unit;
+  }
+
+  public long getRampUpMs() {
+    return rampUpMs;
+  }
+
+  /**
+   * This method creates a rate limiter enforcing this publish rate.
+   * @return RateLimiter
+   */
+  public RateLimiter newRateLimiter() {
+    return new RateLimiter(targetRate, rampUpMs);
+  }
+
+  @Override
+  public String toString() {
+    return targetRate + " " + unit + (rampUpMs > 0 ? " after " + rampUpMs + " ms ramp-up" : "");
+  }
+}
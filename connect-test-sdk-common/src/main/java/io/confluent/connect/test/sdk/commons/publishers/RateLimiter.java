@@ -0,0 +1,132 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class paces work to a target rate of permits per second using a token bucket.
+ * Tokens accumulate with time at the target rate, or at a rate growing linearly from zero
+ * during an optional ramp-up period. Acquiring permits may take more tokens than available;
+ * the debt is paid by waiting before the next acquisition, so the time spent doing the work
+ * between acquisitions is accounted for. At most one second worth of unused tokens is kept,
+ * so that a slow phase is not followed by an unbounded burst.
+ */
+public class RateLimiter {
+
+  private static final double MAX_BURST_SECONDS = 1.0;
+
+  private final double targetRate;
+  private final long rampUpNanos;
+  private volatile long startNanos = -1;
+  private double consumedPermits = 0;
+  private volatile long acquiredPermits = 0;
+  private volatile long lastAcquireNanos = -1;
+
+  /**
+   * Constructor for RateLimiter.
+   * @param targetRate Target number of permits per second.
+   * @param rampUpMs Period in milliseconds over which the rate ramps up linearly from zero.
+   */
+  public RateLimiter(double targetRate, long rampUpMs) {
+    if (!(targetRate > 0)) {
+      throw new IllegalArgumentException("targetRate must be positive: " + targetRate);
+    }
+    this.targetRate = targetRate;
+    this.rampUpNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, rampUpMs));
+  }
+
+  /**
+   * This method waits until the permits acquired so far are paid for,
+   * then acquires the given number of permits.
+   * The clock of the rate limiter starts on the first acquisition.
+   * @param permits Number of permits to acquire.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public synchronized void acquire(long permits) throws InterruptedException {
+    long now = System.nanoTime();
+    if (startNanos < 0) {
+      startNanos = now;
+    }
+    long waitNanos = nanosUntil(consumedPermits) - (now - startNanos);
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+      now = System.nanoTime();
+    }
+    double available = permitsUntil(now - startNanos);
+    double maxBurst = currentRate(now - startNanos) * MAX_BURST_SECONDS;
+    if (available - consumedPermits > maxBurst) {
+      consumedPermits = available - maxBurst;
+    }
+    consumedPermits += permits;
+    acquiredPermits += permits;
+    lastAcquireNanos = now;
+  }
+
+  /**
+   * This method returns the rate at which permits are accumulated at this time.
+   * @return Current target rate in permits per second.
+   */
+  public double getCurrentTargetRate() {
+    long start = startNanos;
+    return start < 0 ? 0 : currentRate(System.nanoTime() - start);
+  }
+
+  public double getTargetRate() {
+    return targetRate;
+  }
+
+  /**
+   * This method returns the number of permits acquired so far.
+   * @return Number of acquired permits.
+   */
+  public long getAcquiredPermits() {
+    return acquiredPermits;
+  }
+
+  /**
+   * This method returns the rate actually achieved between the first and the last acquisition.
+   * It can be read while permits are acquired by another thread.
+   * @return Achieved rate in permits per second, or 0 before the second acquisition.
+   */
+  public double getAchievedRate() {
+    long start = startNanos;
+    long last = lastAcquireNanos;
+    if (start < 0 || last <= start) {
+      return 0;
+    }
+    return acquiredPermits * (double) TimeUnit.SECONDS.toNanos(1) / (last - start);
+  }
+
+  private double currentRate(long elapsedNanos) {
+    if (elapsedNanos >= rampUpNanos) {
+      return targetRate;
+    }
+    return targetRate * elapsedNanos / rampUpNanos;
+  }
+
+  /** Number of permits accumulated after the given time since the start. */
+  private double permitsUntil(long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    double rampUpSeconds = rampUpNanos / 1e9;
+    if (seconds >= rampUpSeconds) {
+      return targetRate * (seconds - rampUpSeconds / 2);
+    }
+    return targetRate * seconds * seconds / (2 * rampUpSeconds);
+  }
+
+  /** Time since the start after which the given number of permits are accumulated. */
+  private long nanosUntil(double permits) {
+    double rampUpSeconds = rampUpNanos / 1e9;
+    double rampUpPermits = targetRate * rampUpSeconds / 2;
+    double seconds;
+    if (permits >= rampUpPermits) {
+      seconds = rampUpSeconds + (permits - rampUpPermits) / targetRate;
+    } else {
+      seconds = Math.sqrt(2 * rampUpSeconds * permits / targetRate);
+    }
+    return (long) (seconds * 1e9);
+  }
+}
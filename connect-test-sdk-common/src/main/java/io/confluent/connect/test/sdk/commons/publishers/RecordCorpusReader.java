@@ -0,0 +1,203 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class reads a corpus of pre-serialized records written by a RecordCorpusWriter.
+ * The corpus file and the sidecar file of its unique ids are memory mapped in segments and
+ * indexed once when they are opened, so that any record and its unique ids can be read by
+ * its position without converting it again nor loading the corpus into the heap.
+ */
+public class RecordCorpusReader implements AutoCloseable {
+
+  private final Path corpusFile;
+  private final MappedFile records;
+  private final MappedFile uniqueIds;
+  private final long[] offsets;
+  private final long[] uniqueIdOffsets;
+  private final Map<Integer, String> schemas;
+
+  /**
+   * Constructor for RecordCorpusReader.
+   * @param corpusFile Path of the corpus file.
+   * @throws IOException if the corpus file or its sidecar files could not be read,
+   *                     or the corpus file is not a valid corpus.
+   */
+  public RecordCorpusReader(Path corpusFile) throws IOException {
+    this.corpusFile = corpusFile;
+    this.records = new MappedFile(corpusFile);
+    MappedFile mappedUniqueIds = null;
+    try {
+      long size = records.size();
+      if (size < RecordCorpusWriter.HEADER_SIZE
+          || records.readInt(0) != RecordCorpusWriter.MAGIC) {
+        throw new IOException(corpusFile + " is not a record corpus");
+      }
+      if (records.readInt(4) != RecordCorpusWriter.VERSION) {
+        throw new IOException("Unsupported version " + records.readInt(4) + " of " + corpusFile);
+      }
+      long recordCount = records.readLong(8);
+      if (recordCount > Integer.MAX_VALUE) {
+        throw new IOException(corpusFile + " has too many records: " + recordCount);
+      }
+      this.offsets = new long[(int) recordCount];
+      long position = RecordCorpusWriter.HEADER_SIZE;
+      for (int i = 0; i < offsets.length; i++) {
+        offsets[i] = position;
+        position += Integer.BYTES + Math.max(0, records.readInt(position));
+        position += Integer.BYTES + Math.max(0, records.readInt(position));
+      }
+      if (position != size) {
+        throw new IOException(corpusFile + " is truncated or corrupted");
+      }
+      Path uniqueIdsFile = RecordCorpusWriter.uniqueIdsFile(corpusFile);
+      mappedUniqueIds = new MappedFile(uniqueIdsFile);
+      this.uniqueIdOffsets = indexUniqueIds(mappedUniqueIds, uniqueIdsFile, offsets.length);
+      this.uniqueIds = mappedUniqueIds;
+      this.schemas = readSchemas(RecordCorpusWriter.schemasFile(corpusFile));
+    } catch (IOException | RuntimeException e) {
+      records.close();
+      if (mappedUniqueIds != null) {
+        mappedUniqueIds.close();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * This method returns the number of records in the corpus.
+   * @return Number of records.
+   */
+  public int size() {
+    return offsets.length;
+  }
+
+  /**
+   * This method reads the record at the given position of the corpus.
+   * @param index Position of the record.
+   * @return Record at the given position.
+   */
+  public CorpusRecord get(int index) {
+    if (index < 0 || index >= offsets.length) {
+      throw new IndexOutOfBoundsException(
+          "Record " + index + " is out of bounds of " + corpusFile + " of size " + size());
+    }
+    long position = offsets[index];
+    int keyLength = records.readInt(position);
+    position += Integer.BYTES;
+    byte[] key = records.readBytes(position, keyLength);
+    position += Math.max(0, keyLength);
+    byte[] value = records.readBytes(position + Integer.BYTES, records.readInt(position));
+    return new CorpusRecord(index, key, value, readUniqueIds(index));
+  }
+
+  /**
+   * This method returns the unique ids of all the records in the corpus, in corpus order.
+   * @return List of unique ids.
+   */
+  public List<String> getUniqueIds() {
+    List<String> allUniqueIds = new ArrayList<>(offsets.length);
+    for (int i = 0; i < offsets.length; i++) {
+      allUniqueIds.addAll(readUniqueIds(i));
+    }
+    return allUniqueIds;
+  }
+
+  /**
+   * This method returns the schemas of the records serialized with Schema Registry,
+   * as fetched from the registry which assigned their ids when the corpus was written.
+   * @return Unmodifiable map of schema id to schema, empty if the corpus was written without
+   *         a Schema Registry URL.
+   */
+  public Map<Integer, String> getSchemas() {
+    return schemas;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      records.close();
+    } finally {
+      uniqueIds.close();
+    }
+  }
+
+  /** Return the position of the unique ids of every record in the sidecar file. */
+  private static long[] indexUniqueIds(MappedFile uniqueIds, Path uniqueIdsFile, int recordCount)
+      throws IOException {
+    long[] uniqueIdOffsets = new long[recordCount];
+    long position = 0;
+    for (int i = 0; i < recordCount; i++) {
+      if (position + Integer.BYTES > uniqueIds.size()) {
+        throw new IOException(uniqueIdsFile + " is truncated");
+      }
+      uniqueIdOffsets[i] = position;
+      int count = uniqueIds.readInt(position);
+      position += Integer.BYTES;
+      for (int j = 0; j < count; j++) {
+        if (position + Short.BYTES > uniqueIds.size()) {
+          throw new IOException(uniqueIdsFile + " is truncated");
+        }
+        position += Short.BYTES + uniqueIds.readUnsignedShort(position);
+      }
+    }
+    if (position != uniqueIds.size()) {
+      throw new IOException(uniqueIdsFile + " is truncated or corrupted");
+    }
+    return uniqueIdOffsets;
+  }
+
+  private List<String> readUniqueIds(int index) {
+    long position = uniqueIdOffsets[index];
+    int count = uniqueIds.readInt(position);
+    position += Integer.BYTES;
+    String[] recordUniqueIds = new String[count];
+    for (int j = 0; j < count; j++) {
+      // the ids were written with writeUTF, i.e. a length followed by modified UTF-8
+      int length = Short.BYTES + uniqueIds.readUnsignedShort(position);
+      try (DataInputStream in = new DataInputStream(
+          new ByteArrayInputStream(uniqueIds.readBytes(position, length)))) {
+        recordUniqueIds[j] = in.readUTF();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not read the unique ids of record " + index, e);
+      }
+      position += length;
+    }
+    return count == 1
+        ? Collections.singletonList(recordUniqueIds[0])
+        : Collections.unmodifiableList(Arrays.asList(recordUniqueIds));
+  }
+
+  private static Map<Integer, String> readSchemas(Path schemasFile) throws IOException {
+    if (!Files.exists(schemasFile)) {
+      return Collections.emptyMap();
+    }
+    Map<Integer, String> schemas = new TreeMap<>();
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(schemasFile))) {
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        int schemaId = in.readInt();
+        byte[] schema = new byte[in.readInt()];
+        in.readFully(schema);
+        schemas.put(schemaId, new String(schema, StandardCharsets.UTF_8));
+      }
+    }
+    return Collections.unmodifiableMap(schemas);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class writes a corpus of pre-serialized records to a local file, so that they can be
+ * published again later without converting them (@see RecordCorpusReader).
+ * The unique ids of every record are written to a sidecar file next to the corpus,
+ * so that the expected unique ids can be loaded without reading the records.
+ * When the records are serialized with Schema Registry, their schemas are fetched from
+ * Schema Registry and written to another sidecar file, so that they can be registered again
+ * when the corpus is replayed against another registry (@see KafkaCorpusDataPublisher).
+ *
+ * <p>The corpus file starts with a header made of a magic number, a format version and the
+ * number of records, followed by the length and bytes of the key and value of every record.
+ * A length of -1 stands for a null key or value.
+ */
+public class RecordCorpusWriter implements AutoCloseable {
+
+  static final int MAGIC = 0x434f5250;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 16;
+  static final String UNIQUE_IDS_SUFFIX = ".ids";
+  static final String SCHEMAS_SUFFIX = ".schemas";
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final Path corpusFile;
+  private final DataOutputStream records;
+  private final DataOutputStream uniqueIds;
+  private final String schemaRegistryUrl;
+  private final Map<Integer, String> schemas = new TreeMap<>();
+  private long recordCount = 0;
+
+  /**
+   * Constructor for RecordCorpusWriter of records which are not serialized with
+   * Schema Registry. Any existing corpus at the given path is replaced.
+   * @param corpusFile Path of the corpus file.
+   * @throws IOException if the corpus file or its sidecar file could not be created.
+   */
+  public RecordCorpusWriter(Path corpusFile) throws IOException {
+    this(corpusFile, null);
+  }
+
+  /**
+   * Constructor for RecordCorpusWriter. Any existing corpus at the given path is replaced.
+   * @param corpusFile Path of the corpus file.
+   * @param schemaRegistryUrl URL of the Schema Registry which assigned the schema ids of the
+   *                          records, or null if the records are not serialized with it.
+   * @throws IOException if the corpus file or its sidecar file could not be created.
+   */
+  public RecordCorpusWriter(Path corpusFile, String schemaRegistryUrl) throws IOException {
+    this.corpusFile = corpusFile;
+    this.schemaRegistryUrl = schemaRegistryUrl;
+    Files.deleteIfExists(schemasFile(corpusFile));
+    this.records = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(corpusFile), BUFFER_SIZE));
+    try {
+      this.uniqueIds = new DataOutputStream(new BufferedOutputStream(
+          Files.newOutputStream(uniqueIdsFile(corpusFile)), BUFFER_SIZE));
+    } catch (IOException | RuntimeException e) {
+      records.close();
+      throw e;
+    }
+    records.writeInt(MAGIC);
+    records.writeInt(VERSION);
+    // the record count is written when the corpus is closed
+    records.writeLong(0L);
+  }
+
+  /**
+   * This method appends a record to the corpus.
+   * @param key Serialized key of the record, or null.
+   * @param value Serialized value of the record, or null.
+   * @param recordUniqueIds Unique ids expected in the end system for this record.
+   * @throws IOException if the record could not be written, or its schema could not be
+   *                     fetched from Schema Registry.
+   */
+  public void append(byte[] key, byte[] value, List<String> recordUniqueIds) throws IOException {
+    int schemaId = CorpusSchemas.schemaId(value);
+    if (schemaRegistryUrl != null && schemaId >= 0 && !schemas.containsKey(schemaId)) {
+      schemas.put(schemaId, CorpusSchemas.fetch(schemaRegistryUrl, schemaId));
+    }
+    writeBytes(key);
+    writeBytes(value);
+    uniqueIds.writeInt(recordUniqueIds.size());
+    for (String uniqueId : recordUniqueIds) {
+      uniqueIds.writeUTF(uniqueId);
+    }
+    recordCount++;
+  }
+
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    records.close();
+    uniqueIds.close();
+    try (FileChannel channel = FileChannel.open(corpusFile, StandardOpenOption.WRITE)) {
+      ByteBuffer count = ByteBuffer.allocate(Long.BYTES);
+      count.putLong(0, recordCount);
+      channel.write(count, HEADER_SIZE - Long.BYTES);
+    }
+    if (!schemas.isEmpty()) {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          Files.newOutputStream(schemasFile(corpusFile)), BUFFER_SIZE))) {
+        out.writeInt(schemas.size());
+        for (Map.Entry<Integer, String> schema : schemas.entrySet()) {
+          byte[] bytes = schema.getValue().getBytes(StandardCharsets.UTF_8);
+          out.writeInt(schema.getKey());
+          out.writeInt(bytes.length);
+          out.write(bytes);
+        }
+      }
+    }
+  }
+
+  static Path uniqueIdsFile(Path corpusFile) {
+    return corpusFile.resolveSibling(corpusFile.getFileName() + UNIQUE_IDS_SUFFIX);
+  }
+
+  static Path schemasFile(Path corpusFile) {
+    return corpusFile.resolveSibling(corpusFile.getFileName() + SCHEMAS_SUFFIX);
+  }
+
+  private void writeBytes(byte[] bytes) throws IOException {
+    if (bytes == null) {
+      records.writeInt(-1);
+    } else {
+      records.writeInt(bytes.length);
+      records.write(bytes);
+    }
+  }
+}
@@ -23,6 +23,24 @@ public interface StructDataPointGenerator {
    */
   Struct generateSingleData(int uniqueId, int count, Schema schema);
 
+  /**
+   * This method is used to generate data points for consecutive unique ids into a buffer.
+   * By default, it calls generateSingleData for every unique id. Generators which can
+   * prepare the work common to all the data points once per batch should override it.
+   * @param firstUniqueId Unique id of the first data point.
+   * @param firstCount Count of the first data point.
+   * @param numberOfRecords Number of data points to be generated.
+   * @param schema Schema of the data points.
+   * @param buffer List to which the data points are appended, in the order of their unique ids.
+   */
+  default void generateBatchData(
+      int firstUniqueId, int firstCount, int numberOfRecords,
+      Schema schema, List<Struct> buffer) {
+    for (int i = 0; i < numberOfRecords; i++) {
+      buffer.add(generateSingleData(firstUniqueId + i, firstCount + i, schema));
+    }
+  }
+
   /**
    * This method is used to get unique id from data point.
    * @param dataPoint Data point.
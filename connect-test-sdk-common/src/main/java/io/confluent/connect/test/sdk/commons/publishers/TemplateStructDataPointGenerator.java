@@ -0,0 +1,198 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class generates Struct data points for any struct schema.
+ * The value of every field is computed once per schema from its default value, or from
+ * its type when it has no default value, and only the unique id field and the optional
+ * count field vary from one data point to the next.
+ * Nested structs, arrays, maps and bytes are shared between the generated data points
+ * and must not be modified.
+ */
+public class TemplateStructDataPointGenerator implements StructDataPointGenerator {
+
+  private final String uniqueIdField;
+  private final String countField;
+  private final Map<Schema, StructTemplate> templates = new ConcurrentHashMap<>();
+  private volatile StructTemplate lastTemplate;
+
+  /**
+   * Constructor for TemplateStructDataPointGenerator.
+   * @param uniqueIdField Name of the STRING, INT32 or INT64 field holding the unique id.
+   */
+  public TemplateStructDataPointGenerator(String uniqueIdField) {
+    this(uniqueIdField, null);
+  }
+
+  /**
+   * Constructor for TemplateStructDataPointGenerator.
+   * @param uniqueIdField Name of the STRING, INT32 or INT64 field holding the unique id.
+   * @param countField Name of the STRING, INT32 or INT64 field holding the count,
+   *                   or null if the count is not part of the data point.
+   */
+  public TemplateStructDataPointGenerator(String uniqueIdField, String countField) {
+    this.uniqueIdField = uniqueIdField;
+    this.countField = countField;
+  }
+
+  @Override
+  public Struct generateSingleData(int uniqueId, int count, Schema schema) {
+    return templateFor(schema).create(uniqueId, count);
+  }
+
+  @Override
+  public void generateBatchData(
+      int firstUniqueId, int firstCount, int numberOfRecords,
+      Schema schema, List<Struct> buffer) {
+    StructTemplate template = templateFor(schema);
+    for (int i = 0; i < numberOfRecords; i++) {
+      buffer.add(template.create(firstUniqueId + i, firstCount + i));
+    }
+  }
+
+  @Override
+  public List<String> getUniqueIdFrom(Struct dataPoint) {
+    return Collections.singletonList(String.valueOf(dataPoint.get(uniqueIdField)));
+  }
+
+  private StructTemplate templateFor(Schema schema) {
+    StructTemplate template = lastTemplate;
+    if (template == null || template.schema != schema) {
+      template = templates.computeIfAbsent(schema, StructTemplate::new);
+      lastTemplate = template;
+    }
+    return template;
+  }
+
+  private static Object templateValue(Schema schema, String fieldName) {
+    if (schema.defaultValue() != null) {
+      return schema.defaultValue();
+    }
+    if (schema.name() != null) {
+      switch (schema.name()) {
+        case Decimal.LOGICAL_NAME:
+          return BigDecimal.ZERO.setScale(
+              Integer.parseInt(schema.parameters().get(Decimal.SCALE_FIELD)));
+        case Date.LOGICAL_NAME:
+        case Time.LOGICAL_NAME:
+        case Timestamp.LOGICAL_NAME:
+          return new java.util.Date(0);
+        default:
+          break;
+      }
+    }
+    switch (schema.type()) {
+      case INT8:
+        return (byte) 0;
+      case INT16:
+        return (short) 0;
+      case INT32:
+        return 0;
+      case INT64:
+        return 0L;
+      case FLOAT32:
+        return 0f;
+      case FLOAT64:
+        return 0d;
+      case BOOLEAN:
+        return false;
+      case STRING:
+        return fieldName;
+      case BYTES:
+        return new byte[0];
+      case ARRAY:
+        return Collections.emptyList();
+      case MAP:
+        return Collections.emptyMap();
+      case STRUCT:
+        Struct struct = new Struct(schema);
+        for (Field field : schema.fields()) {
+          struct.put(field, templateValue(field.schema(), field.name()));
+        }
+        return struct;
+      default:
+        throw new IllegalArgumentException("Unsupported type " + schema.type()
+            + " of field " + fieldName);
+    }
+  }
+
+  private static Object idDependentValue(Field field, int value) {
+    switch (field.schema().type()) {
+      case STRING:
+        return String.valueOf(value);
+      case INT32:
+        return value;
+      case INT64:
+        return (long) value;
+      default:
+        throw new IllegalArgumentException("Field " + field.name() + " must be of type"
+            + " STRING, INT32 or INT64 but is " + field.schema().type());
+    }
+  }
+
+  /** Precomputed fields and values of a struct schema. */
+  private class StructTemplate {
+    private final Schema schema;
+    private final Field[] fields;
+    private final Object[] values;
+    private final Field uniqueId;
+    private final Field count;
+
+    StructTemplate(Schema schema) {
+      if (schema.type() != Schema.Type.STRUCT) {
+        throw new IllegalArgumentException("Schema must be a struct but is " + schema.type());
+      }
+      this.schema = schema;
+      this.uniqueId = schema.field(uniqueIdField);
+      if (uniqueId == null) {
+        throw new IllegalArgumentException("Schema has no field " + uniqueIdField);
+      }
+      this.count = countField != null ? schema.field(countField) : null;
+      if (countField != null && count == null) {
+        throw new IllegalArgumentException("Schema has no field " + countField);
+      }
+      idDependentValue(uniqueId, 0);
+      if (count != null) {
+        idDependentValue(count, 0);
+      }
+      this.fields = schema.fields().toArray(new Field[0]);
+      this.values = new Object[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        if (!fields[i].equals(uniqueId) && !fields[i].equals(count)) {
+          values[i] = templateValue(fields[i].schema(), fields[i].name());
+        }
+      }
+    }
+
+    Struct create(int uniqueIdValue, int countValue) {
+      Struct struct = new Struct(schema);
+      for (int i = 0; i < fields.length; i++) {
+        if (values[i] != null) {
+          struct.put(fields[i], values[i]);
+        }
+      }
+      struct.put(uniqueId, idDependentValue(uniqueId, uniqueIdValue));
+      if (count != null) {
+        struct.put(count, idDependentValue(count, countValue));
+      }
+      return struct;
+    }
+  }
+}
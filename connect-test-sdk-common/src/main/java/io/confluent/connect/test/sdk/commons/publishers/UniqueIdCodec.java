@@ -0,0 +1,31 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+/**
+ * This interface is used by publishers whose unique ids can be derived from the raw unique id
+ * used to generate a data point/ record. It converts between the two representations, so that
+ * the raw unique ids can be tracked compactly and only turned into strings when required.
+ */
+public interface UniqueIdCodec {
+
+  /**
+   * This method should return the unique id of the data point/ record
+   * generated using the given raw unique id.
+   * @param rawUniqueId Raw unique id used to generate the data point/ record.
+   * @return Unique id of the data point/ record.
+   */
+  String format(int rawUniqueId);
+
+  /**
+   * This method should return the raw unique id from which the given unique id was derived.
+   * It must be the exact inverse of {@link #format(int)}: a unique id which is not returned by
+   * format for the raw unique id it parses to, e.g. a number with leading zeros, must be
+   * rejected, otherwise a corrupted or foreign unique id is counted as a published one.
+   * @param uniqueId Unique id of a data point/ record.
+   * @return Raw unique id, or -1 if the unique id was not derived from a raw unique id.
+   */
+  int parse(String uniqueId);
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class keeps track of the raw unique ids of the data published by a publisher.
+ * The ids are expected to be added in increasing order, as generated from the unique id marker
+ * of the publisher, and are stored as ranges of consecutive ids in a primitive array.
+ * Publishing any number of consecutive ids therefore takes a constant amount of memory.
+ */
+public class UniqueIdLedger {
+
+  // ranges[2 * i] is the first id of the i-th range and ranges[2 * i + 1] is one past its last id
+  private int[] ranges = new int[16];
+  private int rangeCount = 0;
+  private long size = 0;
+
+  /**
+   * This method adds a raw unique id to the ledger.
+   * @param rawUniqueId Raw unique id, greater than all the ids added before.
+   */
+  public void add(int rawUniqueId) {
+    addRange(rawUniqueId, 1);
+  }
+
+  /**
+   * This method adds a range of consecutive raw unique ids to the ledger.
+   * @param firstRawUniqueId First raw unique id of the range, greater than
+   *                         all the ids added before.
+   * @param count Number of consecutive ids in the range.
+   */
+  public void addRange(int firstRawUniqueId, int count) {
+    if (count <= 0) {
+      return;
+    }
+    if (firstRawUniqueId < 0) {
+      throw new IllegalArgumentException("Raw unique ids must not be negative: "
+          + firstRawUniqueId);
+    }
+    if (rangeCount > 0) {
+      int lastEnd = ranges[2 * rangeCount - 1];
+      if (firstRawUniqueId < lastEnd) {
+        throw new IllegalArgumentException("Raw unique ids must be added in increasing order: "
+            + firstRawUniqueId + " after " + (lastEnd - 1));
+      }
+      if (firstRawUniqueId == lastEnd) {
+        ranges[2 * rangeCount - 1] += count;
+        size += count;
+        return;
+      }
+    }
+    if (2 * rangeCount == ranges.length) {
+      ranges = Arrays.copyOf(ranges, 2 * ranges.length);
+    }
+    ranges[2 * rangeCount] = firstRawUniqueId;
+    ranges[2 * rangeCount + 1] = firstRawUniqueId + count;
+    rangeCount++;
+    size += count;
+  }
+
+  /**
+   * This method tells whether the given raw unique id was added to the ledger.
+   * @param rawUniqueId Raw unique id.
+   * @return true if the raw unique id was added.
+   */
+  public boolean contains(int rawUniqueId) {
+    int low = 0;
+    int high = rangeCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (rawUniqueId < ranges[2 * mid]) {
+        high = mid - 1;
+      } else if (rawUniqueId >= ranges[2 * mid + 1]) {
+        low = mid + 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * This method returns the number of raw unique ids in the ledger.
+   * @return Number of raw unique ids.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * This method returns the number of ranges of consecutive raw unique ids in the ledger.
+   * @return Number of ranges.
+   */
+  public int rangeCount() {
+    return rangeCount;
+  }
+
+  /**
+   * This method returns an iterator over the raw unique ids in increasing order.
+   * @return Iterator over the raw unique ids.
+   */
+  public PrimitiveIterator.OfInt iterator() {
+    return new PrimitiveIterator.OfInt() {
+      private int range = 0;
+      private int next = rangeCount > 0 ? ranges[0] : 0;
+
+      @Override
+      public boolean hasNext() {
+        return range < rangeCount;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        int current = next++;
+        if (next == ranges[2 * range + 1]) {
+          range++;
+          if (range < rangeCount) {
+            next = ranges[2 * range];
+          }
+        }
+        return current;
+      }
+    };
+  }
+
+  /**
+   * This method converts the raw unique ids in the ledger to unique ids.
+   * @param codec Codec used to derive the unique id from the raw unique id.
+   * @return List of unique ids in increasing order of the raw unique ids.
+   */
+  public List<String> toUniqueIds(UniqueIdCodec codec) {
+    List<String> uniqueIds = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, size));
+    PrimitiveIterator.OfInt rawUniqueIds = iterator();
+    while (rawUniqueIds.hasNext()) {
+      uniqueIds.add(codec.format(rawUniqueIds.nextInt()));
+    }
+    return uniqueIds;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.readiness;
+
+/**
+ * This interface defines a check for evidence that a connector is making progress,
+ * e.g. that it committed new records or flushed new offsets.
+ * It is started once, when the wait starts, so that it can record a baseline to measure the
+ * progress from, then polled until it reports ready, and closed once the wait is over
+ * (@see io.confluent.connect.test.sdk.commons.ConnectorUtils#waitForReadiness).
+ * A probe is used for a single wait. In-built probes are available in {@link ReadinessProbes}.
+ */
+@FunctionalInterface
+public interface ReadinessProbe extends AutoCloseable {
+
+  /**
+   * This method records the state from which the progress of the connector is measured,
+   * e.g. the records already present in a topic, so that data left over from before the wait
+   * does not make the probe ready. Calling it again has no effect. It is called before the
+   * first check, and by the first check if it failed. By default, it does nothing.
+   * @throws Exception if the baseline could not be recorded.
+   */
+  default void start() throws Exception {
+  }
+
+  /**
+   * This method checks whether the connector is ready.
+   * @return true if the connector is ready.
+   * @throws Exception if the check could not be done. The check is retried.
+   */
+  boolean isReady() throws Exception;
+
+  /**
+   * This method releases the resources held by the probe, like Kafka clients.
+   * By default, it does nothing.
+   */
+  @Override
+  default void close() {
+  }
+}
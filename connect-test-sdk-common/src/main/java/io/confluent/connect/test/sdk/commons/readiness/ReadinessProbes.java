@@ -0,0 +1,382 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.readiness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.connect.runtime.AbstractStatus;
+import org.apache.kafka.connect.runtime.rest.entities.ConnectorStateInfo;
+import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Factory of in-built readiness probes (@see ReadinessProbe).
+ * The probes create the Kafka clients they need when they are started and close them
+ * when they are closed. The probes checking the data only report the progress made since
+ * they were started, so that data left over from before a wait, e.g. from before chaos,
+ * does not make them ready: a new probe must be created for every wait.
+ */
+public class ReadinessProbes {
+
+  private static final String OFFSET_TOPIC_PREFIX = "connect-offset-topic-";
+  private static final String SINK_CONNECTOR_GROUP_PREFIX = "connect-";
+  private static final long ADMIN_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(10);
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private ReadinessProbes() {
+  }
+
+  /**
+   * Probe which is ready when the connector and the given number of tasks are running.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param connectorName the name of the connector
+   * @param numTasks the number of tasks to wait for
+   * @return ReadinessProbe
+   */
+  public static ReadinessProbe connectorRunning(
+      EmbeddedConnectCluster connect, String connectorName, int numTasks) {
+    return connectorInState(connect, connectorName, numTasks, AbstractStatus.State.RUNNING);
+  }
+
+  /**
+   * Probe which is ready when the connector and the given number of tasks are paused.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param connectorName the name of the connector
+   * @param numTasks the number of tasks to wait for
+   * @return ReadinessProbe
+   */
+  public static ReadinessProbe connectorPaused(
+      EmbeddedConnectCluster connect, String connectorName, int numTasks) {
+    return connectorInState(connect, connectorName, numTasks, AbstractStatus.State.PAUSED);
+  }
+
+  /**
+   * Probe which is ready once at least the given number of records were written to the given
+   * Kafka topic since the probe was started, e.g. by a source connector.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param topic the Kafka topic
+   * @param minRecords the minimum number of new records
+   * @return ReadinessProbe
+   */
+  public static ReadinessProbe recordsInTopic(
+      EmbeddedConnectCluster connect, String topic, long minRecords) {
+    return new ReadinessProbe() {
+      private KafkaConsumer<byte[], byte[]> consumer;
+      private Long baselineRecords;
+
+      @Override
+      public void start() {
+        if (baselineRecords == null) {
+          baselineRecords = countRecords();
+        }
+      }
+
+      @Override
+      public boolean isReady() {
+        if (baselineRecords == null) {
+          start();
+          return false;
+        }
+        return countRecords() - baselineRecords >= minRecords;
+      }
+
+      /** Return the number of records ever written to the topic, from its end offsets. */
+      private long countRecords() {
+        if (consumer == null) {
+          consumer = createConsumer(connect);
+        }
+        List<TopicPartition> partitions = partitionsOf(consumer, topic);
+        if (partitions.isEmpty()) {
+          return 0;
+        }
+        long records = 0;
+        for (long endOffset : consumer.endOffsets(partitions).values()) {
+          records += endOffset;
+        }
+        return records;
+      }
+
+      @Override
+      public void close() {
+        if (consumer != null) {
+          consumer.close();
+          consumer = null;
+        }
+      }
+    };
+  }
+
+  /**
+   * Probe which is ready once a sink connector committed offsets of new records since the probe
+   * was started, i.e. when the consumer group of the connector has a committed offset above
+   * the one it had for the same partition when the probe was started.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param connectorName the name of the sink connector
+   * @return ReadinessProbe
+   */
+  public static ReadinessProbe sinkOffsetsCommitted(
+      EmbeddedConnectCluster connect, String connectorName) {
+    String groupId = SINK_CONNECTOR_GROUP_PREFIX + connectorName;
+    return new ReadinessProbe() {
+      private Admin admin;
+      private Map<TopicPartition, Long> baselineOffsets;
+
+      @Override
+      public void start() throws Exception {
+        if (baselineOffsets == null) {
+          baselineOffsets = committedOffsets();
+        }
+      }
+
+      @Override
+      public boolean isReady() throws Exception {
+        if (baselineOffsets == null) {
+          start();
+          return false;
+        }
+        return committedOffsets().entrySet().stream().anyMatch(
+            offset -> offset.getValue() > baselineOffsets.getOrDefault(offset.getKey(), 0L));
+      }
+
+      private Map<TopicPartition, Long> committedOffsets() throws Exception {
+        if (admin == null) {
+          admin = connect.kafka().createAdminClient();
+        }
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        admin.listConsumerGroupOffsets(groupId)
+            .partitionsToOffsetAndMetadata()
+            .get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            .forEach((partition, offset) -> {
+              if (offset != null) {
+                offsets.put(partition, offset.offset());
+              }
+            });
+        return offsets;
+      }
+
+      @Override
+      public void close() {
+        if (admin != null) {
+          admin.close();
+          admin = null;
+        }
+      }
+    };
+  }
+
+  /**
+   * Probe which is ready once a source connector flushed new offsets, since the probe was
+   * started, to the default offset storage topic of the connect cluster.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param connectorName the name of the source connector
+   * @return ReadinessProbe
+   */
+  public static ReadinessProbe sourceOffsetsFlushed(
+      EmbeddedConnectCluster connect, String connectorName) {
+    return sourceOffsetsFlushed(connect, connectorName, OFFSET_TOPIC_PREFIX + connect.getName());
+  }
+
+  /**
+   * Probe which is ready once a source connector flushed new offsets, since the probe was
+   * started, to the given offset storage topic.
+   * @param connect the connect cluster (@see EmbeddedConnectCluster)
+   * @param connectorName the name of the source connector
+   * @param offsetStorageTopic the offset.storage.topic of the connect cluster
+   * @return ReadinessProbe
+   */
+  public static ReadinessProbe sourceOffsetsFlushed(
+      EmbeddedConnectCluster connect, String connectorName, String offsetStorageTopic) {
+    return new ReadinessProbe() {
+      private KafkaConsumer<byte[], byte[]> consumer;
+      private boolean started = false;
+
+      @Override
+      public void start() {
+        if (started) {
+          return;
+        }
+        if (consumer == null) {
+          consumer = createConsumer(connect);
+        }
+        List<TopicPartition> partitions = partitionsOf(consumer, offsetStorageTopic);
+        if (!partitions.isEmpty()) {
+          consumer.assign(partitions);
+          consumer.seekToEnd(partitions);
+          // resolve the end offsets now, as seeking is lazy
+          partitions.forEach(consumer::position);
+        }
+        started = true;
+      }
+
+      @Override
+      public boolean isReady() {
+        if (!started) {
+          start();
+          return false;
+        }
+        if (consumer.assignment().isEmpty()) {
+          // the topic was created after the probe was started, so all its offsets are new
+          List<TopicPartition> partitions = partitionsOf(consumer, offsetStorageTopic);
+          if (partitions.isEmpty()) {
+            return false;
+          }
+          consumer.assign(partitions);
+          consumer.seekToBeginning(partitions);
+        }
+        for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+          if (record.value() != null && isOffsetOf(record.key(), connectorName)) {
+            return true;
+          }
+        }
+        return false;
+      }
+
+      @Override
+      public void close() {
+        if (consumer != null) {
+          consumer.close();
+          consumer = null;
+        }
+        started = false;
+      }
+    };
+  }
+
+  /**
+   * Probe which is ready as soon as any of the given probes is ready.
+   * @param probes the probes
+   * @return ReadinessProbe
+   */
+  public static ReadinessProbe anyOf(ReadinessProbe... probes) {
+    List<ReadinessProbe> probeList = Arrays.asList(probes);
+    return new ReadinessProbe() {
+      @Override
+      public void start() throws Exception {
+        for (ReadinessProbe probe : probeList) {
+          probe.start();
+        }
+      }
+
+      @Override
+      public boolean isReady() throws Exception {
+        for (ReadinessProbe probe : probeList) {
+          if (probe.isReady()) {
+            return true;
+          }
+        }
+        return false;
+      }
+
+      @Override
+      public void close() {
+        probeList.forEach(ReadinessProbe::close);
+      }
+    };
+  }
+
+  /**
+   * Probe which is ready once all the given probes are ready.
+   * A probe is not checked again once it was ready, until the returned probe is closed.
+   * @param probes the probes
+   * @return ReadinessProbe
+   */
+  public static ReadinessProbe allOf(ReadinessProbe... probes) {
+    List<ReadinessProbe> probeList = Arrays.asList(probes);
+    List<ReadinessProbe> pending = new ArrayList<>(probeList);
+    return new ReadinessProbe() {
+      @Override
+      public void start() throws Exception {
+        for (ReadinessProbe probe : probeList) {
+          probe.start();
+        }
+      }
+
+      @Override
+      public boolean isReady() throws Exception {
+        Iterator<ReadinessProbe> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+          if (iterator.next().isReady()) {
+            iterator.remove();
+          }
+        }
+        return pending.isEmpty();
+      }
+
+      @Override
+      public void close() {
+        probeList.forEach(ReadinessProbe::close);
+        pending.clear();
+        pending.addAll(probeList);
+      }
+    };
+  }
+
+  private static ReadinessProbe connectorInState(
+      EmbeddedConnectCluster connect, String connectorName, int numTasks,
+      AbstractStatus.State state) {
+    String expectedState = state.toString();
+    return () -> {
+      ConnectorStateInfo info = connect.connectorStatus(connectorName);
+      return info != null && info.tasks().size() == numTasks
+          && info.connector().state().equals(expectedState)
+          && info.tasks().stream().allMatch(s -> s.state().equals(expectedState));
+    };
+  }
+
+  private static boolean isOffsetOf(byte[] key, String connectorName) {
+    if (key == null) {
+      return false;
+    }
+    try {
+      // source offsets are keyed by [connector name, source partition]
+      JsonNode node = OBJECT_MAPPER.readTree(key);
+      return node.isArray() && node.size() > 0 && connectorName.equals(node.get(0).asText());
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static List<TopicPartition> partitionsOf(
+      KafkaConsumer<byte[], byte[]> consumer, String topic) {
+    List<PartitionInfo> partitionInfos = consumer.partitionsFor(topic);
+    if (partitionInfos == null) {
+      return Collections.emptyList();
+    }
+    return partitionInfos.stream()
+        .map(info -> new TopicPartition(info.topic(), info.partition()))
+        .collect(Collectors.toList());
+  }
+
+  private static KafkaConsumer<byte[], byte[]> createConsumer(EmbeddedConnectCluster connect) {
+    Map<String, Object> consumerProps = new HashMap<>();
+    consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, connect.kafka().bootstrapServers());
+    consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    // checking a topic must not create it
+    consumerProps.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+    return new KafkaConsumer<>(
+        consumerProps,
+        new ByteArrayDeserializer(),
+        new ByteArrayDeserializer());
+  }
+}
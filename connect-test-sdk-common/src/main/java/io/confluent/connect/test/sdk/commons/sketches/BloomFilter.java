@@ -0,0 +1,82 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.sketches;
+
+/**
+ * This class is a Bloom filter of key hashes (@see KeyHashes), sized for an expected number of
+ * keys and a false positive probability. It tells that a key was never added, or that it
+ * probably was, with a fixed amount of memory of about 10 bits per key at 1% false positives.
+ */
+public class BloomFilter {
+
+  private static final double LN_2 = Math.log(2);
+
+  private final long[] words;
+  private final long bitCount;
+  private final int hashCount;
+
+  /**
+   * Constructor for BloomFilter.
+   * @param expectedKeys Number of keys expected to be added.
+   * @param falsePositiveProbability Probability that a key which was not added is reported as
+   *                                 added, once the expected number of keys is added.
+   */
+  public BloomFilter(long expectedKeys, double falsePositiveProbability) {
+    if (expectedKeys <= 0) {
+      throw new IllegalArgumentException("Expected keys must be positive: " + expectedKeys);
+    }
+    if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+      throw new IllegalArgumentException(
+          "False positive probability must be in (0, 1): " + falsePositiveProbability);
+    }
+    long bits = (long) Math.ceil(
+        -expectedKeys * Math.log(falsePositiveProbability) / (LN_2 * LN_2));
+    long wordCount = Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+    if (wordCount > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Bloom filter of " + bits + " bits is too large");
+    }
+    this.words = new long[(int) wordCount];
+    this.bitCount = wordCount * Long.SIZE;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * LN_2));
+  }
+
+  /**
+   * This method adds a key to the filter.
+   * @param keyHash Hash of the key.
+   */
+  public void put(long keyHash) {
+    long hash1 = KeyHashes.mix(keyHash);
+    long hash2 = KeyHashes.mix(hash1) | 1;
+    for (int i = 0; i < hashCount; i++) {
+      long bit = ((hash1 + i * hash2) >>> 1) % bitCount;
+      words[(int) (bit >>> 6)] |= 1L << bit;
+    }
+  }
+
+  /**
+   * This method tells whether a key might have been added to the filter.
+   * @param keyHash Hash of the key.
+   * @return false if the key was never added, true if it probably was.
+   */
+  public boolean mightContain(long keyHash) {
+    long hash1 = KeyHashes.mix(keyHash);
+    long hash2 = KeyHashes.mix(hash1) | 1;
+    for (int i = 0; i < hashCount; i++) {
+      long bit = ((hash1 + i * hash2) >>> 1) % bitCount;
+      if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public long getBitCount() {
+    return bitCount;
+  }
+
+  public int getHashCount() {
+    return hashCount;
+  }
+}
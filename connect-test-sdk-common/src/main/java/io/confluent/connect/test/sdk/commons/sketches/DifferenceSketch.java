@@ -0,0 +1,188 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.sketches;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * This class is an invertible count sketch of the difference between two multisets of keys,
+ * e.g. the expected keys, which are added, and the actual keys, which are removed.
+ * Every key is counted in one cell of each of 3 rows, where the cell also sums the hash of the
+ * key and a check hash, modulo 2^61 - 1. Whatever the number of keys, the keys whose count
+ * differs can be recovered as long as there are not many more of them than the sketch was
+ * sized for: a cell holding a single differing key gives it away, and removing that key from
+ * its other cells can free more of them. The memory only depends on that number of differences.
+ */
+public class DifferenceSketch {
+
+  private static final int ROWS = 3;
+  // cells per differing key needed to recover the keys with a high probability
+  private static final double CELLS_PER_DIFFERENCE = 1.5;
+  private static final int MIN_CELLS_PER_ROW = 16;
+  private static final long CHECK_SEED = 0x9e3779b97f4a7c15L;
+  private static final long[] ROW_SEEDS = {
+      0x2545f4914f6cdd1dL, 0x6a09e667f3bcc909L, 0x3c6ef372fe94f82bL};
+
+  private final int cellsPerRow;
+  private final long[] counts;
+  private final long[] hashSums;
+  private final long[] checkSums;
+
+  /**
+   * Constructor for DifferenceSketch.
+   * @param maxDifferences Number of differing keys the sketch should be able to recover.
+   */
+  public DifferenceSketch(int maxDifferences) {
+    if (maxDifferences <= 0) {
+      throw new IllegalArgumentException(
+          "Max differences must be positive: " + maxDifferences);
+    }
+    this.cellsPerRow = Math.max(MIN_CELLS_PER_ROW,
+        (int) Math.ceil(maxDifferences * CELLS_PER_DIFFERENCE / ROWS));
+    this.counts = new long[ROWS * cellsPerRow];
+    this.hashSums = new long[ROWS * cellsPerRow];
+    this.checkSums = new long[ROWS * cellsPerRow];
+  }
+
+  private DifferenceSketch(DifferenceSketch other) {
+    this.cellsPerRow = other.cellsPerRow;
+    this.counts = other.counts.clone();
+    this.hashSums = other.hashSums.clone();
+    this.checkSums = other.checkSums.clone();
+  }
+
+  /**
+   * This method adds an occurrence of a key.
+   * @param keyHash Hash of the key (@see KeyHashes#hash).
+   */
+  public void add(long keyHash) {
+    long checkHash = checkHash(keyHash);
+    for (int row = 0; row < ROWS; row++) {
+      int cell = cell(keyHash, row);
+      counts[cell]++;
+      hashSums[cell] = KeyHashes.addMod(hashSums[cell], keyHash);
+      checkSums[cell] = KeyHashes.addMod(checkSums[cell], checkHash);
+    }
+  }
+
+  /**
+   * This method removes an occurrence of a key.
+   * @param keyHash Hash of the key (@see KeyHashes#hash).
+   */
+  public void remove(long keyHash) {
+    long checkHash = checkHash(keyHash);
+    for (int row = 0; row < ROWS; row++) {
+      int cell = cell(keyHash, row);
+      counts[cell]--;
+      hashSums[cell] = KeyHashes.subtractMod(hashSums[cell], keyHash);
+      checkSums[cell] = KeyHashes.subtractMod(checkSums[cell], checkHash);
+    }
+  }
+
+  /**
+   * This method returns an independent copy of the sketch.
+   * @return DifferenceSketch
+   */
+  public DifferenceSketch copy() {
+    return new DifferenceSketch(this);
+  }
+
+  /**
+   * This method recovers the keys whose number of additions and removals differ.
+   * The sketch itself is not modified.
+   * @return Map of key hash to its number of additions minus its number of removals,
+   *         empty if the multisets are equal, or null if there are too many differences
+   *         to recover them.
+   */
+  public Map<Long, Long> decode() {
+    DifferenceSketch remaining = copy();
+    Map<Long, Long> differences = new HashMap<>();
+    Deque<Integer> candidates = new ArrayDeque<>();
+    for (int cell = 0; cell < counts.length; cell++) {
+      if (remaining.counts[cell] != 0) {
+        candidates.add(cell);
+      }
+    }
+    // every key is recovered at most once, so this only bounds false recoveries
+    int maxRecoveries = counts.length;
+    while (!candidates.isEmpty()) {
+      int cell = candidates.poll();
+      long keyHash = remaining.pureKeyHash(cell);
+      if (keyHash < 0) {
+        continue;
+      }
+      if (maxRecoveries-- == 0) {
+        return null;
+      }
+      long count = remaining.counts[cell];
+      differences.merge(keyHash, count, Long::sum);
+      remaining.update(keyHash, -count);
+      for (int row = 0; row < ROWS; row++) {
+        int other = cell(keyHash, row);
+        if (remaining.counts[other] != 0) {
+          candidates.add(other);
+        }
+      }
+    }
+    for (int cell = 0; cell < counts.length; cell++) {
+      if (remaining.counts[cell] != 0 || remaining.hashSums[cell] != 0
+          || remaining.checkSums[cell] != 0) {
+        return null;
+      }
+    }
+    // recoveries of the same key may cancel each other out
+    Iterator<Long> differenceCounts = differences.values().iterator();
+    while (differenceCounts.hasNext()) {
+      if (differenceCounts.next() == 0) {
+        differenceCounts.remove();
+      }
+    }
+    return differences;
+  }
+
+  /** Return the hash of the only key counted in the cell, or -1 if it holds several keys. */
+  private long pureKeyHash(int cell) {
+    long count = counts[cell];
+    if (count == 0) {
+      return -1;
+    }
+    long countMod = KeyHashes.modSigned(count);
+    long keyHash = KeyHashes.multiplyMod(hashSums[cell], KeyHashes.inverseMod(countMod));
+    if (KeyHashes.multiplyMod(checkHash(keyHash), countMod) != checkSums[cell]
+        || cell(keyHash, cell / cellsPerRow) != cell) {
+      return -1;
+    }
+    return keyHash;
+  }
+
+  private void update(long keyHash, long count) {
+    long countMod = KeyHashes.modSigned(count);
+    long hashDelta = KeyHashes.multiplyMod(keyHash, countMod);
+    long checkDelta = KeyHashes.multiplyMod(checkHash(keyHash), countMod);
+    for (int row = 0; row < ROWS; row++) {
+      int cell = cell(keyHash, row);
+      counts[cell] += count;
+      hashSums[cell] = KeyHashes.addMod(hashSums[cell], hashDelta);
+      checkSums[cell] = KeyHashes.addMod(checkSums[cell], checkDelta);
+    }
+  }
+
+  private int cell(long keyHash, int row) {
+    return row * cellsPerRow
+        + (int) ((KeyHashes.mix(keyHash ^ ROW_SEEDS[row]) >>> 1) % cellsPerRow);
+  }
+
+  private static long checkHash(long keyHash) {
+    return KeyHashes.mod(KeyHashes.mix(keyHash ^ CHECK_SEED));
+  }
+
+  public int getCellCount() {
+    return counts.length;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.sketches;
+
+/**
+ * This class hashes unique keys for the sketches, and holds the arithmetic modulo the
+ * Mersenne prime 2^61 - 1 in which the key hashes are summed. A prime modulus lets a sum of
+ * repeated hashes be divided by its count again, which the difference sketch relies on.
+ */
+public final class KeyHashes {
+
+  /** Modulus of the key hashes, the Mersenne prime 2^61 - 1. */
+  public static final long MODULUS = (1L << 61) - 1;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long MASK_30 = (1L << 30) - 1;
+  private static final long MASK_31 = (1L << 31) - 1;
+
+  private KeyHashes() {
+  }
+
+  /**
+   * This method hashes a unique key.
+   * @param uniqueKey Unique key.
+   * @return Hash of the key, in [0, 2^61 - 1).
+   */
+  public static long hash(String uniqueKey) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < uniqueKey.length(); i++) {
+      hash = (hash ^ uniqueKey.charAt(i)) * FNV_PRIME;
+    }
+    return mod(mix(hash));
+  }
+
+  /** Finalizer of MurmurHash3, spreading every bit of the input over the output. */
+  static long mix(long value) {
+    value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+    value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return value ^ (value >>> 33);
+  }
+
+  /** Reduce any value, read as unsigned, modulo 2^61 - 1. */
+  static long mod(long value) {
+    long reduced = (value & MODULUS) + (value >>> 61);
+    return reduced >= MODULUS ? reduced - MODULUS : reduced;
+  }
+
+  /** Reduce a signed count modulo 2^61 - 1. */
+  static long modSigned(long value) {
+    // the remainder has the sign of the value, and negating the value could overflow
+    long remainder = value % MODULUS;
+    return remainder < 0 ? remainder + MODULUS : remainder;
+  }
+
+  static long addMod(long a, long b) {
+    long sum = a + b;
+    return sum >= MODULUS ? sum - MODULUS : sum;
+  }
+
+  static long subtractMod(long a, long b) {
+    long difference = a - b;
+    return difference < 0 ? difference + MODULUS : difference;
+  }
+
+  /** Multiply two values in [0, 2^61 - 1) without overflow, splitting them in 31 bit halves. */
+  static long multiplyMod(long a, long b) {
+    long aHigh = a >>> 31;
+    long aLow = a & MASK_31;
+    long bHigh = b >>> 31;
+    long bLow = b & MASK_31;
+    long middle = aHigh * bLow + aLow * bHigh;
+    long low = aLow * bLow;
+    // a * b = high * 2^62 + middle * 2^31 + low, where 2^61 = 1 modulo 2^61 - 1
+    long result = ((aHigh * bHigh) << 1)
+        + (middle >>> 30) + ((middle & MASK_30) << 31)
+        + (low & MODULUS) + (low >>> 61);
+    return mod(result);
+  }
+
+  /** Inverse of a non zero value, by Fermat's little theorem. */
+  static long inverseMod(long value) {
+    long result = 1;
+    long base = value;
+    for (long exponent = MODULUS - 2; exponent > 0; exponent >>>= 1) {
+      if ((exponent & 1) == 1) {
+        result = multiplyMod(result, base);
+      }
+      base = multiplyMod(base, base);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.sketches;
+
+/**
+ * This class summarizes the unique keys published to the source system/ Kafka topic in a fixed
+ * amount of memory, so that the actual keys can be checked against them without keeping the
+ * expected keys (@see io.confluent.connect.test.sdk.commons.verifiers.SketchVerifier).
+ * It holds a Bloom filter telling whether a key was probably published, and a difference sketch
+ * to which every published key is added.
+ */
+public class KeySketch {
+
+  /** Default number of differing keys which can be recovered from the difference sketch. */
+  public static final int DEFAULT_MAX_DIFFERENCES = 100000;
+  /** Default false positive probability of the Bloom filter. */
+  public static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  private final BloomFilter bloomFilter;
+  private final DifferenceSketch differenceSketch;
+  private long count = 0;
+
+  /**
+   * Constructor for KeySketch with the default max differences and false positive probability.
+   * @param expectedKeys Number of keys expected to be published.
+   */
+  public KeySketch(long expectedKeys) {
+    this(expectedKeys, DEFAULT_MAX_DIFFERENCES, DEFAULT_FALSE_POSITIVE_PROBABILITY);
+  }
+
+  /**
+   * Constructor for KeySketch.
+   * @param expectedKeys Number of keys expected to be published, which sizes the Bloom filter.
+   * @param maxDifferences Number of missing, duplicate and unexpected keys which can be
+   *                       recovered from the difference sketch. The actual keys are verified
+   *                       exactly when there are more of them.
+   * @param falsePositiveProbability False positive probability of the Bloom filter.
+   */
+  public KeySketch(long expectedKeys, int maxDifferences, double falsePositiveProbability) {
+    this.bloomFilter = new BloomFilter(expectedKeys, falsePositiveProbability);
+    this.differenceSketch = new DifferenceSketch(maxDifferences);
+  }
+
+  /**
+   * This method adds a published unique key.
+   * @param uniqueKey Unique key.
+   */
+  public synchronized void add(String uniqueKey) {
+    long keyHash = KeyHashes.hash(uniqueKey);
+    bloomFilter.put(keyHash);
+    differenceSketch.add(keyHash);
+    count++;
+  }
+
+  /**
+   * This method tells whether a key was probably published.
+   * @param keyHash Hash of the key (@see KeyHashes#hash).
+   * @return false if the key was never published, true if it probably was.
+   */
+  public synchronized boolean mightContain(long keyHash) {
+    return bloomFilter.mightContain(keyHash);
+  }
+
+  /**
+   * This method returns the number of unique keys published so far.
+   * @return Number of keys.
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * This method returns a copy of the difference sketch of the keys published so far,
+   * from which the actual keys can be removed.
+   * @return DifferenceSketch
+   */
+  public synchronized DifferenceSketch copyDifferenceSketch() {
+    return differenceSketch.copy();
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.verifiers;
+
+import io.confluent.connect.test.sdk.commons.DeliveryGuarantee;
+import io.confluent.connect.test.sdk.commons.publishers.UniqueIdCodec;
+import io.confluent.connect.test.sdk.commons.publishers.UniqueIdLedger;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class verifies the unique keys extracted from the end system against the expected
+ * unique keys in a single linear pass over each list, using hash based lookups.
+ */
+public class DeliveryVerifier {
+
+  // partition of the actual unique keys when they are verified as a single list
+  private static final String SINGLE_LIST = "";
+
+  private DeliveryVerifier() {
+  }
+
+  /**
+   * Verify the actual unique keys against the expected unique keys
+   * as per the delivery guarantee and inorder data support.
+   * @param expectedUniqueKeys list of expected unique identifiers
+   *                           present in the source system/ Kafka topic
+   * @param actualUniqueKeys list of actual unique identifiers
+   *                         present in the Kafka topic/ sink system
+   * @param deliveryGuarantee delivery guarantee of the connector
+   * @param inorder whether the data is expected to be in order or not
+   * @return Result holding missing, duplicate, unexpected and out of order keys.
+   */
+  public static VerificationResult verify(
+      List<String> expectedUniqueKeys, List<String> actualUniqueKeys,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder) {
+    return verify(
+        expectedUniqueKeys, Collections.singletonMap(SINGLE_LIST, actualUniqueKeys),
+        deliveryGuarantee, inorder, false);
+  }
+
+  /**
+   * Verify the actual unique keys of every partition of the end system against the expected
+   * unique keys as per the delivery guarantee and inorder data support.
+   * The ordering is verified within every partition only (@see OrderingVerifier),
+   * so the keys of a multi-partition topic need not be merged into a single list.
+   * @param expectedUniqueKeys list of expected unique identifiers
+   *                           present in the source system/ Kafka topic
+   * @param actualUniqueKeysByPartition actual unique identifiers present in every partition
+   *                                    of the Kafka topic/ sink system, in the order of
+   *                                    the partition
+   * @param deliveryGuarantee delivery guarantee of the connector
+   * @param inorder whether the data is expected to be in order within every partition or not
+   * @return Result holding missing, duplicate, unexpected and out of order keys.
+   */
+  public static VerificationResult verify(
+      List<String> expectedUniqueKeys, Map<String, List<String>> actualUniqueKeysByPartition,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder) {
+    return verify(
+        expectedUniqueKeys, actualUniqueKeysByPartition, deliveryGuarantee, inorder, true);
+  }
+
+  private static VerificationResult verify(
+      List<String> expectedUniqueKeys, Map<String, List<String>> actualUniqueKeysByPartition,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder, boolean perPartition) {
+    Map<String, Integer> expectedPositions = new HashMap<>(
+        capacityFor(expectedUniqueKeys.size()));
+    int position = 0;
+    for (String uniqueKey : expectedUniqueKeys) {
+      expectedPositions.putIfAbsent(uniqueKey, position++);
+    }
+
+    int actualCount = countKeys(actualUniqueKeysByPartition);
+    Map<String, Integer> occurrences = new HashMap<>(capacityFor(actualCount));
+    List<String> unexpectedKeys = new ArrayList<>();
+    List<Integer> outOfOrderPositions = new ArrayList<>();
+    // the ordering of the partitions is only verified when it is expected
+    OrderingVerifier orderingVerifier = perPartition && inorder ? new OrderingVerifier(
+        uniqueKey -> expectedPositions.getOrDefault(uniqueKey, -1)) : null;
+    int highestExpectedPosition = -1;
+    int actualPosition = 0;
+    for (Map.Entry<String, List<String>> partition : actualUniqueKeysByPartition.entrySet()) {
+      for (String uniqueKey : partition.getValue()) {
+        int occurrence = occurrences.merge(uniqueKey, 1, Integer::sum);
+        if (occurrence == 1) {
+          Integer expectedPosition = expectedPositions.get(uniqueKey);
+          if (expectedPosition == null) {
+            unexpectedKeys.add(uniqueKey);
+          } else if (orderingVerifier != null) {
+            orderingVerifier.accept(partition.getKey(), uniqueKey, expectedPosition);
+          } else if (expectedPosition < highestExpectedPosition) {
+            outOfOrderPositions.add(actualPosition);
+          } else {
+            highestExpectedPosition = expectedPosition;
+          }
+        } else if (orderingVerifier != null) {
+          // duplicates are not checked but still take a position in their partition
+          orderingVerifier.accept(partition.getKey(), uniqueKey, -1);
+        }
+        actualPosition++;
+      }
+    }
+
+    List<String> missingKeys = new ArrayList<>();
+    position = 0;
+    for (String uniqueKey : expectedUniqueKeys) {
+      // skip repeated expected keys so that each missing key is reported once
+      if (expectedPositions.get(uniqueKey) == position++
+          && !occurrences.containsKey(uniqueKey)) {
+        missingKeys.add(uniqueKey);
+      }
+    }
+
+    Map<String, Integer> duplicateCounts = new LinkedHashMap<>();
+    for (Map.Entry<String, Integer> occurrence : occurrences.entrySet()) {
+      if (occurrence.getValue() > 1) {
+        duplicateCounts.put(occurrence.getKey(), occurrence.getValue());
+      }
+    }
+
+    return new VerificationResult(
+        deliveryGuarantee, inorder,
+        expectedUniqueKeys.size(), actualCount,
+        missingKeys, duplicateCounts, unexpectedKeys, outOfOrderPositions,
+        orderingVerifier == null ? Collections.emptyMap() : orderingVerifier.getViolations());
+  }
+
+  /**
+   * Verify the actual unique keys against the raw unique ids kept in a ledger
+   * as per the delivery guarantee and inorder data support.
+   * The actual unique keys are parsed back to raw unique ids and tracked in a bitset,
+   * so no expected unique key has to be materialized unless it is missing.
+   * Since raw unique ids are generated in increasing order, they also define the expected order.
+   * @param expectedUniqueIds ledger of expected raw unique ids
+   * @param codec codec to convert between raw unique ids and unique keys
+   * @param actualUniqueKeys list of actual unique identifiers
+   *                         present in the Kafka topic/ sink system
+   * @param deliveryGuarantee delivery guarantee of the connector
+   * @param inorder whether the data is expected to be in order or not
+   * @return Result holding missing, duplicate, unexpected and out of order keys.
+   */
+  public static VerificationResult verify(
+      UniqueIdLedger expectedUniqueIds, UniqueIdCodec codec, List<String> actualUniqueKeys,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder) {
+    return verify(
+        expectedUniqueIds, codec, Collections.singletonMap(SINGLE_LIST, actualUniqueKeys),
+        deliveryGuarantee, inorder, false);
+  }
+
+  /**
+   * Verify the actual unique keys of every partition of the end system against the raw unique
+   * ids kept in a ledger as per the delivery guarantee and inorder data support.
+   * The ordering is verified within every partition only (@see OrderingVerifier),
+   * so the keys of a multi-partition topic need not be merged into a single list.
+   * @param expectedUniqueIds ledger of expected raw unique ids
+   * @param codec codec to convert between raw unique ids and unique keys
+   * @param actualUniqueKeysByPartition actual unique identifiers present in every partition
+   *                                    of the Kafka topic/ sink system, in the order of
+   *                                    the partition
+   * @param deliveryGuarantee delivery guarantee of the connector
+   * @param inorder whether the data is expected to be in order within every partition or not
+   * @return Result holding missing, duplicate, unexpected and out of order keys.
+   */
+  public static VerificationResult verify(
+      UniqueIdLedger expectedUniqueIds, UniqueIdCodec codec,
+      Map<String, List<String>> actualUniqueKeysByPartition,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder) {
+    return verify(
+        expectedUniqueIds, codec, actualUniqueKeysByPartition, deliveryGuarantee, inorder, true);
+  }
+
+  private static VerificationResult verify(
+      UniqueIdLedger expectedUniqueIds, UniqueIdCodec codec,
+      Map<String, List<String>> actualUniqueKeysByPartition,
+      DeliveryGuarantee deliveryGuarantee, boolean inorder, boolean perPartition) {
+    BitSet seen = new BitSet();
+    Map<Integer, Integer> duplicateIdCounts = new LinkedHashMap<>();
+    Map<String, Integer> unexpectedOccurrences = new LinkedHashMap<>();
+    List<Integer> outOfOrderPositions = new ArrayList<>();
+    OrderingVerifier orderingVerifier =
+        perPartition && inorder ? OrderingVerifier.forUniqueIdCodec(codec) : null;
+    int highestRawUniqueId = -1;
+    int actualPosition = 0;
+    for (Map.Entry<String, List<String>> partition : actualUniqueKeysByPartition.entrySet()) {
+      for (String uniqueKey : partition.getValue()) {
+        int rawUniqueId = codec.parse(uniqueKey);
+        if (rawUniqueId < 0 || !expectedUniqueIds.contains(rawUniqueId)) {
+          unexpectedOccurrences.merge(uniqueKey, 1, Integer::sum);
+          rawUniqueId = -1;
+        } else if (seen.get(rawUniqueId)) {
+          duplicateIdCounts.merge(rawUniqueId, 2, (count, first) -> count + 1);
+        } else {
+          seen.set(rawUniqueId);
+          if (orderingVerifier == null && rawUniqueId < highestRawUniqueId) {
+            outOfOrderPositions.add(actualPosition);
+          } else if (orderingVerifier == null) {
+            highestRawUniqueId = rawUniqueId;
+          }
+        }
+        if (orderingVerifier != null) {
+          // duplicates and unexpected keys are not checked but still take a position
+          orderingVerifier.accept(partition.getKey(), uniqueKey, rawUniqueId);
+        }
+        actualPosition++;
+      }
+    }
+
+    List<String> missingKeys = new ArrayList<>();
+    PrimitiveIterator.OfInt rawUniqueIds = expectedUniqueIds.iterator();
+    while (rawUniqueIds.hasNext()) {
+      int rawUniqueId = rawUniqueIds.nextInt();
+      if (!seen.get(rawUniqueId)) {
+        missingKeys.add(codec.format(rawUniqueId));
+      }
+    }
+
+    Map<String, Integer> duplicateCounts = new LinkedHashMap<>();
+    for (Map.Entry<Integer, Integer> duplicate : duplicateIdCounts.entrySet()) {
+      duplicateCounts.put(codec.format(duplicate.getKey()), duplicate.getValue());
+    }
+    List<String> unexpectedKeys = new ArrayList<>(unexpectedOccurrences.keySet());
+    for (Map.Entry<String, Integer> unexpected : unexpectedOccurrences.entrySet()) {
+      if (unexpected.getValue() > 1) {
+        duplicateCounts.put(unexpected.getKey(), unexpected.getValue());
+      }
+    }
+
+    return new VerificationResult(
+        deliveryGuarantee, inorder,
+        expectedUniqueIds.size(), actualPosition,
+        missingKeys, duplicateCounts, unexpectedKeys, outOfOrderPositions,
+        orderingVerifier == null ? Collections.emptyMap() : orderingVerifier.getViolations());
+  }
+
+  private static int countKeys(Map<String, List<String>> uniqueKeysByPartition) {
+    int count = 0;
+    for (List<String> uniqueKeys : uniqueKeysByPartition.values()) {
+      count += uniqueKeys.size();
+    }
+    return count;
+  }
+
+  static int capacityFor(int expectedSize) {
+    return (int) Math.min(Integer.MAX_VALUE, (long) (expectedSize / 0.75f) + 1);
+  }
+}
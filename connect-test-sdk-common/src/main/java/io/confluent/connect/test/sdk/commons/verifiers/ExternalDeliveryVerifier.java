@@ -0,0 +1,489 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.verifiers;
+
+import io.confluent.connect.test.sdk.commons.DeliveryGuarantee;
+import io.confluent.connect.test.sdk.commons.publishers.DataPublisher;
+import io.confluent.connect.test.sdk.commons.publishers.UniqueIdCodec;
+import io.confluent.connect.test.sdk.commons.publishers.UniqueIdLedger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+
+/**
+ * This class verifies the unique keys extracted from the end system against the expected
+ * unique keys with a bounded amount of memory, for data sets which do not fit in the heap.
+ * The keys of each side are buffered up to a fixed number, sorted and spilled to run files in
+ * a local directory. On verification, the sorted runs of both sides are merged and compared in
+ * a single pass, so the heap only holds one buffer of keys and one read buffer per run file.
+ * Keys can be added while the data is published and extracted, e.g. from the batch handler of
+ * {@link io.confluent.connect.test.sdk.commons.ConnectorUtils#consume}, and the keys added so
+ * far can be verified any number of times.
+ * Only the delivery is verified, since sorting loses the order of the keys. The order can be
+ * verified in a streaming pass with an OrderingVerifier while the actual keys are added.
+ * The verifier should be closed once it is no longer needed, to delete its run files.
+ */
+public class ExternalDeliveryVerifier implements AutoCloseable {
+
+  /** Default number of keys buffered in memory before they are spilled to a run file. */
+  public static final int DEFAULT_KEYS_PER_RUN = 1000000;
+  /** Default number of missing, duplicate and unexpected keys kept in the result. */
+  public static final int DEFAULT_MAX_REPORTED_KEYS = 1000;
+
+  // maximum number of runs merged at once, which bounds the number of open files and buffers
+  static final int MAX_MERGE_WIDTH = 64;
+  private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+  private final Logger log = LoggerFactory.getLogger(ExternalDeliveryVerifier.class);
+  private final Path directory;
+  private final boolean ownsDirectory;
+  private final KeySet expected = new KeySet("expected");
+  private final KeySet actual = new KeySet("actual");
+  private int keysPerRun = DEFAULT_KEYS_PER_RUN;
+  private int maxReportedKeys = DEFAULT_MAX_REPORTED_KEYS;
+  private int runFiles = 0;
+
+  /**
+   * Constructor for ExternalDeliveryVerifier spilling the keys to a new temporary directory,
+   * which is deleted when the verifier is closed.
+   */
+  public ExternalDeliveryVerifier() {
+    this(createTempDirectory(), true);
+  }
+
+  /**
+   * Constructor for ExternalDeliveryVerifier spilling the keys to the given directory,
+   * which should be on a local disk with enough space for both sides of the keys.
+   * @param directory Directory of the run files, created if it does not exist.
+   */
+  public ExternalDeliveryVerifier(Path directory) {
+    this(createDirectories(directory), false);
+  }
+
+  private ExternalDeliveryVerifier(Path directory, boolean ownsDirectory) {
+    this.directory = directory;
+    this.ownsDirectory = ownsDirectory;
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public synchronized int getKeysPerRun() {
+    return keysPerRun;
+  }
+
+  /**
+   * This method is used to set the number of keys of each side buffered in memory before they
+   * are sorted and spilled to a run file. Larger runs take more heap and less disk seeks.
+   * Default value is 1000000.
+   * @param keysPerRun Number of keys per run file.
+   */
+  public synchronized void setKeysPerRun(int keysPerRun) {
+    if (keysPerRun <= 0) {
+      throw new IllegalArgumentException("Keys per run must be positive: " + keysPerRun);
+    }
+    this.keysPerRun = keysPerRun;
+  }
+
+  public synchronized int getMaxReportedKeys() {
+    return maxReportedKeys;
+  }
+
+  /**
+   * This method is used to set the maximum number of missing, duplicate and unexpected keys
+   * kept in the verification result, each. All of them are counted, whatever their number.
+   * Default value is 1000.
+   * @param maxReportedKeys Maximum number of keys of each kind in the result.
+   */
+  public synchronized void setMaxReportedKeys(int maxReportedKeys) {
+    this.maxReportedKeys = maxReportedKeys;
+  }
+
+  /**
+   * This method adds an expected unique key, present in the source system/ Kafka topic.
+   * @param uniqueKey Expected unique key.
+   */
+  public synchronized void addExpected(String uniqueKey) {
+    expected.add(uniqueKey);
+  }
+
+  /**
+   * This method adds expected unique keys, present in the source system/ Kafka topic.
+   * @param uniqueKeys Expected unique keys.
+   */
+  public synchronized void addExpected(Iterable<String> uniqueKeys) {
+    for (String uniqueKey : uniqueKeys) {
+      expected.add(uniqueKey);
+    }
+  }
+
+  /**
+   * This method adds the unique keys of all the data published by a publisher so far.
+   * If the publisher tracks its raw unique ids in a ledger (@see
+   * DataPublisher#setUniqueIdLedgerEnabled), the keys are formatted one by one from the ledger
+   * without materializing the list of expected unique keys.
+   * @param dataPublisher publisher of the data present in the source system/ Kafka topic
+   */
+  public synchronized void addExpected(DataPublisher<?> dataPublisher) {
+    UniqueIdLedger ledger = dataPublisher.getUniqueIdLedger();
+    if (ledger == null) {
+      addExpected(dataPublisher.getExpectedUniqueIds());
+      return;
+    }
+    UniqueIdCodec codec = dataPublisher.getUniqueIdCodec();
+    PrimitiveIterator.OfInt rawUniqueIds = ledger.iterator();
+    while (rawUniqueIds.hasNext()) {
+      expected.add(codec.format(rawUniqueIds.nextInt()));
+    }
+  }
+
+  /**
+   * This method adds an actual unique key, present in the Kafka topic/ sink system.
+   * @param uniqueKey Actual unique key.
+   */
+  public synchronized void addActual(String uniqueKey) {
+    actual.add(uniqueKey);
+  }
+
+  /**
+   * This method adds actual unique keys, present in the Kafka topic/ sink system.
+   * @param uniqueKeys Actual unique keys.
+   */
+  public synchronized void addActual(Iterable<String> uniqueKeys) {
+    for (String uniqueKey : uniqueKeys) {
+      actual.add(uniqueKey);
+    }
+  }
+
+  public synchronized long getExpectedCount() {
+    return expected.count;
+  }
+
+  public synchronized long getActualCount() {
+    return actual.count;
+  }
+
+  /**
+   * Verify the actual unique keys added so far against the expected unique keys added so far
+   * as per the delivery guarantee. Missing keys are reported in the sorted order of the keys
+   * rather than in the order they were expected.
+   * @param deliveryGuarantee delivery guarantee of the connector
+   * @return Result holding missing, duplicate and unexpected keys.
+   */
+  public synchronized VerificationResult verify(DeliveryGuarantee deliveryGuarantee) {
+    List<String> missingKeys = new ArrayList<>();
+    Map<String, Integer> duplicateCounts = new LinkedHashMap<>();
+    List<String> unexpectedKeys = new ArrayList<>();
+    long missingCount = 0;
+    long duplicateCount = 0;
+    long unexpectedCount = 0;
+    long startMillis = System.currentTimeMillis();
+    try (KeyCursor expectedKeys = expected.openSorted();
+        KeyCursor actualKeys = actual.openSorted()) {
+      while (expectedKeys.current != null || actualKeys.current != null) {
+        int comparison = expectedKeys.current == null ? 1
+            : actualKeys.current == null ? -1
+            : expectedKeys.current.compareTo(actualKeys.current);
+        String uniqueKey = comparison <= 0 ? expectedKeys.current : actualKeys.current;
+        // repeated expected keys are expected once, as in the in-memory verification
+        long expectedOccurrences = comparison <= 0 ? expectedKeys.skip(uniqueKey) : 0;
+        long actualOccurrences = comparison >= 0 ? actualKeys.skip(uniqueKey) : 0;
+        if (actualOccurrences == 0) {
+          if (missingCount++ < maxReportedKeys) {
+            missingKeys.add(uniqueKey);
+          }
+          continue;
+        }
+        if (actualOccurrences > 1 && duplicateCount++ < maxReportedKeys) {
+          duplicateCounts.put(uniqueKey, (int) Math.min(Integer.MAX_VALUE, actualOccurrences));
+        }
+        if (expectedOccurrences == 0 && unexpectedCount++ < maxReportedKeys) {
+          unexpectedKeys.add(uniqueKey);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to merge the run files in " + directory, e);
+    }
+    log.debug("Merged {} expected and {} actual keys in {} ms",
+        expected.count, actual.count, System.currentTimeMillis() - startMillis);
+    return new VerificationResult(
+        deliveryGuarantee, false, expected.count, actual.count,
+        missingKeys, missingCount, duplicateCounts, duplicateCount,
+        unexpectedKeys, unexpectedCount,
+        Collections.emptyList(), Collections.emptyMap());
+  }
+
+  /**
+   * This method deletes the run files, and the directory if it was created by the verifier.
+   */
+  @Override
+  public synchronized void close() {
+    try {
+      expected.clear();
+      actual.clear();
+      if (ownsDirectory) {
+        Files.deleteIfExists(directory);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to delete the run files in " + directory, e);
+    }
+  }
+
+  /** Write the keys of a sorted cursor to a new run file. */
+  private Run writeRun(KeyCursor sortedKeys) throws IOException {
+    Path path = directory.resolve("run-" + runFiles++ + ".keys");
+    long keys = 0;
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+        Channels.newOutputStream(FileChannel.open(
+            path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)),
+        IO_BUFFER_SIZE))) {
+      while (sortedKeys.current != null) {
+        byte[] bytes = sortedKeys.current.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        keys++;
+        sortedKeys.advance();
+      }
+    }
+    return new Run(path, keys);
+  }
+
+  private static Path createTempDirectory() {
+    try {
+      return Files.createTempDirectory("connect-test-sdk-verifier");
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create a temporary directory", e);
+    }
+  }
+
+  private static Path createDirectories(Path directory) {
+    try {
+      return Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create directory " + directory, e);
+    }
+  }
+
+  /** Keys of one side: sorted run files and a buffer of the keys added since the last run. */
+  private class KeySet {
+    private final String name;
+    private final List<Run> runs = new ArrayList<>();
+    private final List<String> buffer = new ArrayList<>();
+    private long count = 0;
+
+    private KeySet(String name) {
+      this.name = name;
+    }
+
+    private void add(String uniqueKey) {
+      buffer.add(Objects.requireNonNull(uniqueKey, "Unique keys must not be null"));
+      count++;
+      if (buffer.size() >= keysPerRun) {
+        try {
+          spill();
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to spill " + name + " keys to " + directory, e);
+        }
+      }
+    }
+
+    private void spill() throws IOException {
+      Collections.sort(buffer);
+      runs.add(writeRun(new ListCursor(buffer)));
+      buffer.clear();
+    }
+
+    /** Open a cursor over all the keys in sorted order, merging the runs first if needed. */
+    private KeyCursor openSorted() throws IOException {
+      while (runs.size() >= MAX_MERGE_WIDTH) {
+        List<Run> merged = new ArrayList<>(runs.subList(0, MAX_MERGE_WIDTH));
+        Run run;
+        try (KeyCursor cursor = open(merged, Collections.emptyList())) {
+          run = writeRun(cursor);
+        }
+        for (Run mergedRun : merged) {
+          Files.delete(mergedRun.path);
+        }
+        runs.removeAll(merged);
+        runs.add(run);
+        log.debug("Merged {} runs of {} keys into {}", merged.size(), name, run.path);
+      }
+      Collections.sort(buffer);
+      return open(runs, buffer);
+    }
+
+    private KeyCursor open(List<Run> runsToMerge, List<String> sortedKeys) throws IOException {
+      List<KeyCursor> cursors = new ArrayList<>();
+      try {
+        cursors.add(new ListCursor(sortedKeys));
+        for (Run run : runsToMerge) {
+          cursors.add(new FileCursor(run));
+        }
+        return new MergeCursor(cursors);
+      } catch (IOException | RuntimeException e) {
+        for (KeyCursor cursor : cursors) {
+          cursor.close();
+        }
+        throw e;
+      }
+    }
+
+    private void clear() throws IOException {
+      for (Run run : runs) {
+        Files.deleteIfExists(run.path);
+      }
+      runs.clear();
+      buffer.clear();
+      count = 0;
+    }
+  }
+
+  /** Sorted run file of keys. */
+  private static class Run {
+    private final Path path;
+    private final long keys;
+
+    private Run(Path path, long keys) {
+      this.path = path;
+      this.keys = keys;
+    }
+  }
+
+  /** Cursor over keys in sorted order, positioned on its current key, null once exhausted. */
+  private abstract static class KeyCursor implements Closeable {
+    protected String current;
+
+    abstract void advance() throws IOException;
+
+    /** Move past all the occurrences of the current key and return their number. */
+    long skip(String uniqueKey) throws IOException {
+      long occurrences = 0;
+      while (uniqueKey.equals(current)) {
+        occurrences++;
+        advance();
+      }
+      return occurrences;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+  }
+
+  private static final class ListCursor extends KeyCursor {
+    private final List<String> keys;
+    private int index = 0;
+
+    private ListCursor(List<String> sortedKeys) {
+      this.keys = sortedKeys;
+      advance();
+    }
+
+    @Override
+    void advance() {
+      current = index < keys.size() ? keys.get(index++) : null;
+    }
+  }
+
+  private static final class FileCursor extends KeyCursor {
+    private final DataInputStream input;
+    private long remaining;
+
+    private FileCursor(Run run) throws IOException {
+      this.input = new DataInputStream(new BufferedInputStream(
+          Channels.newInputStream(FileChannel.open(run.path, StandardOpenOption.READ)),
+          IO_BUFFER_SIZE));
+      this.remaining = run.keys;
+      advance();
+    }
+
+    @Override
+    void advance() throws IOException {
+      if (remaining == 0) {
+        current = null;
+        return;
+      }
+      byte[] bytes = new byte[input.readInt()];
+      input.readFully(bytes);
+      current = new String(bytes, StandardCharsets.UTF_8);
+      remaining--;
+    }
+
+    @Override
+    public void close() throws IOException {
+      input.close();
+    }
+  }
+
+  /** K-way merge of sorted cursors. */
+  private static final class MergeCursor extends KeyCursor {
+    private final List<KeyCursor> sources;
+    private final PriorityQueue<KeyCursor> queue;
+
+    private MergeCursor(List<KeyCursor> sources) throws IOException {
+      this.sources = sources;
+      this.queue = new PriorityQueue<>(
+          Math.max(1, sources.size()), Comparator.comparing((KeyCursor cursor) -> cursor.current));
+      for (KeyCursor source : sources) {
+        if (source.current != null) {
+          queue.add(source);
+        }
+      }
+      advance();
+    }
+
+    @Override
+    void advance() throws IOException {
+      KeyCursor head = queue.poll();
+      if (head == null) {
+        current = null;
+        return;
+      }
+      current = head.current;
+      head.advance();
+      if (head.current != null) {
+        queue.add(head);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      IOException failure = null;
+      for (KeyCursor source : sources) {
+        try {
+          source.close();
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.verifiers;
+
+import io.confluent.connect.test.sdk.commons.publishers.UniqueIdCodec;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class verifies in a single streaming pass that the unique keys extracted from the end
+ * system are in the expected order within every partition. Keys of different partitions are
+ * not compared with each other, so the data of a multi-partition topic or of a multi-task
+ * connector can be verified as it is extracted, without being merged into a single list.
+ * A partition can be any group of keys whose order is guaranteed, e.g. a Kafka topic partition
+ * or all the keys sharing a record key.
+ * Only the first occurrence of every key is checked, so duplicates are not reported as
+ * out of order, and keys which were never expected are ignored.
+ */
+public class OrderingVerifier {
+
+  private final ToIntFunction<String> expectedPosition;
+  private final BitSet seen = new BitSet();
+  private final Map<String, PartitionState> partitions = new LinkedHashMap<>();
+
+  /**
+   * Creates an ordering verifier.
+   * @param expectedPosition function returning the position at which a unique key is expected,
+   *                         or a negative value if it was never expected.
+   */
+  public OrderingVerifier(ToIntFunction<String> expectedPosition) {
+    this.expectedPosition = expectedPosition;
+  }
+
+  /**
+   * This method creates an ordering verifier expecting the keys in the order of the given list.
+   * @param expectedUniqueKeys list of expected unique identifiers
+   *                           present in the source system/ Kafka topic
+   * @return OrderingVerifier
+   */
+  public static OrderingVerifier forExpectedUniqueKeys(List<String> expectedUniqueKeys) {
+    Map<String, Integer> expectedPositions = new HashMap<>(
+        DeliveryVerifier.capacityFor(expectedUniqueKeys.size()));
+    int position = 0;
+    for (String uniqueKey : expectedUniqueKeys) {
+      expectedPositions.putIfAbsent(uniqueKey, position++);
+    }
+    return new OrderingVerifier(uniqueKey -> expectedPositions.getOrDefault(uniqueKey, -1));
+  }
+
+  /**
+   * This method creates an ordering verifier expecting the keys in the order of their raw
+   * unique ids, which is the order in which a publisher generates them.
+   * @param codec codec to parse the unique keys back to raw unique ids
+   * @return OrderingVerifier
+   */
+  public static OrderingVerifier forUniqueIdCodec(UniqueIdCodec codec) {
+    return new OrderingVerifier(codec::parse);
+  }
+
+  /**
+   * This method checks the next unique key extracted from a partition.
+   * @param partition partition from which the key was extracted
+   * @param uniqueKey unique key extracted after all the keys previously given for the partition
+   */
+  public void accept(String partition, String uniqueKey) {
+    accept(partition, uniqueKey, expectedPosition.applyAsInt(uniqueKey));
+  }
+
+  /**
+   * This method checks the next unique keys extracted from a partition.
+   * @param partition partition from which the keys were extracted
+   * @param uniqueKeys unique keys in the order of extraction
+   */
+  public void acceptAll(String partition, List<String> uniqueKeys) {
+    for (String uniqueKey : uniqueKeys) {
+      accept(partition, uniqueKey);
+    }
+  }
+
+  /** Check a key whose expected position is already known, e.g. by the delivery verifier. */
+  void accept(String partition, String uniqueKey, int position) {
+    PartitionState state = partitions.computeIfAbsent(partition, PartitionState::new);
+    long partitionPosition = state.keys++;
+    if (position < 0 || seen.get(position)) {
+      return;
+    }
+    seen.set(position);
+    if (position > state.highestPosition) {
+      state.highestPosition = position;
+      state.highestUniqueKey = uniqueKey;
+    } else if (state.violationCount++ == 0) {
+      state.firstViolationPosition = partitionPosition;
+      state.firstViolationUniqueKey = uniqueKey;
+      state.precedingUniqueKey = state.highestUniqueKey;
+    }
+  }
+
+  /**
+   * This method tells whether all the keys checked so far are in order in their partition.
+   * @return true if no key was found out of order.
+   */
+  public boolean isInOrder() {
+    for (PartitionState state : partitions.values()) {
+      if (state.violationCount > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * This method returns the first key found out of order in every partition
+   * which has at least one.
+   * @return Map of partition to its first ordering violation, in the order of the partitions.
+   */
+  public Map<String, OrderingViolation> getViolations() {
+    Map<String, OrderingViolation> violations = new LinkedHashMap<>();
+    for (PartitionState state : partitions.values()) {
+      if (state.violationCount > 0) {
+        violations.put(state.partition, new OrderingViolation(
+            state.partition, state.firstViolationPosition, state.firstViolationUniqueKey,
+            state.precedingUniqueKey, state.violationCount));
+      }
+    }
+    return violations;
+  }
+
+  private static class PartitionState {
+    private final String partition;
+    private long keys = 0;
+    private int highestPosition = -1;
+    private String highestUniqueKey;
+    private long violationCount = 0;
+    private long firstViolationPosition;
+    private String firstViolationUniqueKey;
+    private String precedingUniqueKey;
+
+    private PartitionState(String partition) {
+      this.partition = partition;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.verifiers;
+
+/**
+ * This class describes the first key found out of order in a partition of the end system:
+ * a key which was expected before a key found ahead of it in the same partition.
+ */
+public class OrderingViolation {
+
+  private final String partition;
+  private final long position;
+  private final String uniqueKey;
+  private final String precedingUniqueKey;
+  private final long violationCount;
+
+  OrderingViolation(
+      String partition, long position, String uniqueKey, String precedingUniqueKey,
+      long violationCount) {
+    this.partition = partition;
+    this.position = position;
+    this.uniqueKey = uniqueKey;
+    this.precedingUniqueKey = precedingUniqueKey;
+    this.violationCount = violationCount;
+  }
+
+  public String getPartition() {
+    return partition;
+  }
+
+  /**
+   * This method returns the position of the out of order key among the keys of its partition.
+   * @return Zero based position in the partition.
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  public String getUniqueKey() {
+    return uniqueKey;
+  }
+
+  /**
+   * This method returns the key found ahead of the out of order key in the partition,
+   * although it was expected after it.
+   * @return Preceding unique key.
+   */
+  public String getPrecedingUniqueKey() {
+    return precedingUniqueKey;
+  }
+
+  /**
+   * This method returns the number of keys found out of order in the partition,
+   * including the first one.
+   * @return Number of out of order keys.
+   */
+  public long getViolationCount() {
+    return violationCount;
+  }
+
+  @Override
+  public String toString() {
+    return partition + "@" + position + ": " + uniqueKey + " after " + precedingUniqueKey
+        + (violationCount > 1 ? " (" + violationCount + " out of order)" : "");
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.verifiers;
+
+import io.confluent.connect.test.sdk.commons.DeliveryGuarantee;
+import io.confluent.connect.test.sdk.commons.sketches.DifferenceSketch;
+import io.confluent.connect.test.sdk.commons.sketches.KeyHashes;
+import io.confluent.connect.test.sdk.commons.sketches.KeySketch;
+
+import java.util.Map;
+
+/**
+ * This class checks the unique keys extracted from the end system against the sketch of the
+ * published keys (@see KeySketch), in a single streaming pass and a fixed amount of memory.
+ * Every actual key is removed from a copy of the difference sketch of the published keys,
+ * which then holds the keys whose number of occurrences differs: missing keys, extra
+ * occurrences of published keys and unexpected keys. The Bloom filter of the published keys
+ * tells the last two apart.
+ * The check is a fast path which never passes when an exact verification would fail, short of
+ * a collision of 61 bit key hashes. It is inconclusive when there are more differences than
+ * the sketch can recover, in which case the keys should be verified exactly.
+ * The ordering of the keys is not checked.
+ */
+public class SketchVerifier {
+
+  private final KeySketch expectedKeys;
+  private final DifferenceSketch differenceSketch;
+  private final long expectedCount;
+  private long actualCount = 0;
+  private boolean decoded = false;
+  private boolean recovered = false;
+  private long missingCount = 0;
+  private long duplicateCount = 0;
+  private long unexpectedCount = 0;
+
+  /**
+   * Constructor for SketchVerifier against the keys published so far.
+   * @param expectedKeys Sketch of the published unique keys.
+   */
+  public SketchVerifier(KeySketch expectedKeys) {
+    this.expectedKeys = expectedKeys;
+    synchronized (expectedKeys) {
+      this.differenceSketch = expectedKeys.copyDifferenceSketch();
+      this.expectedCount = expectedKeys.getCount();
+    }
+  }
+
+  /**
+   * This method checks the next unique key extracted from the end system.
+   * @param uniqueKey Actual unique key.
+   */
+  public void accept(String uniqueKey) {
+    differenceSketch.remove(KeyHashes.hash(uniqueKey));
+    actualCount++;
+    decoded = false;
+  }
+
+  /**
+   * This method checks the next unique keys extracted from the end system.
+   * @param uniqueKeys Actual unique keys.
+   */
+  public void acceptAll(Iterable<String> uniqueKeys) {
+    for (String uniqueKey : uniqueKeys) {
+      accept(uniqueKey);
+    }
+  }
+
+  /**
+   * This method tells whether the differences between the published and the actual keys
+   * could be recovered from the sketch, so that the counts of this verifier are exact.
+   * @return true if the differences were recovered.
+   */
+  public boolean isConclusive() {
+    decode();
+    return recovered;
+  }
+
+  /**
+   * This method tells whether the actual keys checked so far satisfy the delivery guarantee.
+   * @param deliveryGuarantee delivery guarantee of the connector
+   * @return true if the differences were recovered and satisfy the delivery guarantee,
+   *         false if they do not or if the check is inconclusive.
+   */
+  public boolean isSuccessful(DeliveryGuarantee deliveryGuarantee) {
+    if (!isConclusive()) {
+      return false;
+    }
+    switch (deliveryGuarantee) {
+      case AT_LEAST_ONCE:
+        return missingCount == 0;
+      case EXACTLY_ONCE:
+        return missingCount == 0 && duplicateCount == 0 && unexpectedCount == 0;
+      case AT_MOST_ONCE:
+        return duplicateCount == 0 && unexpectedCount == 0;
+      default:
+        throw new IllegalStateException("Unknown delivery guarantee: " + deliveryGuarantee);
+    }
+  }
+
+  public long getExpectedCount() {
+    return expectedCount;
+  }
+
+  public long getActualCount() {
+    return actualCount;
+  }
+
+  /**
+   * This method returns the number of published keys which were not found in the end system.
+   * @return Number of missing keys, or -1 if the check is inconclusive.
+   */
+  public long getMissingCount() {
+    return isConclusive() ? missingCount : -1;
+  }
+
+  /**
+   * This method returns the number of published keys which were found more than once
+   * in the end system.
+   * @return Number of duplicated keys, or -1 if the check is inconclusive.
+   */
+  public long getDuplicateCount() {
+    return isConclusive() ? duplicateCount : -1;
+  }
+
+  /**
+   * This method returns the number of keys which were found in the end system but were
+   * never published. Unexpected keys which are false positives of the Bloom filter are
+   * counted as duplicates instead, which makes no difference to the delivery guarantees.
+   * @return Number of unexpected keys, or -1 if the check is inconclusive.
+   */
+  public long getUnexpectedCount() {
+    return isConclusive() ? unexpectedCount : -1;
+  }
+
+  private void decode() {
+    if (decoded) {
+      return;
+    }
+    Map<Long, Long> differences = differenceSketch.decode();
+    recovered = differences != null;
+    missingCount = 0;
+    duplicateCount = 0;
+    unexpectedCount = 0;
+    if (recovered) {
+      for (Map.Entry<Long, Long> difference : differences.entrySet()) {
+        if (difference.getValue() > 0) {
+          missingCount++;
+        } else if (expectedKeys.mightContain(difference.getKey())) {
+          duplicateCount++;
+        } else {
+          unexpectedCount++;
+        }
+      }
+    }
+    decoded = true;
+  }
+
+  @Override
+  public String toString() {
+    return "SketchVerifier{"
+        + "expectedCount=" + expectedCount
+        + ", actualCount=" + actualCount
+        + ", conclusive=" + isConclusive()
+        + ", missing=" + missingCount
+        + ", duplicates=" + duplicateCount
+        + ", unexpected=" + unexpectedCount
+        + '}';
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.verifiers;
+
+import io.confluent.connect.test.sdk.commons.DeliveryGuarantee;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the outcome of comparing the expected unique keys against the actual
+ * unique keys found in the end system.
+ */
+public class VerificationResult {
+
+  private static final int MAX_KEYS_IN_SUMMARY = 10;
+
+  private final DeliveryGuarantee deliveryGuarantee;
+  private final boolean inorder;
+  private final long expectedCount;
+  private final long actualCount;
+  private final List<String> missingKeys;
+  private final long missingCount;
+  private final Map<String, Integer> duplicateCounts;
+  private final long duplicateCount;
+  private final List<String> unexpectedKeys;
+  private final long unexpectedCount;
+  private final List<Integer> outOfOrderPositions;
+  private final Map<String, OrderingViolation> orderingViolations;
+
+  VerificationResult(
+      DeliveryGuarantee deliveryGuarantee, boolean inorder,
+      long expectedCount, long actualCount,
+      List<String> missingKeys, Map<String, Integer> duplicateCounts,
+      List<String> unexpectedKeys, List<Integer> outOfOrderPositions) {
+    this(deliveryGuarantee, inorder, expectedCount, actualCount,
+        missingKeys, duplicateCounts, unexpectedKeys, outOfOrderPositions,
+        Collections.emptyMap());
+  }
+
+  VerificationResult(
+      DeliveryGuarantee deliveryGuarantee, boolean inorder,
+      long expectedCount, long actualCount,
+      List<String> missingKeys, Map<String, Integer> duplicateCounts,
+      List<String> unexpectedKeys, List<Integer> outOfOrderPositions,
+      Map<String, OrderingViolation> orderingViolations) {
+    this(deliveryGuarantee, inorder, expectedCount, actualCount,
+        missingKeys, missingKeys.size(), duplicateCounts, duplicateCounts.size(),
+        unexpectedKeys, unexpectedKeys.size(), outOfOrderPositions, orderingViolations);
+  }
+
+  VerificationResult(
+      DeliveryGuarantee deliveryGuarantee, boolean inorder,
+      long expectedCount, long actualCount,
+      List<String> missingKeys, long missingCount,
+      Map<String, Integer> duplicateCounts, long duplicateCount,
+      List<String> unexpectedKeys, long unexpectedCount,
+      List<Integer> outOfOrderPositions, Map<String, OrderingViolation> orderingViolations) {
+    this.deliveryGuarantee = deliveryGuarantee;
+    this.inorder = inorder;
+    this.expectedCount = expectedCount;
+    this.actualCount = actualCount;
+    this.missingKeys = Collections.unmodifiableList(missingKeys);
+    this.missingCount = missingCount;
+    this.duplicateCounts = Collections.unmodifiableMap(duplicateCounts);
+    this.duplicateCount = duplicateCount;
+    this.unexpectedKeys = Collections.unmodifiableList(unexpectedKeys);
+    this.unexpectedCount = unexpectedCount;
+    this.outOfOrderPositions = Collections.unmodifiableList(outOfOrderPositions);
+    this.orderingViolations = Collections.unmodifiableMap(orderingViolations);
+  }
+
+  public DeliveryGuarantee getDeliveryGuarantee() {
+    return deliveryGuarantee;
+  }
+
+  public boolean isInorder() {
+    return inorder;
+  }
+
+  public long getExpectedCount() {
+    return expectedCount;
+  }
+
+  public long getActualCount() {
+    return actualCount;
+  }
+
+  /**
+   * This method returns the expected keys which were not found in the end system,
+   * in the order they were expected.
+   * @return List of missing keys.
+   */
+  public List<String> getMissingKeys() {
+    return missingKeys;
+  }
+
+  /**
+   * This method returns the number of expected keys which were not found in the end system,
+   * which is larger than the number of missing keys returned if they were too many to be kept.
+   * @return Number of missing keys.
+   */
+  public long getMissingCount() {
+    return missingCount;
+  }
+
+  /**
+   * This method returns the keys which were found more than once in the end system.
+   * @return Map of duplicated key to the number of times it was found.
+   */
+  public Map<String, Integer> getDuplicateCounts() {
+    return duplicateCounts;
+  }
+
+  /**
+   * This method returns the number of keys which were found more than once in the end system,
+   * which is larger than the number of duplicates returned if they were too many to be kept.
+   * @return Number of duplicated keys.
+   */
+  public long getDuplicateCount() {
+    return duplicateCount;
+  }
+
+  /**
+   * This method returns the keys which were found in the end system but were never expected.
+   * @return List of unexpected keys.
+   */
+  public List<String> getUnexpectedKeys() {
+    return unexpectedKeys;
+  }
+
+  /**
+   * This method returns the number of keys which were found in the end system but were never
+   * expected, which is larger than the number of unexpected keys returned if they were too many
+   * to be kept.
+   * @return Number of unexpected keys.
+   */
+  public long getUnexpectedCount() {
+    return unexpectedCount;
+  }
+
+  /**
+   * This method returns the positions in the actual key list at which a key was found
+   * before a key that was expected ahead of it. Only first occurrences are considered.
+   * @return List of out of order positions.
+   */
+  public List<Integer> getOutOfOrderPositions() {
+    return outOfOrderPositions;
+  }
+
+  /**
+   * This method returns the first key found out of order in every partition of the end system,
+   * when the actual keys were verified per partition. Empty if they were verified as a
+   * single list, in which case the ordering is reported by {@link #getOutOfOrderPositions()}.
+   * @return Map of partition to its first ordering violation.
+   */
+  public Map<String, OrderingViolation> getOrderingViolations() {
+    return orderingViolations;
+  }
+
+  /**
+   * This method tells whether the actual keys satisfy the delivery guarantee
+   * and, if requested, the ordering.
+   * @return true if verification passed.
+   */
+  public boolean isSuccessful() {
+    if (inorder && (!outOfOrderPositions.isEmpty() || !orderingViolations.isEmpty())) {
+      return false;
+    }
+    switch (deliveryGuarantee) {
+      case AT_LEAST_ONCE:
+        return missingCount == 0 && (!inorder || unexpectedCount == 0);
+      case EXACTLY_ONCE:
+        return missingCount == 0 && duplicateCount == 0 && unexpectedCount == 0;
+      case AT_MOST_ONCE:
+        return duplicateCount == 0 && unexpectedCount == 0;
+      default:
+        throw new IllegalStateException("Unknown delivery guarantee: " + deliveryGuarantee);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "VerificationResult{"
+        + "deliveryGuarantee=" + deliveryGuarantee
+        + ", inorder=" + inorder
+        + ", successful=" + isSuccessful()
+        + ", expectedCount=" + expectedCount
+        + ", actualCount=" + actualCount
+        + ", missing=" + summarize(missingKeys, missingCount)
+        + ", duplicates=" + summarize(duplicateCounts.keySet(), duplicateCount)
+        + ", unexpected=" + summarize(unexpectedKeys, unexpectedCount)
+        + ", outOfOrderPositions=" + summarize(outOfOrderPositions, outOfOrderPositions.size())
+        + ", orderingViolations="
+        + summarize(orderingViolations.values(), orderingViolations.size())
+        + '}';
+  }
+
+  private static String summarize(Collection<?> values, long count) {
+    StringBuilder builder = new StringBuilder();
+    builder.append(count).append(" [");
+    int i = 0;
+    for (Object value : values) {
+      if (i == MAX_KEYS_IN_SUMMARY) {
+        break;
+      }
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(value);
+      i++;
+    }
+    if (i < count) {
+      builder.append(i > 0 ? ", ..." : "...");
+    }
+    return builder.append(']').toString();
+  }
+}
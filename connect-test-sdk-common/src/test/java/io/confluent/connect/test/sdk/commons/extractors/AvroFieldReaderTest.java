@@ -0,0 +1,206 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.extractors;
+
+import io.confluent.connect.test.sdk.commons.InMemorySchemaRegistry;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class AvroFieldReaderTest {
+
+  private static final String TOPIC = "topic";
+
+  private static final Schema COLOR = SchemaBuilder.enumeration("Color")
+      .namespace("io.confluent.test").symbols("RED", "GREEN", "BLUE");
+  private static final Schema POINT = SchemaBuilder.record("Point")
+      .namespace("io.confluent.test").fields()
+      .requiredDouble("x")
+      .requiredFloat("y")
+      .endRecord();
+  private static final Schema ADDRESS = SchemaBuilder.record("Address")
+      .namespace("io.confluent.test").fields()
+      .requiredString("street")
+      .name("location").type(POINT).noDefault()
+      .name("lines").type().array().items().stringType().noDefault()
+      .requiredString("city")
+      .endRecord();
+  // every kind of field before the id, which must be skipped to read it
+  private static final Schema CUSTOMER = SchemaBuilder.record("Customer")
+      .namespace("io.confluent.test").fields()
+      .name("address").type(ADDRESS).noDefault()
+      .optionalString("nickname")
+      .optionalLong("referrer")
+      .name("color").type(COLOR).noDefault()
+      .name("attributes").type().map().values(POINT).noDefault()
+      .name("scores").type().map().values().longType().noDefault()
+      .requiredBoolean("active")
+      .requiredBytes("payload")
+      .name("checksum").type().fixed("Checksum").size(4).noDefault()
+      .name("previous").type().unionOf().nullType().and().type(ADDRESS).endUnion()
+      .nullDefault()
+      .requiredString("id")
+      .requiredInt("version")
+      .endRecord();
+
+  private InMemorySchemaRegistry schemaRegistry;
+  private KafkaAvroSerializer serializer;
+
+  @Before
+  public void setUp() throws IOException {
+    schemaRegistry = new InMemorySchemaRegistry();
+    schemaRegistry.start();
+    serializer = new KafkaAvroSerializer();
+    serializer.configure(
+        Collections.singletonMap("schema.registry.url", schemaRegistry.schemaRegistryUrl()),
+        false);
+  }
+
+  @After
+  public void tearDown() {
+    serializer.close();
+    schemaRegistry.stop();
+  }
+
+  @Test
+  public void testReadFieldAfterComplexFields() {
+    byte[] value = serializer.serialize(TOPIC, customer("customer-1", 3));
+
+    Assert.assertEquals("customer-1", reader("id").read(value));
+    Assert.assertEquals("3", reader("version").read(value));
+  }
+
+  @Test
+  public void testReadNestedField() {
+    byte[] value = serializer.serialize(TOPIC, customer("customer-1", 3));
+
+    Assert.assertEquals("Main Street", reader("address.street").read(value));
+    Assert.assertEquals("Springfield", reader("address.city").read(value));
+    Assert.assertEquals("1.5", reader("address.location.x").read(value));
+    Assert.assertEquals("-2.25", reader("address.location.y").read(value));
+    Assert.assertEquals("Old Street", reader("previous.street").read(value));
+  }
+
+  @Test
+  public void testReadUnionsAndEnums() {
+    GenericRecord record = customer("customer-1", 3);
+    byte[] value = serializer.serialize(TOPIC, record);
+
+    Assert.assertEquals("Bart", reader("nickname").read(value));
+    Assert.assertNull(reader("referrer").read(value));
+    Assert.assertEquals("GREEN", reader("color").read(value));
+    Assert.assertEquals("true", reader("active").read(value));
+
+    record.put("nickname", null);
+    record.put("referrer", 42L);
+    record.put("previous", null);
+    value = serializer.serialize(TOPIC, record);
+    Assert.assertNull(reader("nickname").read(value));
+    Assert.assertEquals("42", reader("referrer").read(value));
+    Assert.assertNull(reader("previous.street").read(value));
+    Assert.assertEquals("customer-1", reader("id").read(value));
+  }
+
+  @Test
+  public void testEmptyCollections() {
+    GenericRecord record = customer("customer-2", 1);
+    record.put("attributes", Collections.emptyMap());
+    record.put("scores", Collections.emptyMap());
+    ((GenericRecord) record.get("address")).put("lines", Collections.emptyList());
+    byte[] value = serializer.serialize(TOPIC, record);
+
+    Assert.assertEquals("customer-2", reader("id").read(value));
+  }
+
+  @Test
+  public void testMissingField() {
+    byte[] value = serializer.serialize(TOPIC, customer("customer-1", 3));
+
+    Assert.assertNull(reader("unknown").read(value));
+    Assert.assertNull(reader("address.unknown").read(value));
+    // a field which is not a record has no nested fields
+    Assert.assertNull(reader("id.unknown").read(value));
+  }
+
+  @Test
+  public void testSeveralWriterSchemas() {
+    Schema other = SchemaBuilder.record("Order").namespace("io.confluent.test").fields()
+        .name("items").type().map().values().stringType().noDefault()
+        .requiredString("id")
+        .endRecord();
+    GenericRecord order = new GenericData.Record(other);
+    order.put("items", Collections.singletonMap("book", "2"));
+    order.put("id", "order-1");
+    AvroFieldReader reader = reader("id");
+
+    Assert.assertEquals("customer-1",
+        reader.read(serializer.serialize(TOPIC, customer("customer-1", 3))));
+    Assert.assertEquals("order-1", reader.read(serializer.serialize("other", order)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotInWireFormat() {
+    reader("id").read(new byte[] {1, 2, 3});
+  }
+
+  private AvroFieldReader reader(String fieldPath) {
+    return new AvroFieldReader(schemaRegistry.schemaRegistryUrl(), fieldPath.split("\\."));
+  }
+
+  private static GenericRecord customer(String id, int version) {
+    GenericRecord customer = new GenericData.Record(CUSTOMER);
+    customer.put("address", address("Main Street", "Springfield"));
+    customer.put("nickname", "Bart");
+    customer.put("referrer", null);
+    customer.put("color", new GenericData.EnumSymbol(COLOR, "GREEN"));
+    Map<String, GenericRecord> attributes = new LinkedHashMap<>();
+    attributes.put("home", point(1, 2));
+    attributes.put("work", point(3, 4));
+    customer.put("attributes", attributes);
+    Map<String, Long> scores = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      scores.put("score-" + i, (long) i * 1000);
+    }
+    customer.put("scores", scores);
+    customer.put("active", true);
+    customer.put("payload", ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5}));
+    customer.put("checksum", new GenericData.Fixed(
+        CUSTOMER.getField("checksum").schema(), new byte[] {9, 8, 7, 6}));
+    customer.put("previous", address("Old Street", "Shelbyville"));
+    customer.put("id", id);
+    customer.put("version", version);
+    return customer;
+  }
+
+  private static GenericRecord address(String street, String city) {
+    GenericRecord address = new GenericData.Record(ADDRESS);
+    address.put("street", street);
+    address.put("location", point(1.5, -2.25f));
+    address.put("lines", Arrays.asList("Apartment 1", "Floor 2"));
+    address.put("city", city);
+    return address;
+  }
+
+  private static GenericRecord point(double x, float y) {
+    GenericRecord point = new GenericData.Record(POINT);
+    point.put("x", x);
+    point.put("y", y);
+    return point;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.publishers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+public class UniqueIdLedgerTest {
+
+  private static final UniqueIdCodec CODEC =
+      new KafkaStringDataPublisher(null, "topic").getUniqueIdCodec();
+
+  @Test
+  public void testRangesRoundTrip() {
+    UniqueIdLedger ledger = new UniqueIdLedger();
+    ledger.addRange(0, 3);
+    ledger.add(3);
+    ledger.addRange(10, 2);
+    ledger.addRange(12, 0);
+    ledger.add(20);
+    ledger.addRange(21, 2);
+
+    List<Integer> expected = Arrays.asList(0, 1, 2, 3, 10, 11, 20, 21, 22);
+    Assert.assertEquals(expected.size(), ledger.size());
+    // adjacent ranges are merged into one
+    Assert.assertEquals(3, ledger.rangeCount());
+    Assert.assertEquals(expected, toList(ledger));
+    for (int rawUniqueId = -1; rawUniqueId < 25; rawUniqueId++) {
+      Assert.assertEquals(String.valueOf(rawUniqueId),
+          expected.contains(rawUniqueId), ledger.contains(rawUniqueId));
+    }
+  }
+
+  @Test
+  public void testManyRanges() {
+    UniqueIdLedger ledger = new UniqueIdLedger();
+    List<Integer> expected = new ArrayList<>();
+    for (int range = 0; range < 1000; range++) {
+      int first = range * 10;
+      int count = range % 7 + 1;
+      ledger.addRange(first, count);
+      for (int i = 0; i < count; i++) {
+        expected.add(first + i);
+      }
+    }
+
+    Assert.assertEquals(expected.size(), ledger.size());
+    Assert.assertEquals(1000, ledger.rangeCount());
+    Assert.assertEquals(expected, toList(ledger));
+    Assert.assertTrue(ledger.contains(9990));
+    Assert.assertFalse(ledger.contains(9989));
+  }
+
+  @Test
+  public void testEmptyLedger() {
+    UniqueIdLedger ledger = new UniqueIdLedger();
+
+    Assert.assertEquals(0, ledger.size());
+    Assert.assertEquals(0, ledger.rangeCount());
+    Assert.assertFalse(ledger.contains(0));
+    Assert.assertFalse(ledger.iterator().hasNext());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testIteratorPastTheEnd() {
+    UniqueIdLedger ledger = new UniqueIdLedger();
+    ledger.add(5);
+    PrimitiveIterator.OfInt rawUniqueIds = ledger.iterator();
+    Assert.assertEquals(5, rawUniqueIds.nextInt());
+    rawUniqueIds.nextInt();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeRawUniqueId() {
+    new UniqueIdLedger().add(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDecreasingRawUniqueIds() {
+    UniqueIdLedger ledger = new UniqueIdLedger();
+    ledger.addRange(5, 5);
+    ledger.add(9);
+  }
+
+  @Test
+  public void testToUniqueIds() {
+    UniqueIdLedger ledger = new UniqueIdLedger();
+    ledger.addRange(0, 2);
+    ledger.add(7);
+
+    Assert.assertEquals(
+        Arrays.asList("Value_0", "Value_1", "Value_7"), ledger.toUniqueIds(CODEC));
+  }
+
+  @Test
+  public void testCodecRejectsNonCanonicalUniqueIds() {
+    Assert.assertEquals(42, CODEC.parse("Value_42"));
+    Assert.assertEquals(-1, CODEC.parse("Value_042"));
+    Assert.assertEquals(-1, CODEC.parse("Value_+42"));
+    Assert.assertEquals(-1, CODEC.parse("Value_-1"));
+    Assert.assertEquals(-1, CODEC.parse("Value_"));
+    Assert.assertEquals(-1, CODEC.parse("Other_42"));
+    Assert.assertEquals(-1, CODEC.parse(null));
+  }
+
+  private static List<Integer> toList(UniqueIdLedger ledger) {
+    List<Integer> rawUniqueIds = new ArrayList<>();
+    ledger.iterator().forEachRemaining((int rawUniqueId) -> rawUniqueIds.add(rawUniqueId));
+    return rawUniqueIds;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.sketches;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class DifferenceSketchTest {
+
+  private static final int MAX_DIFFERENCES = 100;
+  private static final int KEY_COUNT = 10000;
+
+  @Test
+  public void testEqualMultisets() {
+    DifferenceSketch sketch = new DifferenceSketch(MAX_DIFFERENCES);
+    for (int i = 0; i < KEY_COUNT; i++) {
+      sketch.add(hash(i));
+    }
+    for (int i = KEY_COUNT - 1; i >= 0; i--) {
+      sketch.remove(hash(i));
+    }
+
+    Assert.assertEquals(new HashMap<Long, Long>(), sketch.decode());
+  }
+
+  @Test
+  public void testDecodeBelowCapacity() {
+    for (int differences : new int[] {1, MAX_DIFFERENCES / 2, MAX_DIFFERENCES}) {
+      DifferenceSketch sketch = new DifferenceSketch(MAX_DIFFERENCES);
+      Map<Long, Long> expected = addWithDifferences(sketch, differences);
+
+      Assert.assertEquals(expected, sketch.decode());
+      // decoding does not modify the sketch
+      Assert.assertEquals(expected, sketch.decode());
+    }
+  }
+
+  @Test
+  public void testDecodeAboveCapacity() {
+    DifferenceSketch sketch = new DifferenceSketch(MAX_DIFFERENCES);
+    addWithDifferences(sketch, 10 * MAX_DIFFERENCES);
+
+    Assert.assertNull(sketch.decode());
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    DifferenceSketch sketch = new DifferenceSketch(MAX_DIFFERENCES);
+    sketch.add(hash(1));
+    DifferenceSketch copy = sketch.copy();
+    copy.remove(hash(1));
+
+    Assert.assertEquals(1, sketch.decode().size());
+    Assert.assertEquals(0, copy.decode().size());
+    Assert.assertEquals(sketch.getCellCount(), copy.getCellCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxDifferences() {
+    new DifferenceSketch(0);
+  }
+
+  /**
+   * Add the keys to the sketch and remove them again, except for the given number of
+   * differences: keys which are never removed, removed twice, or only removed.
+   * @return Expected differences by key hash.
+   */
+  private static Map<Long, Long> addWithDifferences(DifferenceSketch sketch, int differences) {
+    Map<Long, Long> expected = new HashMap<>();
+    for (int i = 0; i < KEY_COUNT; i++) {
+      sketch.add(hash(i));
+    }
+    for (int i = 0; i < KEY_COUNT; i++) {
+      if (i < differences && i % 3 == 0) {
+        expected.put(hash(i), 1L);
+        continue;
+      }
+      sketch.remove(hash(i));
+      if (i < differences && i % 3 == 1) {
+        sketch.remove(hash(i));
+        expected.put(hash(i), -1L);
+      }
+    }
+    for (int i = 0; i < differences; i++) {
+      if (i % 3 == 2) {
+        sketch.remove(hash(KEY_COUNT + i));
+        expected.put(hash(KEY_COUNT + i), -1L);
+      }
+    }
+    return expected;
+  }
+
+  private static long hash(int rawUniqueId) {
+    return KeyHashes.hash("Value_" + rawUniqueId);
+  }
+}
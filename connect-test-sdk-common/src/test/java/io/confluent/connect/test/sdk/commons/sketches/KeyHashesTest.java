@@ -0,0 +1,72 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.sketches;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+public class KeyHashesTest {
+
+  private static final BigInteger MODULUS = BigInteger.valueOf(KeyHashes.MODULUS);
+
+  @Test
+  public void testHashIsReduced() {
+    for (int i = 0; i < 10000; i++) {
+      long hash = KeyHashes.hash("Value_" + i);
+      Assert.assertTrue(hash >= 0 && hash < KeyHashes.MODULUS);
+    }
+    Assert.assertEquals(KeyHashes.hash("Value_1"), KeyHashes.hash("Value_1"));
+    Assert.assertNotEquals(KeyHashes.hash("Value_1"), KeyHashes.hash("Value_01"));
+  }
+
+  @Test
+  public void testModMatchesBigInteger() {
+    long[] values = {0, 1, KeyHashes.MODULUS - 1, KeyHashes.MODULUS, KeyHashes.MODULUS + 1,
+        Long.MAX_VALUE, Long.MIN_VALUE, -1};
+    for (long value : values) {
+      Assert.assertEquals(String.valueOf(value),
+          unsigned(value).mod(MODULUS).longValue(), KeyHashes.mod(value));
+      Assert.assertEquals(String.valueOf(value),
+          BigInteger.valueOf(value).mod(MODULUS).longValue(), KeyHashes.modSigned(value));
+    }
+  }
+
+  @Test
+  public void testArithmeticMatchesBigInteger() {
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      long a = i == 0 ? KeyHashes.MODULUS - 1 : KeyHashes.mod(random.nextLong());
+      long b = i == 0 ? KeyHashes.MODULUS - 1 : KeyHashes.mod(random.nextLong());
+      BigInteger bigA = BigInteger.valueOf(a);
+      BigInteger bigB = BigInteger.valueOf(b);
+
+      Assert.assertEquals(bigA.add(bigB).mod(MODULUS).longValue(), KeyHashes.addMod(a, b));
+      Assert.assertEquals(
+          bigA.subtract(bigB).mod(MODULUS).longValue(), KeyHashes.subtractMod(a, b));
+      Assert.assertEquals(
+          bigA.multiply(bigB).mod(MODULUS).longValue(), KeyHashes.multiplyMod(a, b));
+    }
+  }
+
+  @Test
+  public void testInverse() {
+    Random random = new Random(42);
+    long[] values = {1, 2, 3, KeyHashes.MODULUS - 1, KeyHashes.modSigned(-5),
+        KeyHashes.mod(random.nextLong()), KeyHashes.mod(random.nextLong())};
+    for (long value : values) {
+      long inverse = KeyHashes.inverseMod(value);
+      Assert.assertEquals(BigInteger.valueOf(value).modInverse(MODULUS).longValue(), inverse);
+      Assert.assertEquals(1, KeyHashes.multiplyMod(value, inverse));
+    }
+  }
+
+  private static BigInteger unsigned(long value) {
+    BigInteger bigValue = BigInteger.valueOf(value);
+    return value >= 0 ? bigValue : bigValue.add(BigInteger.ONE.shiftLeft(Long.SIZE));
+  }
+}
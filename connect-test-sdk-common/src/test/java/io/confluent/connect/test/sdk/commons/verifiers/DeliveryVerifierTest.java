@@ -0,0 +1,164 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.verifiers;
+
+import io.confluent.connect.test.sdk.commons.DeliveryGuarantee;
+import io.confluent.connect.test.sdk.commons.publishers.KafkaStringDataPublisher;
+import io.confluent.connect.test.sdk.commons.publishers.UniqueIdCodec;
+import io.confluent.connect.test.sdk.commons.publishers.UniqueIdLedger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DeliveryVerifierTest {
+
+  private static final UniqueIdCodec CODEC =
+      new KafkaStringDataPublisher(null, "topic").getUniqueIdCodec();
+  private static final int EXPECTED_COUNT = 10;
+
+  @Test
+  public void testExactDelivery() {
+    List<String> actual = keys(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    for (VerificationResult result : verifyAll(actual, true)) {
+      assertCounts(result, 0, 0, 0);
+      Assert.assertTrue(result.isSuccessful());
+    }
+  }
+
+  @Test
+  public void testMissingKeys() {
+    List<String> actual = keys(0, 1, 3, 4, 5, 6, 7, 8);
+    for (DeliveryGuarantee deliveryGuarantee : DeliveryGuarantee.values()) {
+      for (VerificationResult result : verifyAll(actual, deliveryGuarantee, false)) {
+        assertCounts(result, 2, 0, 0);
+        Assert.assertEquals(keys(2, 9), result.getMissingKeys());
+        Assert.assertEquals(
+            deliveryGuarantee == DeliveryGuarantee.AT_MOST_ONCE, result.isSuccessful());
+      }
+    }
+  }
+
+  @Test
+  public void testDuplicateKeys() {
+    List<String> actual = keys(0, 1, 1, 1, 2, 3, 4, 5, 6, 7, 8, 9, 9);
+    for (DeliveryGuarantee deliveryGuarantee : DeliveryGuarantee.values()) {
+      for (VerificationResult result : verifyAll(actual, deliveryGuarantee, false)) {
+        assertCounts(result, 0, 2, 0);
+        Map<String, Integer> duplicateCounts = new LinkedHashMap<>();
+        duplicateCounts.put("Value_1", 3);
+        duplicateCounts.put("Value_9", 2);
+        Assert.assertEquals(duplicateCounts, result.getDuplicateCounts());
+        Assert.assertEquals(
+            deliveryGuarantee == DeliveryGuarantee.AT_LEAST_ONCE, result.isSuccessful());
+      }
+    }
+  }
+
+  @Test
+  public void testUnexpectedKeys() {
+    List<String> actual = new ArrayList<>(keys(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 42));
+    // a non canonical form of a published key is not that key
+    actual.add("Value_05");
+    for (DeliveryGuarantee deliveryGuarantee : DeliveryGuarantee.values()) {
+      for (VerificationResult result : verifyAll(actual, deliveryGuarantee, false)) {
+        assertCounts(result, 0, 0, 2);
+        Assert.assertEquals(Arrays.asList("Value_42", "Value_05"), result.getUnexpectedKeys());
+        Assert.assertEquals(
+            deliveryGuarantee == DeliveryGuarantee.AT_LEAST_ONCE, result.isSuccessful());
+      }
+      // unexpected keys break the order of at least once delivery
+      for (VerificationResult result : verifyAll(actual, deliveryGuarantee, true)) {
+        Assert.assertFalse(result.isSuccessful());
+      }
+    }
+  }
+
+  @Test
+  public void testAllDifferences() {
+    List<String> actual = keys(0, 1, 1, 1, 3, 4, 5, 6, 7, 8, 42);
+    for (DeliveryGuarantee deliveryGuarantee : DeliveryGuarantee.values()) {
+      for (VerificationResult result : verifyAll(actual, deliveryGuarantee, false)) {
+        assertCounts(result, 2, 1, 1);
+        Assert.assertEquals(EXPECTED_COUNT, result.getExpectedCount());
+        Assert.assertEquals(actual.size(), result.getActualCount());
+        Assert.assertFalse(result.isSuccessful());
+      }
+    }
+  }
+
+  @Test
+  public void testOutOfOrderKeys() {
+    List<String> actual = keys(0, 1, 2, 5, 3, 4, 6, 7, 8, 9);
+    for (VerificationResult result : verifyAll(actual, false)) {
+      assertCounts(result, 0, 0, 0);
+      Assert.assertTrue(result.isSuccessful());
+    }
+    for (VerificationResult result : verifyAll(actual, true)) {
+      assertCounts(result, 0, 0, 0);
+      Assert.assertEquals(Arrays.asList(4, 5), result.getOutOfOrderPositions());
+      Assert.assertFalse(result.isSuccessful());
+    }
+  }
+
+  @Test
+  public void testOrderPerPartition() {
+    Map<String, List<String>> actual = new LinkedHashMap<>();
+    actual.put("topic-0", keys(1, 3, 5, 7, 9));
+    actual.put("topic-1", keys(0, 2, 6, 4, 8));
+    List<VerificationResult> results = Arrays.asList(
+        DeliveryVerifier.verify(expectedKeys(), actual, DeliveryGuarantee.EXACTLY_ONCE, true),
+        DeliveryVerifier.verify(
+            expectedLedger(), CODEC, actual, DeliveryGuarantee.EXACTLY_ONCE, true));
+    for (VerificationResult result : results) {
+      assertCounts(result, 0, 0, 0);
+      Assert.assertEquals(Collections.singleton("topic-1"),
+          result.getOrderingViolations().keySet());
+      Assert.assertFalse(result.isSuccessful());
+    }
+  }
+
+  private static List<VerificationResult> verifyAll(List<String> actual, boolean inorder) {
+    return verifyAll(actual, DeliveryGuarantee.EXACTLY_ONCE, inorder);
+  }
+
+  /** Verify the keys with the list and the ledger of the expected keys. */
+  private static List<VerificationResult> verifyAll(
+      List<String> actual, DeliveryGuarantee deliveryGuarantee, boolean inorder) {
+    return Arrays.asList(
+        DeliveryVerifier.verify(expectedKeys(), actual, deliveryGuarantee, inorder),
+        DeliveryVerifier.verify(expectedLedger(), CODEC, actual, deliveryGuarantee, inorder));
+  }
+
+  private static void assertCounts(
+      VerificationResult result, long missing, long duplicates, long unexpected) {
+    Assert.assertEquals(result.toString(), missing, result.getMissingCount());
+    Assert.assertEquals(result.toString(), duplicates, result.getDuplicateCount());
+    Assert.assertEquals(result.toString(), unexpected, result.getUnexpectedCount());
+  }
+
+  private static List<String> expectedKeys() {
+    return expectedLedger().toUniqueIds(CODEC);
+  }
+
+  private static UniqueIdLedger expectedLedger() {
+    UniqueIdLedger ledger = new UniqueIdLedger();
+    ledger.addRange(0, EXPECTED_COUNT);
+    return ledger;
+  }
+
+  private static List<String> keys(int... rawUniqueIds) {
+    List<String> keys = new ArrayList<>();
+    for (int rawUniqueId : rawUniqueIds) {
+      keys.add(CODEC.format(rawUniqueId));
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.verifiers;
+
+import io.confluent.connect.test.sdk.commons.DeliveryGuarantee;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class ExternalDeliveryVerifierTest {
+
+  private static final int KEYS_PER_RUN = 2;
+  // enough keys for more runs of each side than can be merged at once
+  private static final int EXPECTED_COUNT = 3 * ExternalDeliveryVerifier.MAX_MERGE_WIDTH
+      * KEYS_PER_RUN;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testMatchesInMemoryVerification() throws IOException {
+    List<String> expected = expectedKeys();
+    List<String> actual = actualKeys(expected);
+    Path directory = folder.getRoot().toPath();
+
+    try (ExternalDeliveryVerifier verifier = new ExternalDeliveryVerifier(directory)) {
+      verifier.setKeysPerRun(KEYS_PER_RUN);
+      verifier.addExpected(expected);
+      for (String uniqueKey : actual) {
+        verifier.addActual(uniqueKey);
+      }
+      Assert.assertEquals(expected.size(), verifier.getExpectedCount());
+      Assert.assertEquals(actual.size(), verifier.getActualCount());
+
+      for (DeliveryGuarantee deliveryGuarantee : DeliveryGuarantee.values()) {
+        VerificationResult inMemory =
+            DeliveryVerifier.verify(expected, actual, deliveryGuarantee, false);
+        VerificationResult external = verifier.verify(deliveryGuarantee);
+
+        Assert.assertEquals(inMemory.getMissingCount(), external.getMissingCount());
+        Assert.assertEquals(inMemory.getDuplicateCount(), external.getDuplicateCount());
+        Assert.assertEquals(inMemory.getUnexpectedCount(), external.getUnexpectedCount());
+        Assert.assertEquals(sorted(inMemory.getMissingKeys()), external.getMissingKeys());
+        Assert.assertEquals(new HashMap<>(inMemory.getDuplicateCounts()),
+            new HashMap<>(external.getDuplicateCounts()));
+        Assert.assertEquals(sorted(inMemory.getUnexpectedKeys()), external.getUnexpectedKeys());
+        Assert.assertEquals(inMemory.isSuccessful(), external.isSuccessful());
+      }
+      // the runs were merged down to less than the merge width on each side
+      Assert.assertTrue(countRunFiles(directory) < 2 * ExternalDeliveryVerifier.MAX_MERGE_WIDTH);
+    }
+    Assert.assertEquals(0, countRunFiles(directory));
+  }
+
+  @Test
+  public void testKeysAddedAfterVerification() {
+    List<String> expected = expectedKeys();
+    try (ExternalDeliveryVerifier verifier =
+        new ExternalDeliveryVerifier(folder.getRoot().toPath())) {
+      verifier.setKeysPerRun(KEYS_PER_RUN);
+      verifier.addExpected(expected);
+      verifier.addActual(expected.subList(0, EXPECTED_COUNT / 2));
+
+      VerificationResult partial = verifier.verify(DeliveryGuarantee.EXACTLY_ONCE);
+      Assert.assertEquals(EXPECTED_COUNT - EXPECTED_COUNT / 2, partial.getMissingCount());
+      Assert.assertFalse(partial.isSuccessful());
+
+      verifier.addActual(expected.subList(EXPECTED_COUNT / 2, EXPECTED_COUNT));
+      VerificationResult complete = verifier.verify(DeliveryGuarantee.EXACTLY_ONCE);
+      Assert.assertEquals(0, complete.getMissingCount());
+      Assert.assertTrue(complete.isSuccessful());
+    }
+  }
+
+  @Test
+  public void testMaxReportedKeys() {
+    List<String> expected = expectedKeys();
+    List<String> actual = actualKeys(expected);
+    VerificationResult inMemory =
+        DeliveryVerifier.verify(expected, actual, DeliveryGuarantee.EXACTLY_ONCE, false);
+    try (ExternalDeliveryVerifier verifier =
+        new ExternalDeliveryVerifier(folder.getRoot().toPath())) {
+      verifier.setKeysPerRun(KEYS_PER_RUN);
+      verifier.setMaxReportedKeys(3);
+      verifier.addExpected(expected);
+      verifier.addActual(actual);
+
+      VerificationResult external = verifier.verify(DeliveryGuarantee.EXACTLY_ONCE);
+      Assert.assertEquals(inMemory.getMissingCount(), external.getMissingCount());
+      Assert.assertEquals(inMemory.getDuplicateCount(), external.getDuplicateCount());
+      Assert.assertEquals(inMemory.getUnexpectedCount(), external.getUnexpectedCount());
+      Assert.assertEquals(sorted(inMemory.getMissingKeys()).subList(0, 3),
+          external.getMissingKeys());
+      Assert.assertEquals(3, external.getDuplicateCounts().size());
+      Assert.assertEquals(3, external.getUnexpectedKeys().size());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidKeysPerRun() {
+    try (ExternalDeliveryVerifier verifier =
+        new ExternalDeliveryVerifier(folder.getRoot().toPath())) {
+      verifier.setKeysPerRun(0);
+    }
+  }
+
+  /** Return the expected keys in a random order. */
+  private static List<String> expectedKeys() {
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < EXPECTED_COUNT; i++) {
+      expected.add("Value_" + i);
+    }
+    Collections.shuffle(expected, new Random(42));
+    return expected;
+  }
+
+  /**
+   * Return the expected keys without every 7th one, with every 5th one three times,
+   * and with unexpected keys, one of them twice, in a random order.
+   */
+  private static List<String> actualKeys(List<String> expected) {
+    List<String> actual = new ArrayList<>();
+    for (int i = 0; i < expected.size(); i++) {
+      if (i % 7 == 0) {
+        continue;
+      }
+      int occurrences = i % 5 == 0 ? 3 : 1;
+      for (int j = 0; j < occurrences; j++) {
+        actual.add(expected.get(i));
+      }
+    }
+    for (int i = 0; i < 10; i++) {
+      actual.add("Unexpected_" + i);
+    }
+    actual.add("Unexpected_0");
+    Collections.shuffle(actual, new Random(7));
+    return actual;
+  }
+
+  private static List<String> sorted(List<String> keys) {
+    List<String> sorted = new ArrayList<>(keys);
+    Collections.sort(sorted);
+    return sorted;
+  }
+
+  private static long countRunFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.commons.verifiers;
+
+import io.confluent.connect.test.sdk.commons.DeliveryGuarantee;
+import io.confluent.connect.test.sdk.commons.sketches.KeySketch;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class SketchVerifierTest {
+
+  private static final int EXPECTED_COUNT = 10000;
+  private static final int MAX_DIFFERENCES = 100;
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.0001;
+
+  @Test
+  public void testExactDelivery() {
+    List<String> expected = expectedKeys();
+    List<String> actual = new ArrayList<>(expected);
+    Collections.shuffle(actual, new Random(42));
+
+    SketchVerifier verifier = verify(expected, actual);
+    Assert.assertTrue(verifier.isConclusive());
+    assertMatchesExactVerification(verifier, expected, actual);
+    for (DeliveryGuarantee deliveryGuarantee : DeliveryGuarantee.values()) {
+      Assert.assertTrue(verifier.isSuccessful(deliveryGuarantee));
+    }
+  }
+
+  @Test
+  public void testDifferencesBelowCapacity() {
+    for (int differences : new int[] {1, 3, MAX_DIFFERENCES / 2, MAX_DIFFERENCES}) {
+      List<String> expected = expectedKeys();
+      List<String> actual = actualKeys(expected, differences);
+
+      SketchVerifier verifier = verify(expected, actual);
+      Assert.assertTrue("differences: " + differences, verifier.isConclusive());
+      assertMatchesExactVerification(verifier, expected, actual);
+    }
+  }
+
+  @Test
+  public void testDifferencesAboveCapacity() {
+    List<String> expected = expectedKeys();
+    List<String> actual = actualKeys(expected, 10 * MAX_DIFFERENCES);
+
+    SketchVerifier verifier = verify(expected, actual);
+    Assert.assertFalse(verifier.isConclusive());
+    Assert.assertEquals(-1, verifier.getMissingCount());
+    Assert.assertEquals(-1, verifier.getDuplicateCount());
+    Assert.assertEquals(-1, verifier.getUnexpectedCount());
+    // an inconclusive check never passes, whatever the exact verification says
+    for (DeliveryGuarantee deliveryGuarantee : DeliveryGuarantee.values()) {
+      Assert.assertFalse(verifier.isSuccessful(deliveryGuarantee));
+    }
+  }
+
+  @Test
+  public void testKeysAcceptedAfterCheck() {
+    List<String> expected = expectedKeys();
+    SketchVerifier verifier = verify(expected, expected.subList(0, EXPECTED_COUNT - 10));
+    Assert.assertEquals(10, verifier.getMissingCount());
+    Assert.assertFalse(verifier.isSuccessful(DeliveryGuarantee.AT_LEAST_ONCE));
+
+    verifier.acceptAll(expected.subList(EXPECTED_COUNT - 10, EXPECTED_COUNT));
+    Assert.assertEquals(0, verifier.getMissingCount());
+    Assert.assertTrue(verifier.isSuccessful(DeliveryGuarantee.AT_LEAST_ONCE));
+    Assert.assertEquals(EXPECTED_COUNT, verifier.getActualCount());
+  }
+
+  private static SketchVerifier verify(List<String> expected, List<String> actual) {
+    KeySketch sketch =
+        new KeySketch(expected.size(), MAX_DIFFERENCES, FALSE_POSITIVE_PROBABILITY);
+    for (String uniqueKey : expected) {
+      sketch.add(uniqueKey);
+    }
+    SketchVerifier verifier = new SketchVerifier(sketch);
+    verifier.acceptAll(actual);
+    Assert.assertEquals(expected.size(), verifier.getExpectedCount());
+    Assert.assertEquals(actual.size(), verifier.getActualCount());
+    return verifier;
+  }
+
+  private static void assertMatchesExactVerification(
+      SketchVerifier verifier, List<String> expected, List<String> actual) {
+    for (DeliveryGuarantee deliveryGuarantee : DeliveryGuarantee.values()) {
+      VerificationResult exact =
+          DeliveryVerifier.verify(expected, actual, deliveryGuarantee, false);
+      Assert.assertEquals(exact.getMissingCount(), verifier.getMissingCount());
+      Assert.assertEquals(exact.getDuplicateCount(), verifier.getDuplicateCount());
+      Assert.assertEquals(exact.getUnexpectedCount(), verifier.getUnexpectedCount());
+      Assert.assertEquals(exact.isSuccessful(), verifier.isSuccessful(deliveryGuarantee));
+    }
+  }
+
+  private static List<String> expectedKeys() {
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < EXPECTED_COUNT; i++) {
+      expected.add("Value_" + i);
+    }
+    return expected;
+  }
+
+  /**
+   * Return the expected keys with the given number of differences, taking turns between
+   * missing, duplicated and unexpected keys, in a random order.
+   */
+  private static List<String> actualKeys(List<String> expected, int differences) {
+    List<String> actual = new ArrayList<>(expected.size() + differences);
+    for (int i = 0; i < expected.size(); i++) {
+      if (i < differences && i % 3 == 0) {
+        continue;
+      }
+      actual.add(expected.get(i));
+      if (i < differences && i % 3 == 1) {
+        actual.add(expected.get(i));
+      }
+    }
+    for (int i = 0; i < differences; i++) {
+      if (i % 3 == 2) {
+        actual.add("Unexpected_" + i);
+      }
+    }
+    Collections.shuffle(actual, new Random(42));
+    return actual;
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.dataloss;
+
+import io.confluent.connect.test.sdk.commons.publishers.PublishRate;
+import io.confluent.connect.test.sdk.commons.readiness.ReadinessProbe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class BenchmarkConfigs {
+  private int warmUpRecords;
+  private int measurementRecords;
+  private int measurementIterations;
+  private PublishRate publishRate;
+  private int maxBatchSize;
+  private long connectorStartDelayMs;
+  private Supplier<ReadinessProbe> readinessProbeFactory;
+  private long maxDrainTimeMs;
+
+  private BenchmarkConfigs(BenchmarkConfigBuilder benchmarkConfigBuilder) {
+    this.warmUpRecords = benchmarkConfigBuilder.warmUpRecords;
+    this.measurementRecords = benchmarkConfigBuilder.measurementRecords;
+    this.measurementIterations = benchmarkConfigBuilder.measurementIterations;
+    this.publishRate = benchmarkConfigBuilder.publishRate;
+    this.maxBatchSize = benchmarkConfigBuilder.maxBatchSize;
+    this.connectorStartDelayMs = benchmarkConfigBuilder.connectorStartDelayMs;
+    this.readinessProbeFactory = benchmarkConfigBuilder.readinessProbeFactory;
+    this.maxDrainTimeMs = benchmarkConfigBuilder.maxDrainTimeMs;
+  }
+
+  public int getWarmUpRecords() {
+    return warmUpRecords;
+  }
+
+  public void setWarmUpRecords(int warmUpRecords) {
+    this.warmUpRecords = warmUpRecords;
+  }
+
+  public int getMeasurementRecords() {
+    return measurementRecords;
+  }
+
+  public void setMeasurementRecords(int measurementRecords) {
+    this.measurementRecords = measurementRecords;
+  }
+
+  public int getMeasurementIterations() {
+    return measurementIterations;
+  }
+
+  public void setMeasurementIterations(int measurementIterations) {
+    this.measurementIterations = measurementIterations;
+  }
+
+  public PublishRate getPublishRate() {
+    return publishRate;
+  }
+
+  public void setPublishRate(PublishRate publishRate) {
+    this.publishRate = publishRate;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  public long getConnectorStartDelayMs() {
+    return connectorStartDelayMs;
+  }
+
+  public void setConnectorStartDelayMs(long connectorStartDelayMs) {
+    this.connectorStartDelayMs = connectorStartDelayMs;
+  }
+
+  public Supplier<ReadinessProbe> getReadinessProbeFactory() {
+    return readinessProbeFactory;
+  }
+
+  public void setReadinessProbeFactory(Supplier<ReadinessProbe> readinessProbeFactory) {
+    this.readinessProbeFactory = readinessProbeFactory;
+  }
+
+  public long getMaxDrainTimeMs() {
+    return maxDrainTimeMs;
+  }
+
+  public void setMaxDrainTimeMs(long maxDrainTimeMs) {
+    this.maxDrainTimeMs = maxDrainTimeMs;
+  }
+
+  /** Builder class for BenchmarkConfigs.
+   */
+  public static class BenchmarkConfigBuilder {
+    private int warmUpRecords = 10000;
+    private int measurementRecords = 100000;
+    private int measurementIterations = 3;
+    private PublishRate publishRate = null;
+    private int maxBatchSize = 10000;
+    private long connectorStartDelayMs = TimeUnit.SECONDS.toMillis(20);
+    private Supplier<ReadinessProbe> readinessProbeFactory = null;
+    private long maxDrainTimeMs = TimeUnit.MINUTES.toMillis(5);
+
+    public BenchmarkConfigBuilder() {
+    }
+
+    public int getWarmUpRecords() {
+      return warmUpRecords;
+    }
+
+    /**
+     * This method is used to set the number of records published and delivered before the
+     * measurement starts, so that connections, caches and the JIT compiler are warm.
+     * Default value is 10000.
+     * @param warmUpRecords Number of warm-up records, or 0 for no warm-up.
+     * @return BenchmarkConfigBuilder
+     */
+    public BenchmarkConfigBuilder setWarmUpRecords(int warmUpRecords) {
+      this.warmUpRecords = warmUpRecords;
+      return this;
+    }
+
+    public int getMeasurementRecords() {
+      return measurementRecords;
+    }
+
+    /**
+     * This method is used to set the number of records published in every measurement
+     * iteration. Default value is 100000.
+     * @param measurementRecords Number of records per measurement iteration.
+     * @return BenchmarkConfigBuilder
+     */
+    public BenchmarkConfigBuilder setMeasurementRecords(int measurementRecords) {
+      this.measurementRecords = measurementRecords;
+      return this;
+    }
+
+    public int getMeasurementIterations() {
+      return measurementIterations;
+    }
+
+    /**
+     * This method is used to set the number of measurement iterations. The throughput is
+     * reported for every iteration and as mean, min, max and standard deviation, which tells
+     * how repeatable the result is. Default value is 3.
+     * @param measurementIterations Number of measurement iterations.
+     * @return BenchmarkConfigBuilder
+     */
+    public BenchmarkConfigBuilder setMeasurementIterations(int measurementIterations) {
+      this.measurementIterations = measurementIterations;
+      return this;
+    }
+
+    public PublishRate getPublishRate() {
+      return publishRate;
+    }
+
+    /**
+     * This method is used to pin the rate at which data is published, in records or bytes per
+     * second. The connector runs while the data is published, and the benchmark tells whether
+     * it keeps up with the rate. Default value is null, in which case the connector is measured
+     * at saturation: it is paused while the records of an iteration are published, and the
+     * throughput is measured from its resumption until all the records are delivered.
+     * @param publishRate Target publish rate, or null to measure at saturation.
+     * @return BenchmarkConfigBuilder
+     */
+    public BenchmarkConfigBuilder setPublishRate(PublishRate publishRate) {
+      this.publishRate = publishRate;
+      return this;
+    }
+
+    public int getMaxBatchSize() {
+      return maxBatchSize;
+    }
+
+    /**
+     * This method is used to set the maximum number of records published in a batch.
+     * Default value is 10000.
+     * @param maxBatchSize Maximum batch size.
+     * @return BenchmarkConfigBuilder
+     */
+    public BenchmarkConfigBuilder setMaxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    public long getConnectorStartDelayMs() {
+      return connectorStartDelayMs;
+    }
+
+    /**
+     * This method is used to set the connector start delay in milliseconds, which is slept
+     * after starting the connector, or is the maximum time to wait for the readiness probe.
+     * Default value is 20000.
+     * @param connectorStartDelayMs Connector start delay in milliseconds.
+     * @return BenchmarkConfigBuilder
+     */
+    public BenchmarkConfigBuilder setConnectorStartDelayMs(long connectorStartDelayMs) {
+      this.connectorStartDelayMs = connectorStartDelayMs;
+      return this;
+    }
+
+    public Supplier<ReadinessProbe> getReadinessProbeFactory() {
+      return readinessProbeFactory;
+    }
+
+    /**
+     * This method is used to set the factory of the probes reporting that the connector is
+     * ready. When set, the benchmark waits for the connector to run after starting it, then
+     * for a new probe to report progress once the warm-up data is published, for at most the
+     * connector start delay, instead of sleeping for the connector start delay.
+     * Default value is null.
+     * @param readinessProbeFactory Factory of the readiness probes of the connector.
+     * @return BenchmarkConfigBuilder
+     */
+    public BenchmarkConfigBuilder setReadinessProbeFactory(
+        Supplier<ReadinessProbe> readinessProbeFactory) {
+      this.readinessProbeFactory = readinessProbeFactory;
+      return this;
+    }
+
+    public long getMaxDrainTimeMs() {
+      return maxDrainTimeMs;
+    }
+
+    /**
+     * This method is used to set the maximum time to wait for the records of the warm-up or
+     * of an iteration to be delivered, once they are published. The benchmark fails if they
+     * are not delivered in time. Default value is 300000.
+     * @param maxDrainTimeMs Maximum drain time in milliseconds.
+     * @return BenchmarkConfigBuilder
+     */
+    public BenchmarkConfigBuilder setMaxDrainTimeMs(long maxDrainTimeMs) {
+      this.maxDrainTimeMs = maxDrainTimeMs;
+      return this;
+    }
+
+    /**
+     * This method is used to build the BenchmarkConfigs.
+     * @return BenchmarkConfigs
+     */
+    public BenchmarkConfigs build() {
+      return new BenchmarkConfigs(this);
+    }
+  }
+}
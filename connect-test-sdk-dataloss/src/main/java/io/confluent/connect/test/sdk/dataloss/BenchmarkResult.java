@@ -0,0 +1,167 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.dataloss;
+
+import io.confluent.connect.test.sdk.commons.publishers.PublishRate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * This class holds the sustained throughput of a connector measured by a benchmark flow
+ * (@see io.confluent.connect.test.sdk.dataloss.testflows.ThroughputBenchmarkFlow),
+ * for every measurement iteration and aggregated over all of them.
+ * Throughput in bytes is based on the bytes reported by the data publisher, and a MB is
+ * 1000000 bytes.
+ */
+public class BenchmarkResult {
+
+  private static final double BYTES_PER_MB = 1000000.0;
+
+  private final String connectorName;
+  private final PublishRate publishRate;
+  private final List<Iteration> iterations;
+
+  public BenchmarkResult(
+      String connectorName, PublishRate publishRate, List<Iteration> iterations) {
+    this.connectorName = connectorName;
+    this.publishRate = publishRate;
+    this.iterations = Collections.unmodifiableList(new ArrayList<>(iterations));
+  }
+
+  public String getConnectorName() {
+    return connectorName;
+  }
+
+  /**
+   * This method returns the publish rate the benchmark was run with.
+   * @return Publish rate, or null if the connector was measured at saturation.
+   */
+  public PublishRate getPublishRate() {
+    return publishRate;
+  }
+
+  public List<Iteration> getIterations() {
+    return iterations;
+  }
+
+  public double getMeanRecordsPerSecond() {
+    return mean(Iteration::getRecordsPerSecond);
+  }
+
+  public double getMinRecordsPerSecond() {
+    return iterations.stream().mapToDouble(Iteration::getRecordsPerSecond).min().orElse(0);
+  }
+
+  public double getMaxRecordsPerSecond() {
+    return iterations.stream().mapToDouble(Iteration::getRecordsPerSecond).max().orElse(0);
+  }
+
+  /**
+   * This method returns the sample standard deviation of the throughput in records per second
+   * across the iterations, which tells how repeatable the measurement is.
+   * @return Standard deviation, or 0 if there are less than 2 iterations.
+   */
+  public double getStdDevRecordsPerSecond() {
+    return stdDev(Iteration::getRecordsPerSecond);
+  }
+
+  public double getMeanMegabytesPerSecond() {
+    return mean(Iteration::getMegabytesPerSecond);
+  }
+
+  public double getStdDevMegabytesPerSecond() {
+    return stdDev(Iteration::getMegabytesPerSecond);
+  }
+
+  private double mean(ToDoubleFunction<Iteration> metric) {
+    return iterations.stream().mapToDouble(metric).average().orElse(0);
+  }
+
+  private double stdDev(ToDoubleFunction<Iteration> metric) {
+    if (iterations.size() < 2) {
+      return 0;
+    }
+    double mean = mean(metric);
+    double sumOfSquares = 0;
+    for (Iteration iteration : iterations) {
+      double deviation = metric.applyAsDouble(iteration) - mean;
+      sumOfSquares += deviation * deviation;
+    }
+    return Math.sqrt(sumOfSquares / (iterations.size() - 1));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder()
+        .append("Throughput of ").append(connectorName)
+        .append(publishRate == null ? " at saturation" : " at " + publishRate)
+        .append(" over ").append(iterations.size()).append(" iterations: ")
+        .append(String.format("%.1f records/s (min %.1f, max %.1f, stddev %.1f), "
+                + "%.3f MB/s (stddev %.3f)",
+            getMeanRecordsPerSecond(), getMinRecordsPerSecond(), getMaxRecordsPerSecond(),
+            getStdDevRecordsPerSecond(),
+            getMeanMegabytesPerSecond(), getStdDevMegabytesPerSecond()));
+    for (Iteration iteration : iterations) {
+      builder.append(System.lineSeparator()).append("  ").append(iteration);
+    }
+    return builder.toString();
+  }
+
+  /** Throughput measured in a single iteration. */
+  public static class Iteration {
+    private final int iteration;
+    private final long records;
+    private final long bytes;
+    private final long durationNanos;
+
+    public Iteration(int iteration, long records, long bytes, long durationNanos) {
+      this.iteration = iteration;
+      this.records = records;
+      this.bytes = bytes;
+      this.durationNanos = durationNanos;
+    }
+
+    public int getIteration() {
+      return iteration;
+    }
+
+    public long getRecords() {
+      return records;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    public long getDurationMs() {
+      return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    public double getRecordsPerSecond() {
+      return perSecond(records);
+    }
+
+    public double getMegabytesPerSecond() {
+      return perSecond(bytes) / BYTES_PER_MB;
+    }
+
+    private double perSecond(long count) {
+      return durationNanos > 0
+          ? count * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("iteration %d: %d records, %d bytes in %d ms, "
+              + "%.1f records/s, %.3f MB/s",
+          iteration, records, bytes, getDurationMs(),
+          getRecordsPerSecond(), getMegabytesPerSecond());
+    }
+  }
+}
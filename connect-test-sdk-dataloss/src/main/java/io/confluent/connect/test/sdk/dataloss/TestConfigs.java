@@ -5,8 +5,11 @@
 package io.confluent.connect.test.sdk.dataloss;
 
 import io.confluent.connect.test.sdk.commons.DeliveryGuarantee;
+import io.confluent.connect.test.sdk.commons.publishers.PublishRate;
+import io.confluent.connect.test.sdk.commons.readiness.ReadinessProbe;
 
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class TestConfigs {
   private int numberOfRecordsToProduceBeforeChaos;
@@ -18,6 +21,8 @@ public class TestConfigs {
   private int maxBatchSize;
   private long batchIntervalMs;
   private long connectorStartDelayMs;
+  private PublishRate publishRate;
+  private Supplier<ReadinessProbe> readinessProbeFactory;
 
   private TestConfigs(TestConfigBuilder testConfigBuilder) {
     this.numberOfRecordsToProduceBeforeChaos =
@@ -31,6 +36,8 @@ public class TestConfigs {
     this.maxBatchSize = testConfigBuilder.maxBatchSize;
     this.batchIntervalMs = testConfigBuilder.batchIntervalMs;
     this.connectorStartDelayMs = testConfigBuilder.connectorStartDelayMs;
+    this.publishRate = testConfigBuilder.publishRate;
+    this.readinessProbeFactory = testConfigBuilder.readinessProbeFactory;
   }
 
   public int getMaxBatchSize() {
@@ -58,6 +65,22 @@ public class TestConfigs {
     this.batchIntervalMs = batchIntervalMs;
   }
 
+  public PublishRate getPublishRate() {
+    return publishRate;
+  }
+
+  public void setPublishRate(PublishRate publishRate) {
+    this.publishRate = publishRate;
+  }
+
+  public Supplier<ReadinessProbe> getReadinessProbeFactory() {
+    return readinessProbeFactory;
+  }
+
+  public void setReadinessProbeFactory(Supplier<ReadinessProbe> readinessProbeFactory) {
+    this.readinessProbeFactory = readinessProbeFactory;
+  }
+
   public int getNumberOfRecordsToProduceBeforeChaos() {
     return numberOfRecordsToProduceBeforeChaos;
   }
@@ -119,6 +142,8 @@ public class TestConfigs {
     private int maxBatchSize = 100000000;
     private long batchIntervalMs = TimeUnit.SECONDS.toMillis(0);
     private long connectorStartDelayMs = TimeUnit.SECONDS.toMillis(20);
+    private PublishRate publishRate = null;
+    private Supplier<ReadinessProbe> readinessProbeFactory = null;
 
     public TestConfigBuilder() {
     }
@@ -196,7 +221,8 @@ public class TestConfigs {
 
     /** This method is used to set whether the records are in order or not.
      * It will be used in verification step to determine whether the records are in order or not.
-     * will be compared in order.
+     * The order is verified within every partition of the end system, as exposed by the
+     * data extractor, so records of different partitions may be interleaved.
      * Default value is false.
      * @param inorder Order of the records.
      * @return TestConfigBuilder
@@ -248,6 +274,45 @@ public class TestConfigs {
       return this;
     }
 
+    public PublishRate getPublishRate() {
+      return publishRate;
+    }
+
+    /**
+     * This method is used to set the target rate at which data is published, in records or
+     * bytes per second, with an optional ramp-up. When set, the batch interval is not used and
+     * the batches are sized and paced to reach the target rate whatever time publishing takes.
+     * Default value is null, in which case batches are published with the batch interval.
+     * @param publishRate Target publish rate.
+     * @return TestConfigBuilder
+     */
+    public TestConfigBuilder setPublishRate(PublishRate publishRate) {
+      this.publishRate = publishRate;
+      return this;
+    }
+
+    public Supplier<ReadinessProbe> getReadinessProbeFactory() {
+      return readinessProbeFactory;
+    }
+
+    /**
+     * This method is used to set the factory of the probes reporting that the connector is
+     * ready, e.g. creating one of
+     * {@link io.confluent.connect.test.sdk.commons.readiness.ReadinessProbes}.
+     * When set, the test flows wait for the connector to run after starting it, then for a new
+     * probe to report progress once data is being published, and for a new probe to report
+     * progress after resolving chaos, for at most the connector start delay every time,
+     * instead of sleeping for the connector start delay.
+     * Default value is null.
+     * @param readinessProbeFactory Factory of the readiness probes of the connector.
+     * @return TestConfigBuilder
+     */
+    public TestConfigBuilder setReadinessProbeFactory(
+        Supplier<ReadinessProbe> readinessProbeFactory) {
+      this.readinessProbeFactory = readinessProbeFactory;
+      return this;
+    }
+
     /**
      * This method is used to build the TestConfigBuilder.
      * @return TestConfigs
@@ -4,13 +4,21 @@
 
 package io.confluent.connect.test.sdk.dataloss.chaos;
 
+import io.confluent.connect.test.sdk.commons.execution.TaskScope;
 import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 /**
  * This class is used to inject chaos in the system
  * by restarting the connect workers at a regular interval.
+ * The workers are restarted in the background until the chaos is resolved, which waits for
+ * the ongoing restart to complete so that the cluster is whole again.
  */
 public class RepeatedConnectRestartChaos implements Chaos {
 
@@ -21,7 +29,10 @@ public class RepeatedConnectRestartChaos implements Chaos {
   private final long repeatIntervalMs;
   private final int activeWorkersCount;
 
-  private boolean shouldRun = false;
+  private volatile boolean shouldRun = false;
+  private CountDownLatch resolved;
+  private TaskScope scope;
+  private Future<?> restarts;
 
   public RepeatedConnectRestartChaos(
       EmbeddedConnectCluster connect,
@@ -36,28 +47,47 @@ public class RepeatedConnectRestartChaos implements Chaos {
   public void injectChaos() {
     log.info("Injecting chaos by restarting all workers at a regular interval");
     shouldRun = true;
-    new Thread(() -> {
-      for (int i = 0; i < maxRepeatCount && shouldRun; i++) {
-        try {
-          log.info("Restarting all workers. Iteration: {}", i);
-          connect.activeWorkers().forEach(connect::removeWorker);
-          for (int j = 0; j < activeWorkersCount; j++) {
-            connect.addWorker();
-          }
-          log.info("Restarted all workers. Iteration: {}", i);
-          log.info("Waiting for {} ms for next iteration", repeatIntervalMs);
-          Thread.sleep(repeatIntervalMs);
-        } catch (Exception e) {
-          throw new RuntimeException(e);
-        }
-      }
-      log.info("Chaos resolved. All iterations completed");
-    }).start();
+    resolved = new CountDownLatch(1);
+    scope = TaskScope.open("repeated-connect-restart");
+    restarts = scope.fork(() -> restartWorkers(resolved));
   }
 
   @Override
   public void resolveChaos() throws Exception {
     log.info("Resolving chaos");
     shouldRun = false;
+    if (scope == null) {
+      return;
+    }
+    resolved.countDown();
+    try {
+      restarts.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    } finally {
+      scope.close();
+      scope = null;
+    }
+  }
+
+  private Void restartWorkers(CountDownLatch resolvedSignal) throws Exception {
+    for (int i = 0; i < maxRepeatCount && shouldRun; i++) {
+      log.info("Restarting all workers. Iteration: {}", i);
+      connect.activeWorkers().forEach(connect::removeWorker);
+      for (int j = 0; j < activeWorkersCount; j++) {
+        connect.addWorker();
+      }
+      log.info("Restarted all workers. Iteration: {}", i);
+      log.info("Waiting for {} ms for next iteration", repeatIntervalMs);
+      if (resolvedSignal.await(repeatIntervalMs, TimeUnit.MILLISECONDS)) {
+        log.info("Chaos resolved after {} iterations", i + 1);
+        return null;
+      }
+    }
+    log.info("Chaos resolved. All iterations completed");
+    return null;
   }
 }
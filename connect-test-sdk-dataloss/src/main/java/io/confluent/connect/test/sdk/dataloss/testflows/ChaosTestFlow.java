@@ -4,14 +4,23 @@
 
 package io.confluent.connect.test.sdk.dataloss.testflows;
 
+import io.confluent.connect.test.sdk.commons.ConnectorUtils;
+import io.confluent.connect.test.sdk.commons.execution.TaskScope;
 import io.confluent.connect.test.sdk.commons.extractors.DataExtractor;
+import io.confluent.connect.test.sdk.commons.extractors.KafkaDataExtractor;
+import io.confluent.connect.test.sdk.commons.metrics.ConnectMetricsSampler;
+import io.confluent.connect.test.sdk.commons.metrics.ConsumerGroupLagMonitor;
 import io.confluent.connect.test.sdk.commons.publishers.DataPublisher;
+import io.confluent.connect.test.sdk.commons.publishers.DataPublisherTask;
+import io.confluent.connect.test.sdk.commons.readiness.ReadinessProbe;
 import io.confluent.connect.test.sdk.dataloss.TestConfigs;
 import io.confluent.connect.test.sdk.dataloss.chaos.Chaos;
 import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /** This class is used to define the data loss test flow.
@@ -20,6 +29,13 @@ import java.util.Map;
  */
 public abstract class ChaosTestFlow<S, E> {
 
+  /** Latency phase of the records published before chaos is injected. */
+  public static final String BEFORE_CHAOS_PHASE = "before chaos";
+  /** Latency phase of the records published while chaos is running. */
+  public static final String DURING_CHAOS_PHASE = "during chaos";
+  /** Latency phase of the records published after chaos is resolved. */
+  public static final String AFTER_CHAOS_PHASE = "after chaos";
+
   Logger log = LoggerFactory.getLogger(ChaosTestFlow.class);
   protected EmbeddedConnectCluster connect;
   protected DataPublisher<S> dataPublisher;
@@ -27,6 +43,8 @@ public abstract class ChaosTestFlow<S, E> {
   protected String connectorName;
   protected Map<String, String> configProperties;
   protected Chaos chaos;
+  protected ConnectMetricsSampler metricsSampler;
+  protected ConsumerGroupLagMonitor lagMonitor;
 
   public ChaosTestFlow(
       EmbeddedConnectCluster connect,
@@ -40,9 +58,239 @@ public abstract class ChaosTestFlow<S, E> {
     this.chaos = chaos;
   }
 
+  public ConnectMetricsSampler getMetricsSampler() {
+    return metricsSampler;
+  }
+
+  /** This method is used to set the sampler of the JMX metrics of the connector and its tasks.
+   * When set, the test flow samples the metrics while it runs and tags every sample with
+   * the current phase, e.g. before, during or after chaos. The sampler is stopped before the
+   * data is verified, which writes its series to its output directory if there is one.
+   * Default value is null.
+   * @param metricsSampler Sampler of the connector metrics.
+   * */
+  public void setMetricsSampler(ConnectMetricsSampler metricsSampler) {
+    this.metricsSampler = metricsSampler;
+  }
+
+  public ConsumerGroupLagMonitor getLagMonitor() {
+    return lagMonitor;
+  }
+
+  /** This method is used to set the monitor of the consumer group lag of a sink connector.
+   * When set, the test flow measures the lag while it runs and tags every sample with the
+   * current phase, and waits for the connector to catch up with its topics, for at most the
+   * max catch up time of the monitor, before extracting the data from the sink system.
+   * Default value is null.
+   * @param lagMonitor Monitor of the consumer group lag of the sink connector.
+   * */
+  public void setLagMonitor(ConsumerGroupLagMonitor lagMonitor) {
+    this.lagMonitor = lagMonitor;
+  }
+
   /** This method will define the implementation for data loss test flow
    * @param testConfigs TestConfigs to be used for the test.
    * @throws Exception Exception thrown if any.
    * */
   public abstract void run(TestConfigs testConfigs) throws Exception;
+
+  /** This method starts the connector and waits for it and its tasks to run. Without a
+   * readiness probe factory in the test configs, it then sleeps for the connector start delay.
+   * With one, the flow waits for the connector to process data instead, once it publishes data
+   * (@see #startReadinessProbe and #waitForConnectorToBeReady).
+   * @param testConfigs TestConfigs to be used for the test.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected void startConnector(TestConfigs testConfigs) throws Exception {
+    log.info("Starting Connector: {}", connectorName);
+    if (testConfigs.getReadinessProbeFactory() == null) {
+      ConnectorUtils.startConnector(
+          connect, connectorName, configProperties,
+          testConfigs.getConnectorStartDelayMs());
+    } else {
+      connect.configureConnector(connectorName, configProperties);
+      ConnectorUtils.waitForConnectorToStart(
+          connect, connectorName, ConnectorUtils.getTaskMax(configProperties));
+    }
+  }
+
+  /** This method creates a new readiness probe with the factory of the test configs and starts
+   * it, so that it only reports the progress the connector makes from now on. It should be
+   * called right before publishing the data the connector is expected to process.
+   * @param testConfigs TestConfigs to be used for the test.
+   * @return Started readiness probe, or null if the test configs have no probe factory.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected ReadinessProbe startReadinessProbe(TestConfigs testConfigs) throws Exception {
+    if (testConfigs.getReadinessProbeFactory() == null) {
+      return null;
+    }
+    ReadinessProbe readinessProbe = testConfigs.getReadinessProbeFactory().get();
+    ConnectorUtils.startReadinessProbe(readinessProbe);
+    return readinessProbe;
+  }
+
+  /** This method waits for a readiness probe started by {@link #startReadinessProbe} to report
+   * that the connector processes the data published since, for at most the connector start
+   * delay, and closes it. It does nothing if the probe is null, as the connector start delay
+   * was then slept when starting the connector.
+   * @param testConfigs TestConfigs to be used for the test.
+   * @param readinessProbe Started readiness probe, or null.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected void waitForConnectorToBeReady(
+      TestConfigs testConfigs, ReadinessProbe readinessProbe) throws Exception {
+    if (readinessProbe == null) {
+      return;
+    }
+    log.info("Waiting up to {} ms for connector to process data",
+        testConfigs.getConnectorStartDelayMs());
+    ConnectorUtils.waitForConnectorToBeReady(
+        connect, connectorName, ConnectorUtils.getTaskMax(configProperties),
+        readinessProbe, testConfigs.getConnectorStartDelayMs());
+  }
+
+  /** This method injects the chaos, lets it run for the chaos period of the test and resolves
+   * it. The chaos is resolved even if injecting it fails or the flow is interrupted meanwhile,
+   * so that it never outlives the test, e.g. a chaos restarting workers in the background.
+   * @param testConfigs Test configurations.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected void runChaos(TestConfigs testConfigs) throws Exception {
+    try {
+      chaos.injectChaos();
+      log.info("Chaos running for {} ms", testConfigs.getChaosPeriodMs());
+      Thread.sleep(testConfigs.getChaosPeriodMs());
+    } finally {
+      log.info("Resolving chaos in the system: {}", connectorName);
+      chaos.resolveChaos();
+    }
+  }
+
+  /** This method waits for the connector to recover once chaos is resolved, using a new
+   * readiness probe of the test configs if there is a factory, which has to report progress
+   * made after the chaos was resolved, or sleeping for the connector start delay otherwise.
+   * @param testConfigs TestConfigs to be used for the test.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected void waitForConnectorToRecover(TestConfigs testConfigs) throws Exception {
+    if (testConfigs.getReadinessProbeFactory() == null) {
+      log.info("Sleeping for {} ms for connector to recover",
+          testConfigs.getConnectorStartDelayMs());
+      Thread.sleep(testConfigs.getConnectorStartDelayMs());
+    } else {
+      log.info("Waiting up to {} ms for connector to recover",
+          testConfigs.getConnectorStartDelayMs());
+      ConnectorUtils.waitForConnectorToBeReady(
+          connect, connectorName, ConnectorUtils.getTaskMax(configProperties),
+          startReadinessProbe(testConfigs), testConfigs.getConnectorStartDelayMs());
+    }
+  }
+
+  /** This method creates a task publishing the given number of records
+   * with the batch size, batch interval and publish rate of the test configs.
+   * @param testConfigs TestConfigs to be used for the test.
+   * @param numberOfRecordsToProduce Number of records to be published.
+   * @return DataPublisherTask
+   * */
+  protected DataPublisherTask<S> createDataPublisherTask(
+      TestConfigs testConfigs, int numberOfRecordsToProduce) {
+    return new DataPublisherTask<>(
+        dataPublisher,
+        numberOfRecordsToProduce,
+        testConfigs.getBatchIntervalMs(),
+        testConfigs.getMaxBatchSize(),
+        testConfigs.getPublishRate());
+  }
+
+  /** This method extracts the unique keys of the data from the end system. When the data is
+   * expected in order, the keys are extracted per partition of the end system, so that their
+   * ordering is verified within every partition rather than across all of them.
+   * @param testConfigs TestConfigs to be used for the test.
+   * Kafka data extractors are told the maximum number of copies of every record, so that they
+   * only wait for the distinct records.
+   * @param maxNumberOfDataPoints Maximum number of data points/ records to be extracted.
+   * @return Map of partition to the unique keys of the records present in it.
+   * */
+  protected Map<String, List<String>> extractUniqueKeys(
+      TestConfigs testConfigs, int maxNumberOfDataPoints) {
+    if (dataExtractor instanceof KafkaDataExtractor) {
+      ((KafkaDataExtractor) dataExtractor).setMaxRecordCopies(testConfigs.getMaxRecordCopies());
+    }
+    if (testConfigs.isInorder()) {
+      return dataExtractor.extractUniqueKeysByPartition(maxNumberOfDataPoints);
+    }
+    return Collections.singletonMap(
+        DataExtractor.SINGLE_PARTITION, dataExtractor.extractUniqueKeys(maxNumberOfDataPoints));
+  }
+
+  /** This method starts a new phase in the latency tracker of the data extractor,
+   * in the metrics sampler and in the lag monitor, if any.
+   * @param phase Name of the phase.
+   * */
+  protected void startPhase(String phase) {
+    startLatencyPhase(phase);
+    if (metricsSampler != null) {
+      metricsSampler.startPhase(phase);
+    }
+    if (lagMonitor != null) {
+      lagMonitor.startPhase(phase);
+    }
+  }
+
+  /** This method starts sampling the metrics and measuring the lag of the connector in
+   * background tasks of the given scope, if there is a metrics sampler or a lag monitor.
+   * @param scope Scope of the test flow.
+   * */
+  protected void startMetricsSampling(TaskScope scope) {
+    if (metricsSampler != null) {
+      metricsSampler.start(scope);
+    }
+    if (lagMonitor != null) {
+      lagMonitor.start(scope);
+    }
+  }
+
+  /** This method stops sampling the metrics and measuring the lag of the connector,
+   * if there is a metrics sampler or a lag monitor. The lag monitor is stopped even if
+   * stopping the metrics sampler fails, so that neither of them outlives a failed test.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected void stopMetricsSampling() throws Exception {
+    try {
+      if (metricsSampler != null) {
+        metricsSampler.stop();
+      }
+    } finally {
+      if (lagMonitor != null) {
+        lagMonitor.stop();
+      }
+    }
+  }
+
+  /** This method waits for a sink connector to catch up with its topics, if there is a lag
+   * monitor, so that the data is only extracted from the sink system once it is all there.
+   * The extracted data is verified whether the connector caught up in time or not.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected void waitForSinkToCatchUp() throws Exception {
+    if (lagMonitor != null) {
+      lagMonitor.waitUntilCaughtUp(lagMonitor.getMaxCatchUpTimeMs());
+    }
+  }
+
+  /** This method starts a new phase in the latency tracker of the data extractor, if any,
+   * so that the latencies of the records published from now on are reported in that phase.
+   * @param phase Name of the phase.
+   * */
+  protected void startLatencyPhase(String phase) {
+    ConnectorUtils.startLatencyPhase(dataExtractor.getLatencyTracker(), phase);
+  }
+
+  /** This method logs the p50, p99 and p999 end-to-end latencies of every phase,
+   * if the data extractor has a latency tracker.
+   * */
+  protected void logLatencies() {
+    ConnectorUtils.logLatencies(dataExtractor.getLatencyTracker());
+  }
 }
@@ -5,20 +5,18 @@
 package io.confluent.connect.test.sdk.dataloss.testflows;
 
 import io.confluent.connect.test.sdk.commons.ConnectorUtils;
+import io.confluent.connect.test.sdk.commons.execution.TaskScope;
 import io.confluent.connect.test.sdk.commons.extractors.DataExtractor;
 import io.confluent.connect.test.sdk.commons.publishers.DataPublisher;
-import io.confluent.connect.test.sdk.commons.publishers.DataPublisherTask;
+import io.confluent.connect.test.sdk.commons.readiness.ReadinessProbe;
 import io.confluent.connect.test.sdk.dataloss.TestConfigs;
 import io.confluent.connect.test.sdk.dataloss.chaos.Chaos;
 import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 /** This class is used to defines a very common data loss test flow as mentioned below:
@@ -45,47 +43,45 @@ public class SimpleChaosTestFlow<S, E> extends ChaosTestFlow<S, E> {
   @Override
   public void run(TestConfigs testConfigs) throws Exception {
 
-    // Start Connector
-    log.info("Starting Connector: {}", connectorName);
-    ConnectorUtils.startConnector(
-        connect, connectorName, configProperties,
-        testConfigs.getConnectorStartDelayMs());
+    Map<String, List<String>> uniqueKeysOfDataExtracted;
+    try (TaskScope scope = TaskScope.open("chaos-test-flow-" + connectorName)) {
+      startMetricsSampling(scope);
+      try {
+        // Start Connector
+        startConnector(testConfigs);
 
-    // Publish Data
-    log.info("Publishing data to Starting System");
-    ExecutorService executor = Executors.newSingleThreadExecutor();
-    final Future<List<S>> dataPointsHolder = executor.submit(new DataPublisherTask<>(
-        dataPublisher,
-        testConfigs.getNumberOfRecordsToProduceBeforeChaos(),
-        testConfigs.getBatchIntervalMs(),
-        testConfigs.getMaxBatchSize()));
+        // Publish Data
+        log.info("Publishing data to Starting System");
+        startPhase(BEFORE_CHAOS_PHASE);
+        ReadinessProbe readinessProbe = startReadinessProbe(testConfigs);
+        final Future<List<S>> dataPointsHolder = scope.fork(createDataPublisherTask(
+            testConfigs, testConfigs.getNumberOfRecordsToProduceBeforeChaos()));
+        waitForConnectorToBeReady(testConfigs, readinessProbe);
 
-    // Inject Chaos
-    log.info("Injecting Chaos");
-    chaos.injectChaos();
-    log.info("Chaos running for {} ms", testConfigs.getChaosPeriodMs());
-    Thread.sleep(testConfigs.getChaosPeriodMs());
-    chaos.resolveChaos();
-    log.info("Chaos resolved after {} ms", testConfigs.getChaosPeriodMs());
-    log.info("Sleeping for {} ms to allow connector to start again",
-        testConfigs.getConnectorStartDelayMs());
-    Thread.sleep(testConfigs.getConnectorStartDelayMs());
+        // Inject Chaos
+        log.info("Injecting Chaos");
+        startPhase(DURING_CHAOS_PHASE);
+        runChaos(testConfigs);
+        startPhase(AFTER_CHAOS_PHASE);
+        log.info("Chaos resolved after {} ms", testConfigs.getChaosPeriodMs());
+        waitForConnectorToRecover(testConfigs);
 
-    List<S> dataPoints = dataPointsHolder.get();
-    executor.shutdown();
+        List<S> dataPoints = dataPointsHolder.get();
+        waitForSinkToCatchUp();
 
-    // Verify Data
-    List<String> uniqueKeysOfDataExtracted = new ArrayList<>();
-    log.info("Extracting data from the end system");
-    for (E record : dataExtractor.extractData(
-        testConfigs.getMaxRecordCopies()
-        * testConfigs.getNumberOfRecordsToProduceBeforeChaos())) {
-      uniqueKeysOfDataExtracted.add(dataExtractor.getUniqueKey(record));
+        // Verify Data
+        log.info("Extracting data from the end system");
+        uniqueKeysOfDataExtracted = extractUniqueKeys(
+            testConfigs, testConfigs.getMaxRecordCopies()
+            * testConfigs.getNumberOfRecordsToProduceBeforeChaos());
+        logLatencies();
+      } finally {
+        stopMetricsSampling();
+      }
     }
-    List<String> uniqueKeysInSource = dataPublisher.getExpectedUniqueIds();
     log.info("Verifying data");
     ConnectorUtils.verifyData(
-        uniqueKeysInSource, uniqueKeysOfDataExtracted,
+        dataPublisher, uniqueKeysOfDataExtracted,
         testConfigs.getDeliveryGuarantee(),
         testConfigs.isInorder());
   }
@@ -0,0 +1,263 @@
+/*
+ * Copyright [2023 - 2023] Confluent Inc.
+ */
+
+package io.confluent.connect.test.sdk.dataloss.testflows;
+
+import io.confluent.connect.test.sdk.commons.ConnectorUtils;
+import io.confluent.connect.test.sdk.commons.extractors.DataExtractor;
+import io.confluent.connect.test.sdk.commons.extractors.IncrementalKafkaDataExtractor;
+import io.confluent.connect.test.sdk.commons.metrics.ConsumerGroupLagMonitor;
+import io.confluent.connect.test.sdk.commons.publishers.DataPublisher;
+import io.confluent.connect.test.sdk.commons.publishers.DataPublisherTask;
+import io.confluent.connect.test.sdk.commons.readiness.ReadinessProbe;
+import io.confluent.connect.test.sdk.commons.readiness.ReadinessProbes;
+import io.confluent.connect.test.sdk.dataloss.BenchmarkConfigs;
+import io.confluent.connect.test.sdk.dataloss.BenchmarkResult;
+import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
+import org.junit.jupiter.api.Assertions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** This class is used to benchmark the sustained throughput of a connector
+ * with the same publishers and extractors as the data loss test flows:
+ * 1. Start the Connector
+ * 2. Publish warm-up data to the source system/ Kafka topic and wait for it to be delivered.
+ * 3. Publish the data of a measurement iteration, either at a pinned publish rate while the
+ *    connector runs, or while the connector is paused to measure it at saturation.
+ * 4. Measure the time until all the data of the iteration is in the Kafka topic/ sink system.
+ * 5. Repeat steps 3 and 4 for every measurement iteration.
+ * The end of an iteration is observed either through an IncrementalKafkaDataExtractor, which
+ * only reads the new records on every poll, or through the lag of the consumer group of a sink
+ * connector (@see #setLagMonitor), so that observing the delivery does not re-read the whole
+ * end system and bias the measure. Every published data point is expected to produce one
+ * record, which is delivered at least once for the iteration to complete.
+ * here S is the type of data to be published to the source system/ Kafka topic.
+ * here E is the type of data to be extracted from the Kafka topic/ Sink System.
+ */
+public class ThroughputBenchmarkFlow<S, E> {
+
+  /** Latency phase of the records published during the warm-up. */
+  public static final String WARM_UP_PHASE = "warm-up";
+  /** Prefix of the latency phases of the measurement iterations. */
+  public static final String MEASUREMENT_PHASE_PREFIX = "measurement ";
+
+  private static final long DRAIN_POLL_INTERVAL_MS = 50;
+
+  private final Logger log = LoggerFactory.getLogger(ThroughputBenchmarkFlow.class);
+  protected EmbeddedConnectCluster connect;
+  protected DataPublisher<S> dataPublisher;
+  protected DataExtractor<E> dataExtractor;
+  protected String connectorName;
+  protected Map<String, String> configProperties;
+  protected ConsumerGroupLagMonitor lagMonitor;
+  private final Set<String> deliveredUniqueKeys = new HashSet<>();
+  private long publishedRecords;
+
+  public ThroughputBenchmarkFlow(
+      EmbeddedConnectCluster connect,
+      DataPublisher<S> dataPublisher, DataExtractor<E> dataExtractor,
+      String connectorName, Map<String, String> configProperties) {
+    this.connect = connect;
+    this.dataPublisher = dataPublisher;
+    this.dataExtractor = dataExtractor;
+    this.connectorName = connectorName;
+    this.configProperties = configProperties;
+  }
+
+  public ConsumerGroupLagMonitor getLagMonitor() {
+    return lagMonitor;
+  }
+
+  /** This method is used to set the monitor of the consumer group lag of a sink connector.
+   * When the data extractor is not an IncrementalKafkaDataExtractor, the benchmark observes
+   * the end of every iteration through the lag of the connector instead, which is measured
+   * from the offsets it commits, so it trails the delivery by up to offset.flush.interval.ms.
+   * Default value is null.
+   * @param lagMonitor Monitor of the consumer group lag of the sink connector.
+   * */
+  public void setLagMonitor(ConsumerGroupLagMonitor lagMonitor) {
+    this.lagMonitor = lagMonitor;
+  }
+
+  /** This method runs the benchmark and logs its result.
+   * @param benchmarkConfigs BenchmarkConfigs to be used for the benchmark.
+   * @return Throughput measured in every iteration.
+   * @throws Exception Exception thrown if any.
+   * */
+  public BenchmarkResult run(BenchmarkConfigs benchmarkConfigs) throws Exception {
+    if (!(dataExtractor instanceof IncrementalKafkaDataExtractor) && lagMonitor == null) {
+      throw new IllegalStateException("The throughput benchmark of " + connectorName
+          + " requires an IncrementalKafkaDataExtractor or a lag monitor");
+    }
+    startConnector(benchmarkConfigs);
+
+    if (benchmarkConfigs.getWarmUpRecords() > 0) {
+      log.info("Warming up {} with {} records",
+          connectorName, benchmarkConfigs.getWarmUpRecords());
+      ConnectorUtils.startLatencyPhase(dataExtractor.getLatencyTracker(), WARM_UP_PHASE);
+      ReadinessProbe readinessProbe = startReadinessProbe(benchmarkConfigs);
+      publish(benchmarkConfigs, benchmarkConfigs.getWarmUpRecords());
+      waitForConnectorToBeReady(benchmarkConfigs, readinessProbe);
+      awaitDelivery(benchmarkConfigs, publishedRecords);
+    }
+
+    List<BenchmarkResult.Iteration> iterations = new ArrayList<>();
+    for (int i = 1; i <= benchmarkConfigs.getMeasurementIterations(); i++) {
+      log.info("Running benchmark iteration {} of {}",
+          i, benchmarkConfigs.getMeasurementIterations());
+      ConnectorUtils.startLatencyPhase(
+          dataExtractor.getLatencyTracker(), MEASUREMENT_PHASE_PREFIX + i);
+      BenchmarkResult.Iteration iteration = benchmarkConfigs.getPublishRate() == null
+          ? measureAtSaturation(benchmarkConfigs, i)
+          : measureAtPublishRate(benchmarkConfigs, i);
+      log.info("Benchmark {}", iteration);
+      iterations.add(iteration);
+    }
+
+    BenchmarkResult result = new BenchmarkResult(
+        connectorName, benchmarkConfigs.getPublishRate(), iterations);
+    log.info("{}", result);
+    ConnectorUtils.logLatencies(dataExtractor.getLatencyTracker());
+    return result;
+  }
+
+  /** This method measures an iteration at saturation: the connector is paused while the
+   * data is published, then resumed, and the throughput is measured from its resumption
+   * until all the data is delivered.
+   * @param benchmarkConfigs BenchmarkConfigs to be used for the benchmark.
+   * @param iteration Number of the iteration.
+   * @return Throughput measured in the iteration.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected BenchmarkResult.Iteration measureAtSaturation(
+      BenchmarkConfigs benchmarkConfigs, int iteration) throws Exception {
+    connect.pauseConnector(connectorName);
+    if (!ConnectorUtils.waitForReadiness(
+        ReadinessProbes.connectorPaused(
+            connect, connectorName, ConnectorUtils.getTaskMax(configProperties)),
+        benchmarkConfigs.getConnectorStartDelayMs())) {
+      Assertions.fail("Connector " + connectorName + " did not pause in time.");
+    }
+    DataPublisherTask<S> task =
+        publish(benchmarkConfigs, benchmarkConfigs.getMeasurementRecords());
+
+    long startNanos = System.nanoTime();
+    connect.resumeConnector(connectorName);
+    awaitDelivery(benchmarkConfigs, publishedRecords);
+    return new BenchmarkResult.Iteration(
+        iteration, task.getPublishedRecords(), task.getPublishedBytes(),
+        System.nanoTime() - startNanos);
+  }
+
+  /** This method measures an iteration at the publish rate of the benchmark configs:
+   * the throughput is measured from the start of publishing until all the data is delivered.
+   * It is below the publish rate if the connector does not keep up with it.
+   * @param benchmarkConfigs BenchmarkConfigs to be used for the benchmark.
+   * @param iteration Number of the iteration.
+   * @return Throughput measured in the iteration.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected BenchmarkResult.Iteration measureAtPublishRate(
+      BenchmarkConfigs benchmarkConfigs, int iteration) throws Exception {
+    DataPublisherTask<S> task = new DataPublisherTask<>(
+        dataPublisher,
+        benchmarkConfigs.getMeasurementRecords(),
+        0,
+        benchmarkConfigs.getMaxBatchSize(),
+        benchmarkConfigs.getPublishRate());
+    long startNanos = System.nanoTime();
+    task.call();
+    publishedRecords += task.getPublishedRecords();
+    awaitDelivery(benchmarkConfigs, publishedRecords);
+    long durationNanos = System.nanoTime() - startNanos;
+    log.info("Published iteration {} at {} {}",
+        iteration, task.getAchievedRate(), benchmarkConfigs.getPublishRate().getUnit());
+    return new BenchmarkResult.Iteration(
+        iteration, task.getPublishedRecords(), task.getPublishedBytes(), durationNanos);
+  }
+
+  /** This method starts the connector and waits for it and its tasks to run. Without a
+   * readiness probe factory in the benchmark configs, it then sleeps for the connector start
+   * delay. With one, the benchmark waits for a new probe to report that the connector processes
+   * the warm-up data instead.
+   * @param benchmarkConfigs BenchmarkConfigs to be used for the benchmark.
+   * @throws Exception Exception thrown if any.
+   * */
+  protected void startConnector(BenchmarkConfigs benchmarkConfigs) throws Exception {
+    log.info("Starting Connector: {}", connectorName);
+    if (benchmarkConfigs.getReadinessProbeFactory() == null) {
+      ConnectorUtils.startConnector(
+          connect, connectorName, configProperties,
+          benchmarkConfigs.getConnectorStartDelayMs());
+    } else {
+      connect.configureConnector(connectorName, configProperties);
+      ConnectorUtils.waitForConnectorToStart(
+          connect, connectorName, ConnectorUtils.getTaskMax(configProperties));
+    }
+  }
+
+  private ReadinessProbe startReadinessProbe(
+      BenchmarkConfigs benchmarkConfigs) throws InterruptedException {
+    if (benchmarkConfigs.getReadinessProbeFactory() == null) {
+      return null;
+    }
+    ReadinessProbe readinessProbe = benchmarkConfigs.getReadinessProbeFactory().get();
+    ConnectorUtils.startReadinessProbe(readinessProbe);
+    return readinessProbe;
+  }
+
+  private void waitForConnectorToBeReady(
+      BenchmarkConfigs benchmarkConfigs, ReadinessProbe readinessProbe)
+      throws InterruptedException {
+    if (readinessProbe != null) {
+      ConnectorUtils.waitForConnectorToBeReady(
+          connect, connectorName, ConnectorUtils.getTaskMax(configProperties),
+          readinessProbe, benchmarkConfigs.getConnectorStartDelayMs());
+    }
+  }
+
+  private DataPublisherTask<S> publish(
+      BenchmarkConfigs benchmarkConfigs, int numberOfRecords) throws Exception {
+    DataPublisherTask<S> task = new DataPublisherTask<>(
+        dataPublisher, numberOfRecords, 0, benchmarkConfigs.getMaxBatchSize());
+    task.call();
+    publishedRecords += task.getPublishedRecords();
+    return task;
+  }
+
+  /** Wait until the given number of distinct records is in the end system. */
+  private void awaitDelivery(
+      BenchmarkConfigs benchmarkConfigs, long expected) throws Exception {
+    long deadlineMs = System.currentTimeMillis() + benchmarkConfigs.getMaxDrainTimeMs();
+    while (true) {
+      long delivered = countDelivered(expected);
+      if (delivered >= expected) {
+        return;
+      }
+      if (System.currentTimeMillis() >= deadlineMs) {
+        Assertions.fail("Only " + delivered + " of " + expected + " records were delivered by "
+            + connectorName + " within " + benchmarkConfigs.getMaxDrainTimeMs() + " ms.");
+      }
+      Thread.sleep(DRAIN_POLL_INTERVAL_MS);
+    }
+  }
+
+  /** Count the records delivered so far, reading only the new records of the end system. */
+  private long countDelivered(long expected) throws Exception {
+    if (dataExtractor instanceof IncrementalKafkaDataExtractor) {
+      int pending = (int) Math.min(Integer.MAX_VALUE, expected - deliveredUniqueKeys.size());
+      // duplicates are only counted once, so that at least once delivery does not end early
+      deliveredUniqueKeys.addAll(
+          ((IncrementalKafkaDataExtractor) dataExtractor).extractNewUniqueKeys(pending));
+      return deliveredUniqueKeys.size();
+    }
+    return expected - lagMonitor.measureLag().getTotalLag();
+  }
+}